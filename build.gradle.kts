@@ -98,6 +98,9 @@ val javaFxExampleConfig = configurations.create("javaFxExampleConfig").run { ext
 val swtExampleCompile = configurations.create("swtExampleCompile").run { extendsFrom(configurations.compileClasspath.get()) }
 val swtExampleConfig = configurations.create("swtExampleConfig").run { extendsFrom(swtExampleCompile) }
 
+val benchmarkCompile = configurations.create("benchmarkCompile").run { extendsFrom(configurations.compileClasspath.get()) }
+val benchmarkProcessor = configurations.create("benchmarkProcessor")
+
 val linux64SwtDeps : Configuration by configurations.creating { extendsFrom(configurations.implementation.get()) }
 val mac64SwtDeps : Configuration by configurations.creating { extendsFrom(configurations.implementation.get()) }
 val macArm64SwtDeps : Configuration by configurations.creating { extendsFrom(configurations.implementation.get()) }
@@ -106,10 +109,12 @@ val win64SwtDeps : Configuration by configurations.creating { extendsFrom(config
 val normalExampleSet = sourceSets.create("normalExample")
 val javaFxExampleSet = sourceSets.create("javaFxExample")
 val swtExampleSet = sourceSets.create("swtExample")
+val benchmarkSet = sourceSets.create("benchmark")
 
 fun SourceSetContainer.normalExample(block: SourceSet.() -> Unit) = normalExampleSet.apply(block)
 fun SourceSetContainer.javaFxExample(block: SourceSet.() -> Unit) = javaFxExampleSet.apply(block)
 fun SourceSetContainer.swtExample(block: SourceSet.() -> Unit) = swtExampleSet.apply(block)
+fun SourceSetContainer.benchmark(block: SourceSet.() -> Unit) = benchmarkSet.apply(block)
 
 sourceSets {
     main {
@@ -191,6 +196,24 @@ sourceSets {
         compileClasspath += sourceSets["main"].compileClasspath
         runtimeClasspath += sourceSets["main"].runtimeClasspath
     }
+
+    // JMH benchmarks. These are in the same packages as the classes they measure, so they can use package-private methods.
+    benchmark {
+        java {
+            setSrcDirs(listOf("test-benchmark"))
+            // only want to include java files for the source. 'setSrcDirs' resets includes...
+            include("**/*.java")
+        }
+
+        resources {
+            setSrcDirs(listOf("test-resources"))
+            include("dorkbox/*.png")
+        }
+
+        compileClasspath += benchmarkCompile + sourceSets["main"].compileClasspath
+        runtimeClasspath += benchmarkCompile + sourceSets["main"].runtimeClasspath
+        annotationProcessorPath += benchmarkProcessor
+    }
 }
 
 
@@ -287,6 +310,7 @@ dependencies {
     normalExampleCompile(sourceSets.main.get().output)
     javaFxExampleCompile(sourceSets.main.get().output)
     swtExampleCompile(sourceSets.main.get().output)
+    benchmarkCompile(sourceSets.main.get().output)
 
 
 
@@ -294,6 +318,7 @@ dependencies {
     normalExampleCompile(logback)
     javaFxExampleCompile(logback)
     swtExampleCompile(logback)
+    benchmarkCompile(logback)
     linux64SwtDeps(logback)
     mac64SwtDeps(logback)
     macArm64SwtDeps(logback)
@@ -303,6 +328,11 @@ dependencies {
 
 
 
+    val jmhVersion = "1.37"
+    benchmarkCompile("org.openjdk.jmh:jmh-core:$jmhVersion")
+    benchmarkProcessor("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+
+
     // SEE: https://repo1.maven.org/maven2/org/eclipse/platform/
     swtExampleCompile(GradleUtils.getSwtMavenId(swtVersion)) { isTransitive = false }
 
@@ -367,6 +397,14 @@ task<JavaExec>("SystemTray_swt") {
     jvmArgs = listOf("-XstartOnFirstThread")
 }
 
+// runs the JMH benchmarks, for example: ./gradlew SystemTray_benchmark -Pjmh="ImageDecodeBenchmark -f 1"
+task<JavaExec>("SystemTray_benchmark") {
+    group = LifecycleBasePlugin.VERIFICATION_GROUP
+    classpath = benchmarkSet.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args = (project.findProperty("jmh") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: listOf()
+}
+
 
 ///////////////////////////
 //    Jar Tasks
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray;
+
+import java.awt.Color;
+import java.util.Objects;
+
+/**
+ * How a badge (for example, an unread count) is drawn over the tray icon. See {@link SystemTray#setBadge(String, BadgeStyle)}
+ */
+public final
+class BadgeStyle {
+    public
+    enum Position {
+        TOP_LEFT, TOP_RIGHT, BOTTOM_LEFT, BOTTOM_RIGHT
+    }
+
+    /**
+     * A white badge text on a red circle, in the top-right corner of the tray icon
+     */
+    public static final BadgeStyle DEFAULT = new BadgeStyle(Position.TOP_RIGHT, new Color(0xD32F2F), Color.WHITE, 0.55F);
+
+    private final Position position;
+    private final Color background;
+    private final Color foreground;
+    private final float size;
+
+    /**
+     * @param position the corner of the tray icon where the badge is drawn
+     * @param background the color of the badge
+     * @param foreground the color of the badge text
+     * @param size the height of the badge, relative to the size of the tray icon (from 0.0 to 1.0)
+     */
+    public
+    BadgeStyle(final Position position, final Color background, final Color foreground, final float size) {
+        if (position == null) {
+            throw new NullPointerException("position");
+        }
+        if (background == null) {
+            throw new NullPointerException("background");
+        }
+        if (foreground == null) {
+            throw new NullPointerException("foreground");
+        }
+        if (size <= 0.0F || size > 1.0F) {
+            throw new IllegalArgumentException("The badge size must be greater than 0.0 and at most 1.0");
+        }
+
+        this.position = position;
+        this.background = background;
+        this.foreground = foreground;
+        this.size = size;
+    }
+
+    public
+    Position getPosition() {
+        return position;
+    }
+
+    public
+    Color getBackground() {
+        return background;
+    }
+
+    public
+    Color getForeground() {
+        return foreground;
+    }
+
+    public
+    float getSize() {
+        return size;
+    }
+
+    @Override
+    public
+    boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final BadgeStyle that = (BadgeStyle) o;
+        return Float.compare(that.size, size) == 0 && position == that.position && background.equals(that.background) &&
+               foreground.equals(that.foreground);
+    }
+
+    @Override
+    public
+    int hashCode() {
+        return Objects.hash(position, background, foreground, size);
+    }
+}
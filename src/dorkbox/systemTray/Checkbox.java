@@ -16,6 +16,8 @@
 package dorkbox.systemTray;
 
 import java.awt.event.ActionListener;
+import java.util.Objects;
+import java.util.concurrent.Executor;
 
 import javax.swing.JCheckBoxMenuItem;
 
@@ -32,11 +34,15 @@ class Checkbox extends Entry {
     private volatile boolean isChecked = false;
     private volatile String text;
     private volatile ActionListener callback;
+    private volatile Executor callbackExecutor = null;
 
     private volatile boolean enabled = true;
     private volatile char mnemonicKey;
     private volatile String tooltip;
 
+    // non-null if this checkbox is part of a radio group, which decides if this checkbox is checked or not
+    private volatile RadioGroup radioGroup = null;
+
     public
     Checkbox() {
         this(null, null);
@@ -107,11 +113,63 @@ class Checkbox extends Entry {
      */
     public
     void setChecked(boolean isChecked) {
-        this.isChecked = isChecked;
+        final RadioGroup radioGroup = this.radioGroup;
+        if (radioGroup != null) {
+            // only one checkbox in a radio group can be checked
+            radioGroup.setChecked(this, isChecked, false);
+            return;
+        }
 
-        if (peer != null) {
-            ((CheckboxPeer) peer).setChecked(this);
+        applyChecked(isChecked);
+    }
+
+    /**
+     * Called by the peer (on the native event thread) when the checkbox is clicked. This is the same as {@link #setChecked(boolean)},
+     * except that a radio group reports the new selection to its callback.
+     *
+     * @param isChecked the new checked status
+     */
+    public final
+    void setCheckedByClick(final boolean isChecked) {
+        final RadioGroup radioGroup = this.radioGroup;
+        if (radioGroup != null) {
+            radioGroup.setChecked(this, isChecked, true);
+            return;
         }
+
+        applyChecked(isChecked);
+    }
+
+    /**
+     * Changes the checked status, without going through the radio group.
+     */
+    final
+    void applyChecked(final boolean isChecked) {
+        this.isChecked = isChecked;
+
+        updatePeer(PeerUpdates.CHECKED, isChecked, (CheckboxPeer peer)->peer.setChecked(this));
+    }
+
+    /**
+     * Makes the peer show the current checked status again, even if the peer thinks it already does (the native checkbox can change
+     * by itself when it is clicked).
+     */
+    final
+    void refreshChecked() {
+        updatePeer((CheckboxPeer peer)->peer.setChecked(this));
+    }
+
+    /**
+     * @return the radio group this checkbox is part of, or null if it is not part of one
+     */
+    public
+    RadioGroup getRadioGroup() {
+        return radioGroup;
+    }
+
+    final
+    void setRadioGroup(final RadioGroup radioGroup) {
+        this.radioGroup = radioGroup;
     }
 
     /**
@@ -130,9 +188,28 @@ class Checkbox extends Entry {
     public
     void setCallback(final ActionListener callback) {
         this.callback = callback;
-        if (peer != null) {
-            ((CheckboxPeer) peer).setCallback(this);
-        }
+        updatePeer((CheckboxPeer peer)->peer.setCallback(this));
+    }
+
+    /**
+     * Gets the executor that runs the callback for this menu entry
+     *
+     * @return the executor, or NULL if the callback runs on the executor set via {@link SystemTray#setCallbackExecutor(Executor)}
+     */
+    public
+    Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * Sets the executor that runs the callback for this menu entry, for example when the callback blocks and should not hold up the
+     * callbacks of other menu entries. See {@link dorkbox.systemTray.util.CallbackExecutors} for the provided executors.
+     *
+     * @param executor the executor to use, or NULL to use the executor set via {@link SystemTray#setCallbackExecutor(Executor)}
+     */
+    public
+    void setCallbackExecutor(final Executor executor) {
+        this.callbackExecutor = executor;
     }
 
     /**
@@ -150,9 +227,7 @@ class Checkbox extends Entry {
     void setEnabled(final boolean enabled) {
         this.enabled = enabled;
 
-        if (peer != null) {
-            ((CheckboxPeer) peer).setEnabled(this);
-        }
+        updatePeer(PeerUpdates.ENABLED, enabled, (CheckboxPeer peer)->peer.setEnabled(this));
     }
 
     /**
@@ -172,9 +247,7 @@ class Checkbox extends Entry {
     void setText(final String text) {
         this.text = text;
 
-        if (peer != null) {
-            ((CheckboxPeer) peer).setText(this);
-        }
+        updatePeer(PeerUpdates.TEXT, text, (CheckboxPeer peer)->peer.setText(this));
     }
 
     /**
@@ -201,9 +274,7 @@ class Checkbox extends Entry {
     void setShortcut(final char key) {
         this.mnemonicKey = key;
 
-        if (peer != null) {
-            ((CheckboxPeer) peer).setShortcut(this);
-        }
+        updatePeer((CheckboxPeer peer)->peer.setShortcut(this));
     }
 
     /**
@@ -218,9 +289,7 @@ class Checkbox extends Entry {
     void setShortcut(final int key) {
         this.mnemonicKey = SwingUtil.INSTANCE.getFromVirtualKey(key);
 
-        if (peer != null) {
-            ((CheckboxPeer) peer).setShortcut(this);
-        }
+        updatePeer((CheckboxPeer peer)->peer.setShortcut(this));
     }
 
     /**
@@ -249,9 +318,7 @@ class Checkbox extends Entry {
 
         this.tooltip = tooltipText;
 
-        if (peer != null) {
-            ((CheckboxPeer) peer).setTooltip(this);
-        }
+        updatePeer(PeerUpdates.TOOLTIP, tooltipText, (CheckboxPeer peer)->peer.setTooltip(this));
     }
 
     /**
@@ -264,6 +331,30 @@ class Checkbox extends Entry {
         return this.tooltip;
     }
 
+    @Override
+    void updateFrom(final Entry other) {
+        final Checkbox checkbox = (Checkbox) other;
+
+        if (!Objects.equals(this.text, checkbox.text)) {
+            setText(checkbox.text);
+        }
+        if (this.isChecked != checkbox.isChecked) {
+            setChecked(checkbox.isChecked);
+        }
+        if (this.enabled != checkbox.enabled) {
+            setEnabled(checkbox.enabled);
+        }
+        if (this.callback != checkbox.callback) {
+            setCallback(checkbox.callback);
+        }
+        this.callbackExecutor = checkbox.callbackExecutor;
+        if (this.mnemonicKey != checkbox.mnemonicKey) {
+            setShortcut(checkbox.mnemonicKey);
+        }
+        if (!Objects.equals(this.tooltip, checkbox.tooltip)) {
+            setTooltip(checkbox.tooltip);
+        }
+    }
 
     /**
      * @return a copy of this Checkbox as a swing JCheckBoxMenuItem, with all elements converted to their respective swing elements. Modifications to the elements of the new JCheckBoxMenuItem will not affect anything, as they are all copies
@@ -16,6 +16,7 @@
 package dorkbox.systemTray;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import dorkbox.systemTray.peer.EntryPeer;
 import dorkbox.systemTray.util.ImageResizeUtil;
@@ -34,6 +35,9 @@ class Entry {
     protected volatile EntryPeer peer;
     protected volatile ImageResizeUtil imageResizeUtil;
 
+    // created when a property is first changed after this entry has a peer. Access must be synchronized on 'this'
+    private PeerUpdates peerUpdates;
+
     public
     Entry() {
     }
@@ -51,6 +55,16 @@ class Entry {
         this.parent = parent;
         this.peer = peer;
         this.imageResizeUtil = imageResizeUtil;
+
+        PeerUpdates peerUpdates;
+        synchronized (this) {
+            peerUpdates = this.peerUpdates;
+        }
+
+        if (peerUpdates != null) {
+            // the new peer is given all of the current values when it is bound
+            peerUpdates.reset();
+        }
     }
 
     // END methods for hooking into the system tray, menu's, and entries.
@@ -79,6 +93,81 @@ class Entry {
     ImageResizeUtil getImageResizeUtil() {
         return this.imageResizeUtil;
     }
+    /**
+     * Applies a property change to the peer. If a parent menu is in the middle of a batch update, the change is deferred until that
+     * batch is committed, so that it is applied together with everything else in the batch.
+     */
+    final
+    <T extends EntryPeer> void updatePeer(final Consumer<T> update) {
+        if (peer != null) {
+            runPeerUpdate(peerUpdate(update));
+        }
+    }
+
+    /**
+     * Applies a property change to the peer, coalescing bursts of changes to the same property (see
+     * {@link SystemTray#PROPERTY_UPDATE_INTERVAL}). Changes that would not change what the peer already shows are dropped.
+     *
+     * @param property the property that changed, from {@link PeerUpdates}
+     * @param value the new value of the property
+     */
+    final
+    <T extends EntryPeer> void updatePeer(final int property, final Object value, final Consumer<T> update) {
+        if (peer == null) {
+            return;
+        }
+
+        PeerUpdates peerUpdates;
+        synchronized (this) {
+            peerUpdates = this.peerUpdates;
+            if (peerUpdates == null) {
+                peerUpdates = new PeerUpdates(this);
+                this.peerUpdates = peerUpdates;
+            }
+        }
+
+        peerUpdates.update(property, value, peerUpdate(update));
+    }
+
+    @SuppressWarnings("unchecked")
+    private
+    <T extends EntryPeer> Runnable peerUpdate(final Consumer<T> update) {
+        return ()->{
+            // the peer can change (or be removed) while the update is deferred
+            EntryPeer peer = this.peer;
+            if (peer != null) {
+                update.accept((T) peer);
+            }
+        };
+    }
+
+    /**
+     * Runs the peer update now, or defers it if a parent menu is in the middle of a batch update.
+     */
+    final
+    void runPeerUpdate(final Runnable update) {
+        Menu parent = this.parent;
+        if (parent == null || !parent.deferPeerAction(update)) {
+            update.run();
+        }
+    }
+
+    /**
+     * Gives this entry the properties of the other entry (which is the same type as this entry), when the entries of a menu are
+     * replaced. This entry keeps its native widget, and only the properties that changed are updated.
+     */
+    void updateFrom(final Entry other) {
+    }
+
+    /**
+     * Forgets the peer of this entry (and of its children) WITHOUT removing this entry from the menu, so that a new peer can be bound
+     * to it. The old peer must be removed by the caller.
+     */
+    void unbind() {
+        this.parent = null;
+        this.peer = null;
+    }
+
     /**
      * Removes this menu entry from the menu and releases all system resources associated with this menu entry.
      */
@@ -92,6 +181,13 @@ class Entry {
         }
     }
 
+    /**
+     * @return the unique id of this entry. This id never changes, and can be used to find this entry via {@link Menu#findById(int)}
+     */
+    public final
+    int getId() {
+        return id;
+    }
 
     @Override
     public final
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import dorkbox.systemTray.util.ImageResizeUtil;
+import dorkbox.util.NamedThreadFactory;
+
+/**
+ * Resizes/caches the images of entries (and all of their children) that are about to be added to a menu, in parallel on the
+ * "SystemTrayImages" executor. This never blocks the caller (which is often the Swing EDT or the JavaFX/SWT thread), or the native event
+ * thread. The event dispatch waits for the images before the entries are added to the native menu (in a single pass), so that the native
+ * menu is not changed again for every image.
+ * <p>
+ * When a menu loads its content because it is about to be shown, nothing waits for the images (that happens on the native event
+ * thread). Those entries are added right away, and each image is applied to its entry when it is ready.
+ * <p>
+ * Images that are changed after an entry is part of a menu are resized/cached on the same executor.
+ */
+final
+class EntryImages {
+    private static ThreadPoolExecutor executor = null;
+
+    private
+    EntryImages() {
+    }
+
+    private static synchronized
+    ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            final int threads = Runtime.getRuntime().availableProcessors();
+            executor = new ThreadPoolExecutor(threads, threads, 10L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                                              new NamedThreadFactory("SystemTrayImages", Thread.currentThread().getThreadGroup(),
+                                                                     Thread.NORM_PRIORITY, true));
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    /**
+     * Resizes/caches an image in the background
+     */
+    static
+    Future<?> execute(final Runnable task) {
+        return getExecutor().submit(task);
+    }
+
+    /**
+     * Changes how many images are resized/cached at the same time. By default, this is the number of CPU cores.
+     */
+    static synchronized
+    void setThreads(final int threads) {
+        final ThreadPoolExecutor executor = getExecutor();
+
+        // the core size can never be larger than the maximum size
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        }
+        else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    /**
+     * Cancels an image that has not been resized/cached yet (because a newer image superseded it). If it has not started, it is removed
+     * from the queue.
+     */
+    static
+    void cancel(final Future<?> task) {
+        if (task.cancel(false) && task instanceof Runnable) {
+            getExecutor().remove((Runnable) task);
+        }
+    }
+
+    /**
+     * Starts to resize/cache the images of the entries (and their children) that are not part of a menu yet. This does not wait for them.
+     *
+     * @return the tasks that resize/cache the images, see {@link #await(List)}
+     */
+    static
+    List<Future<?>> prepare(final List<? extends Entry> entries, final ImageResizeUtil imageResizeUtil) {
+        if (imageResizeUtil == null) {
+            // we are not part of a tray yet, the images are resized/cached when we are
+            return Collections.emptyList();
+        }
+
+        final List<MenuItem> items = new ArrayList<>();
+        for (final Entry entry : entries) {
+            collect(entry, items);
+        }
+
+        final List<Future<?>> tasks = new ArrayList<>(items.size());
+        for (final MenuItem item : items) {
+            try {
+                final Future<?> task = item.prepareImage(imageResizeUtil);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            } catch (Exception e) {
+                SystemTray.logger.error("Error preparing the image for the menu entry '{}'", item.getText(), e);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Waits until the images have been resized/cached, and applied to their entries. This must NEVER be called on the native event
+     * thread, or by the caller of a menu change.
+     */
+    static
+    void await(final List<Future<?>> tasks) {
+        //noinspection ForLoopReplaceableByForEach
+        for (int i = 0, size = tasks.size(); i < size; i++) {
+            try {
+                tasks.get(i).get();
+            } catch (CancellationException | ExecutionException ignored) {
+                // a newer image was set instead, or the error was already logged
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static
+    void collect(final Entry entry, final List<MenuItem> items) {
+        if (entry instanceof MenuItem && !entry.hasPeer() && ((MenuItem) entry).hasUnrealizedImage()) {
+            items.add((MenuItem) entry);
+        }
+
+        if (entry instanceof Menu) {
+            for (final Entry child : ((Menu) entry).getEntries()) {
+                collect(child, items);
+            }
+        }
+    }
+}
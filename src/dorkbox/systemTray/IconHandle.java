@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray;
+
+import dorkbox.systemTray.util.ResizedImage;
+
+/**
+ * An image that was registered with {@link TrayIcons}, and that has already been resized/cached for the tray icon and for menu entries.
+ * <p>
+ * Setting an image via an IconHandle does not read, hash, resize or cache anything, so it is cheap to use the same icon for many
+ * entries (or to switch between a few icons often).
+ */
+public final
+class IconHandle {
+    private final String name;
+    private final ResizedImage trayImage;
+    private final ResizedImage menuImage;
+
+    IconHandle(final String name, final ResizedImage trayImage, final ResizedImage menuImage) {
+        this.name = name;
+        this.trayImage = trayImage;
+        this.menuImage = menuImage;
+    }
+
+    /**
+     * @return the name this icon was registered with
+     */
+    public
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return the image, resized/cached for the tray icon
+     */
+    public
+    ResizedImage getTrayImage() {
+        return trayImage;
+    }
+
+    /**
+     * @return the image, resized/cached for menu entries
+     */
+    public
+    ResizedImage getMenuImage() {
+        return menuImage;
+    }
+
+    @Override
+    public
+    String toString() {
+        return "IconHandle{" + name + '}';
+    }
+}
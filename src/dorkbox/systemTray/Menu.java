@@ -24,8 +24,12 @@ import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
@@ -46,8 +50,44 @@ import dorkbox.util.SwingUtil;
 @SuppressWarnings("unused")
 public
 class Menu extends MenuItem {
-    // access on this object must be synchronized for object visibility
-    final List<Entry> menuEntries = new ArrayList<>();
+    // an immutable snapshot of the entries in this menu. Changes publish a new snapshot, so reading the entries never needs a lock
+    private final AtomicReference<MenuEntries> menuEntries = new AtomicReference<>(MenuEntries.EMPTY);
+
+    // non-null while a batch update is in progress. Access on this must be synchronized on batchLock
+    private final Object batchLock = new Object();
+    private List<Runnable> batchedPeerActions = null;
+    private List<Runnable> batchedImageWaits = null;
+    private int batchDepth = 0;
+
+    // entries from addAsync() that have not been applied yet. They are applied together, in a single trip to the native event thread.
+    // Access on this must be synchronized on batchLock
+    private List<AsyncAdd> asyncAdds = null;
+
+    // the changes of a lazy load, which are applied on their own so that the menu is never shown before a batch update that another
+    // thread has open is committed. Access on these must be synchronized on batchLock
+    private Thread lazyLoadThread = null;
+    private List<Runnable> lazyLoadActions = null;
+
+    private static final
+    class AsyncAdd {
+        private final Entry entry;
+        private final int index;
+        private final CompletableFuture<Entry> future;
+        private final List<Future<?>> images;
+
+        private
+        AsyncAdd(final Entry entry, final int index, final CompletableFuture<Entry> future, final List<Future<?>> images) {
+            this.entry = entry;
+            this.index = index;
+            this.future = future;
+            this.images = images;
+        }
+    }
+
+    // creates the entries of this menu when it is first shown (or every time it is shown)
+    private volatile Supplier<List<Entry>> lazyContent = null;
+    private volatile boolean reloadLazyContent = false;
+    private volatile boolean lazyContentLoaded = false;
 
     public
     Menu() {
@@ -157,17 +197,135 @@ class Menu extends MenuItem {
     void bind(final MenuPeer peer, final Menu parent, ImageResizeUtil imageResizeUtil) {
         super.bind(peer, parent, imageResizeUtil);
 
-        List<Entry> copy;
-        synchronized (menuEntries) {
-            // access on this object must be synchronized for object visibility
-            // a copy is made to prevent deadlocks from occurring when operating in different threads
-            copy = new ArrayList<>(menuEntries);
-        }
+        // the snapshot never changes, so it is safe to iterate it while other threads are changing this menu
+        final MenuEntries snapshot = menuEntries.get();
+
+        // entries that were added before we were part of a tray have not resized/cached their images yet. They are all started (in the
+        // background) before anything is bound. This is on the native event thread, so the entries are bound right away, and each image
+        // is applied when it is ready.
+        EntryImages.prepare(snapshot, imageResizeUtil);
 
-        for (int i = 0, menuEntriesSize = copy.size(); i < menuEntriesSize; i++) {
-            final Entry menuEntry = copy.get(i);
+        for (int i = 0, menuEntriesSize = snapshot.size(); i < menuEntriesSize; i++) {
+            final Entry menuEntry = snapshot.get(i);
             peer.add(this, menuEntry, i);
         }
+
+        if (lazyContent != null) {
+            enableLazyContent(peer);
+        }
+    }
+
+    /**
+     * Sets the supplier for the entries of this menu, which is only called when the menu is about to be shown for the first time. Until
+     * then, nothing is created for the entries of this menu.
+     * <p>
+     * If the native menu cannot tell when it is about to be shown (AWT menus, and AppIndicator menus), the entries are created right
+     * away.
+     *
+     * @param content the supplier for the entries of this menu, or null to stop loading the entries of this menu.
+     */
+    public final
+    void setLazyContent(final Supplier<List<Entry>> content) {
+        setLazyContent(content, false);
+    }
+
+    /**
+     * Sets the supplier for the entries of this menu, which is only called when the menu is about to be shown. Until then, nothing is
+     * created for the entries of this menu.
+     * <p>
+     * If the native menu cannot tell when it is about to be shown (AWT menus, and AppIndicator menus), the entries are created right
+     * away (and are not reloaded).
+     *
+     * @param content the supplier for the entries of this menu, or null to stop loading the entries of this menu.
+     * @param reloadOnShow true to call the supplier every time the menu is about to be shown. The new entries replace the current
+     *         entries (see {@link #replaceAll(List)}), so only what changed is applied to the native menu.
+     */
+    public final
+    void setLazyContent(final Supplier<List<Entry>> content, final boolean reloadOnShow) {
+        this.reloadLazyContent = reloadOnShow;
+        this.lazyContentLoaded = false;
+        this.lazyContent = content;
+
+        if (content != null) {
+            // all ADD/REMOVE events have to be queued on our own dispatch thread, so the execution order of the events can be maintained.
+            runPeerAction(()->{
+                EntryPeer finalPeer = peer;
+                if (finalPeer != null) {
+                    enableLazyContent((MenuPeer) finalPeer);
+                }
+            });
+        }
+    }
+
+    private
+    void enableLazyContent(final MenuPeer peer) {
+        if (!peer.notifyAboutToShow(this)) {
+            // we will never know when the menu is shown, so the content is loaded now.
+            loadLazyContent(false);
+        }
+    }
+
+    /**
+     * Called by the peer (on the native event thread) when the native menu is about to be shown.
+     */
+    public final
+    void aboutToShow() {
+        // the native menu is about to be shown, so the entries must be applied now instead of queued for later.
+        loadLazyContent(true);
+    }
+
+    private
+    void loadLazyContent(final boolean now) {
+        final Supplier<List<Entry>> content = this.lazyContent;
+        if (content == null || (lazyContentLoaded && !reloadLazyContent)) {
+            return;
+        }
+        lazyContentLoaded = true;
+
+        final List<Entry> entries;
+        try {
+            entries = content.get();
+        } catch (Exception e) {
+            SystemTray.logger.error("Error getting the entries for the menu '{}'", getText(), e);
+            return;
+        }
+
+        if (entries == null) {
+            return;
+        }
+
+        if (!now) {
+            replaceAll(entries);
+            return;
+        }
+
+        // the native menu is about to be shown, so the changes are applied right now, as a batch of their own. If we joined a batch update
+        // that another thread has open, nothing would be applied until that thread commits.
+        final List<Runnable> actions;
+        synchronized (batchLock) {
+            lazyLoadThread = Thread.currentThread();
+            lazyLoadActions = new ArrayList<>();
+        }
+
+        try {
+            replaceEntries(entries);
+        } finally {
+            synchronized (batchLock) {
+                actions = lazyLoadActions;
+                lazyLoadThread = null;
+                lazyLoadActions = null;
+            }
+        }
+
+        final EntryPeer finalPeer = peer;
+        if (finalPeer != null && !actions.isEmpty()) {
+            ((MenuPeer) finalPeer).batch(()->{
+                //noinspection ForLoopReplaceableByForEach
+                for (int i = 0, size = actions.size(); i < size; i++) {
+                    actions.get(i).run();
+                }
+            });
+        }
     }
 
     /**
@@ -220,106 +378,463 @@ class Menu extends MenuItem {
      */
     public
     <T extends Entry> T add(final T entry, final int index) {
-        final int insertIndex;
-        synchronized (menuEntries) {
-            // access on this object must be synchronized for object visibility
-            if (index == -1) {
-                insertIndex = menuEntries.size();
-                menuEntries.add(entry);
-            } else {
-                if (!menuEntries.isEmpty() && menuEntries.get(0) instanceof Status) {
-                    // the "status" menu entry is ALWAYS first
-                    insertIndex = index+1;
-                } else {
-                    insertIndex = index;
-                }
+        // the images of the entry (and its children) are resized/cached in parallel in the background. The entry is added to the native
+        // menu once they are ready.
+        final List<Future<?>> images = EntryImages.prepare(Collections.singletonList(entry), imageResizeUtil);
 
-                menuEntries.add(index, entry);
-            }
-        }
+        final int finalInsertIndex = insertEntry(entry, index);
 
         // all ADD/REMOVE events have to be queued on our own dispatch thread, so the execution order of the events can be maintained.
-        EventDispatch.runLater(()->{
+        runPeerAction(()->{
             EntryPeer finalPeer = peer;
             if (finalPeer != null) {
-                ((MenuPeer) finalPeer).add(Menu.this, entry, insertIndex);
+                ((MenuPeer) finalPeer).add(Menu.this, entry, finalInsertIndex);
             }
-        });
+        }, ()->EntryImages.await(images));
 
         return entry;
     }
 
     /**
-     * Gets the first menu entry or sub-menu, ignoring status and separators
+     * Adds a menu entry, separator, or sub-menu to the end of this menu, without waiting for it to be added to the native menu.
+     *
+     * @return a future that completes (with the entry) once the entry has been added to the native menu. See {@link #addAsync(Entry, int)}
      */
     public final
-    Entry getFirst() {
-        return get(0);
+    CompletableFuture<Entry> addAsync(final Entry entry) {
+        return addAsync(entry, -1);
     }
 
     /**
-     * Gets the last menu entry or sub-menu, ignoring status and separators
+     * Adds a menu entry, separator, or sub-menu to this menu, without waiting for it to be added to the native menu. Entries that are
+     * added this way (one after another) are added to the native menu together, in a single trip to the native event thread, after their
+     * images have been resized/cached in parallel in the background.
+     * <p>
+     * The future completes on the callback executor (see {@link SystemTray#setCallbackExecutor(java.util.concurrent.Executor)}), so
+     * actions that depend on it do not run on the native event thread.
+     *
+     * @return a future that completes (with the entry) once the entry has been added to the native menu. If this menu is not shown
+     *         (it is not part of the system tray yet), the future completes once the entry is part of this menu.
      */
     public
-    Entry getLast() {
-        synchronized (menuEntries) {
-            // access on this object must be synchronized for object visibility
-            if (!menuEntries.isEmpty()) {
-                Entry entry;
-                for (int i = menuEntries.size() - 1; i >= 0; i--) {
-                    entry = menuEntries.get(i);
-
-                    if (!(entry instanceof Separator || entry instanceof Status)) {
-                        return entry;
-                    }
+    CompletableFuture<Entry> addAsync(final Entry entry, final int index) {
+        final CompletableFuture<Entry> future = new CompletableFuture<>();
+        final List<Future<?>> images = EntryImages.prepare(Collections.singletonList(entry), imageResizeUtil);
+        final int insertIndex = insertEntry(entry, index);
+
+        final List<AsyncAdd> group;
+        synchronized (batchLock) {
+            if (asyncAdds != null) {
+                // there are entries waiting to be added, and nothing else has been queued for this menu since.
+                asyncAdds.add(new AsyncAdd(entry, insertIndex, future, images));
+                return future;
+            }
+
+            group = new ArrayList<>();
+            group.add(new AsyncAdd(entry, insertIndex, future, images));
+            asyncAdds = group;
+        }
+
+        // all ADD/REMOVE events have to be queued on our own dispatch thread, so the execution order of the events can be maintained.
+        // Entries can join the group until its images are waited for.
+        final Runnable action = ()->applyAsyncAdds(group);
+        final Runnable awaitImages = ()->{
+            final List<AsyncAdd> adds;
+            synchronized (batchLock) {
+                if (asyncAdds == group) {
+                    // no more entries can be added to this group
+                    asyncAdds = null;
                 }
+                adds = new ArrayList<>(group);
             }
+
+            for (AsyncAdd add : adds) {
+                EntryImages.await(add.images);
+            }
+        };
+        if (!deferPeerAction(action, awaitImages)) {
+            EventDispatch.runLater(withImages(action, awaitImages));
         }
 
-        return null;
+        return future;
     }
 
     /**
-     * Gets the menu entry or sub-menu for a specified index (zero-index), ignoring status and separators
+     * Adds all of the entries from addAsync() in a single trip to the native event thread
+     */
+    private
+    void applyAsyncAdds(final List<AsyncAdd> group) {
+        final List<Entry> entries = new ArrayList<>();
+
+        synchronized (batchLock) {
+            if (asyncAdds == group) {
+                // no more entries can be added to this group
+                asyncAdds = null;
+            }
+
+            for (AsyncAdd add : group) {
+                entries.add(add.entry);
+            }
+        }
+
+        try {
+            final EntryPeer finalPeer = peer;
+            if (finalPeer != null) {
+                ((MenuPeer) finalPeer).batch(()->{
+                    for (AsyncAdd add : group) {
+                        ((MenuPeer) finalPeer).add(Menu.this, add.entry, add.index);
+                    }
+                });
+            }
+        } catch (Throwable t) {
+            SystemTray.logger.error("Error adding menu entries", t);
+            EventDispatch.runCallback(null, ()->{
+                for (AsyncAdd add : group) {
+                    add.future.completeExceptionally(t);
+                }
+            });
+            return;
+        }
+
+        EventDispatch.runCallback(null, ()->{
+            for (AsyncAdd add : group) {
+                add.future.complete(add.entry);
+            }
+        });
+    }
+
+    /**
+     * Removes a menu entry from this menu, without waiting for it to be removed from the native menu.
      *
-     * @param menuIndex the menu entry index to use to retrieve the menu entry.
+     * @return a future that completes (with the entry) once the entry has been removed from the native menu. The future completes on
+     *         the callback executor (see {@link SystemTray#setCallbackExecutor(java.util.concurrent.Executor)}).
      */
     public
-    Entry get(final int menuIndex) {
-        if (menuIndex < 0) {
-            return null;
+    CompletableFuture<Entry> removeAsync(final Entry entry) {
+        final CompletableFuture<Entry> future = new CompletableFuture<>();
+
+        remove(entry);
+
+        // this is queued after the removal, so it runs after the entry was removed
+        runPeerAction(()->EventDispatch.runCallback(null, ()->future.complete(entry)));
+        return future;
+    }
+
+    /**
+     * Adds the entry to our entries, at the specified index (or at the end if the index is -1)
+     *
+     * @return the index that the entry was inserted at
+     */
+    private
+    int insertEntry(final Entry entry, final int index) {
+        MenuEntries snapshot;
+        int insertIndex;
+
+        do {
+            snapshot = menuEntries.get();
+
+            if (index == -1) {
+                insertIndex = snapshot.size();
+            }
+            else if (snapshot.hasStatus()) {
+                // the "status" menu entry is ALWAYS first
+                insertIndex = index + 1;
+            }
+            else {
+                insertIndex = index;
+            }
+        } while (!menuEntries.compareAndSet(snapshot, snapshot.insert(insertIndex, entry)));
+
+        return insertIndex;
+    }
+
+    /**
+     * Replaces all of the entries of this menu (the status is not changed) with the specified entries, as a single batch update.
+     * <p>
+     * Instead of removing everything and adding the new entries, the new entries are compared to the current entries (first by
+     * identity, and then by type and text). A matching current entry is kept, and it is given the properties of the new entry, so
+     * only the entries that were inserted, moved, removed or changed are applied to the native menu. Entries that do not change keep
+     * their native widgets.
+     * <p>
+     * Sub-menus that match are compared the same way, with the entries of the new sub-menu.
+     *
+     * @param entries the new entries for this menu. A new entry that matches a current entry is not added, the current entry is kept
+     *         instead.
+     */
+    public final
+    void replaceAll(final List<? extends Entry> entries) {
+        batch((menu)->replaceEntries(entries));
+    }
+
+    private
+    void replaceEntries(final List<? extends Entry> entries) {
+        MenuEntries snapshot;
+        MenuDiff diff;
+
+        do {
+            snapshot = menuEntries.get();
+            diff = new MenuDiff(snapshot, entries);
+        } while (!menuEntries.compareAndSet(snapshot, diff.result()));
+
+        final List<Runnable> actions = diff.apply(this);
+        final List<Future<?>> images = diff.getImages();
+
+        // all ADD/REMOVE events have to be queued on our own dispatch thread, so the execution order of the events can be maintained.
+        // These are always part of a batch update (or a lazy load), so the images only have to be waited for once.
+        for (int i = 0, size = actions.size(); i < size; i++) {
+            runPeerAction(actions.get(i), i == 0 && !images.isEmpty() ? ()->EntryImages.await(images) : null);
+        }
+    }
+
+    /**
+     * Runs all of the changes made by the consumer (adding/removing entries, and changing entries of this menu or its sub-menus) as a
+     * single batch update. Instead of every change being applied to the native menu one at a time, the entire batch is applied at once
+     * so the native menu is only rebuilt a single time.
+     * <p>
+     * Batch updates can be nested, in which case the changes are applied when the outer-most batch update is committed.
+     *
+     * @param updates the changes to make to this menu
+     */
+    public final
+    void batch(final Consumer<Menu> updates) {
+        beginUpdate();
+        try {
+            updates.accept(this);
+        } finally {
+            commit();
+        }
+    }
+
+    /**
+     * Starts a batch update for this menu. All changes made to this menu (and its sub-menus) are collected, and are only applied to the
+     * native menu when {@link #commit()} is called.
+     * <p>
+     * Every call to beginUpdate() MUST have a matching call to {@link #commit()}.
+     */
+    public final
+    void beginUpdate() {
+        synchronized (batchLock) {
+            if (batchDepth++ == 0) {
+                batchedPeerActions = new ArrayList<>();
+                batchedImageWaits = new ArrayList<>();
+            }
         }
+    }
+
+    /**
+     * Applies all of the changes collected since {@link #beginUpdate()} as a single unit.
+     */
+    public final
+    void commit() {
+        final List<Runnable> actions;
+        final List<Runnable> imageWaits;
+
+        synchronized (batchLock) {
+            if (batchDepth == 0) {
+                SystemTray.logger.error("Unable to commit the menu changes, there is no batch update in progress.");
+                return;
+            }
+
+            if (--batchDepth > 0) {
+                // nested batch update. Everything is applied when the outer-most batch update is committed
+                return;
+            }
+
+            actions = batchedPeerActions;
+            imageWaits = batchedImageWaits;
+            batchedPeerActions = null;
+            batchedImageWaits = null;
+        }
+
+        if (actions.isEmpty()) {
+            return;
+        }
+
+        // the images of the added entries are waited for on the event dispatch, before the native menu is changed
+        final Runnable awaitImages = imageWaits.isEmpty() ? null : ()->{
+            //noinspection ForLoopReplaceableByForEach
+            for (int i = 0, size = imageWaits.size(); i < size; i++) {
+                imageWaits.get(i).run();
+            }
+        };
 
-        synchronized (menuEntries) {
-            // access on this object must be synchronized for object visibility
-            if (!menuEntries.isEmpty()) {
-                int count = 0;
-                for (Entry entry : menuEntries) {
-                    if (entry instanceof Separator || entry instanceof Status) {
-                        continue;
+        final Runnable batchAction = ()->{
+            EntryPeer finalPeer = peer;
+            if (finalPeer != null) {
+                ((MenuPeer) finalPeer).batch(()->{
+                    //noinspection ForLoopReplaceableByForEach
+                    for (int i = 0, size = actions.size(); i < size; i++) {
+                        actions.get(i).run();
                     }
+                });
+            }
+        };
+
+        endAsyncAdds();
+
+        // if a parent is ALSO in the middle of a batch update, then we are applied with it.
+        Menu parent = getParent();
+        if (parent == null || !parent.deferPeerAction(batchAction, awaitImages)) {
+            EventDispatch.runLater(withImages(batchAction, awaitImages));
+        }
+    }
+
+    /**
+     * If this menu (or one of its parents) is in the middle of a batch update, the action is saved so that it is run when the batch is
+     * committed.
+     *
+     * @return true if the action was deferred, false if it must be run now
+     */
+    final
+    boolean deferPeerAction(final Runnable action) {
+        return deferPeerAction(action, null);
+    }
+
+    /**
+     * If this menu (or one of its parents) is in the middle of a batch update, the action is saved so that it is run when the batch is
+     * committed.
+     *
+     * @param awaitImages waits for the images of the entries that the action adds, or null. This is run on the event dispatch before the
+     *         batch is applied (never on the native event thread). A lazy load does not wait for images.
+     *
+     * @return true if the action was deferred, false if it must be run now
+     */
+    private
+    boolean deferPeerAction(final Runnable action, final Runnable awaitImages) {
+        Menu menu = this;
+        while (menu != null) {
+            synchronized (menu.batchLock) {
+                if (menu.lazyLoadThread == Thread.currentThread()) {
+                    menu.lazyLoadActions.add(action);
+                    return true;
+                }
 
-                    if (count == menuIndex) {
-                        return entry;
+                if (menu.batchedPeerActions != null) {
+                    menu.batchedPeerActions.add(action);
+                    if (awaitImages != null) {
+                        menu.batchedImageWaits.add(awaitImages);
                     }
+                    return true;
+                }
+            }
+
+            menu = menu.getParent();
+        }
+
+        return false;
+    }
 
-                    count++;
+    /**
+     * @return the action, which first waits for the images (if there are any)
+     */
+    private static
+    Runnable withImages(final Runnable action, final Runnable awaitImages) {
+        if (awaitImages == null) {
+            return action;
+        }
+
+        return ()->{
+            awaitImages.run();
+            action.run();
+        };
+    }
+
+    /**
+     * @return true if this menu (or one of its parents) is in the middle of a batch update
+     */
+    final
+    boolean isBatchUpdateInProgress() {
+        Menu menu = this;
+        while (menu != null) {
+            synchronized (menu.batchLock) {
+                if (menu.batchedPeerActions != null || menu.lazyLoadThread == Thread.currentThread()) {
+                    return true;
                 }
             }
+
+            menu = menu.getParent();
         }
 
-        return null;
+        return false;
+    }
+
+    /**
+     * ADD/REMOVE actions are either part of the current batch update, or are queued on our own dispatch thread.
+     */
+    private
+    void runPeerAction(final Runnable action) {
+        runPeerAction(action, null);
+    }
+
+    /**
+     * @param awaitImages waits for the images of the entries that the action adds (see {@link #deferPeerAction(Runnable, Runnable)}), or
+     *         null
+     */
+    private
+    void runPeerAction(final Runnable action, final Runnable awaitImages) {
+        endAsyncAdds();
+
+        if (!deferPeerAction(action, awaitImages)) {
+            EventDispatch.runLater(withImages(action, awaitImages));
+        }
     }
 
     /**
-     * @return a copy of all of the current menu entries. It is safe to modify any of the entries in this list without concerning yourself with synchronize.
+     * Entries from addAsync() that are added after this are applied separately, so they are not applied before the action queued next.
+     */
+    private
+    void endAsyncAdds() {
+        synchronized (batchLock) {
+            asyncAdds = null;
+        }
+    }
+
+    /**
+     * Gets the first menu entry or sub-menu, ignoring status and separators
+     */
+    public final
+    Entry getFirst() {
+        return get(0);
+    }
+
+    /**
+     * Gets the last menu entry or sub-menu, ignoring status and separators
+     */
+    public
+    Entry getLast() {
+        final MenuEntries snapshot = menuEntries.get();
+        return snapshot.getReal(snapshot.realSize() - 1);
+    }
+
+    /**
+     * Gets the menu entry or sub-menu for a specified index (zero-index), ignoring status and separators
+     *
+     * @param menuIndex the menu entry index to use to retrieve the menu entry.
+     */
+    public
+    Entry get(final int menuIndex) {
+        return menuEntries.get().getReal(menuIndex);
+    }
+
+    /**
+     * Gets the menu entry, sub-menu, separator or status that has the specified id.
+     *
+     * @param id the id of the menu entry, as returned by {@link Entry#getId()}
+     *
+     * @return the menu entry, or null if there is no entry in this menu (sub-menus are not searched) that has that id.
+     */
+    public
+    Entry findById(final int id) {
+        return menuEntries.get().findById(id);
+    }
+
+    /**
+     * @return a snapshot of all of the current menu entries. The snapshot does not change (it cannot be modified), and it is safe to
+     * modify any of the entries in this list without concerning yourself with synchronize.
      */
     public
     List<Entry> getEntries() {
-        synchronized (menuEntries) {
-            // access on this object must be synchronized for object visibility
-            return Collections.unmodifiableList(new ArrayList<>(menuEntries));
-        }
+        return menuEntries.get();
     }
 
 
@@ -340,34 +855,48 @@ class Menu extends MenuItem {
         jMenu.setMnemonic(SwingUtil.INSTANCE.getVirtualKey(getShortcut()));
 
 
-        synchronized (menuEntries) {
-            for (final Entry menuEntry : menuEntries) {
-                if (menuEntry instanceof Menu) {
-                    Menu entry = (Menu) menuEntry;
-                    jMenu.add(entry.asSwingComponent());
-                }
-                else if (menuEntry instanceof Checkbox) {
-                    Checkbox entry = (Checkbox) menuEntry;
-                    jMenu.add(entry.asSwingComponent());
-                }
-                else if (menuEntry instanceof MenuItem) {
-                    MenuItem entry = (MenuItem) menuEntry;
-                    jMenu.add(entry.asSwingComponent());
-                }
-                else if (menuEntry instanceof Separator) {
-                    Separator entry = (Separator) menuEntry;
-                    jMenu.add(entry.asSwingComponent());
-                }
-                else if (menuEntry instanceof Status) {
-                    Status entry = (Status) menuEntry;
-                    jMenu.add(entry.asSwingComponent());
-                }
+        for (final Entry menuEntry : menuEntries.get()) {
+            if (menuEntry instanceof Menu) {
+                Menu entry = (Menu) menuEntry;
+                jMenu.add(entry.asSwingComponent());
+            }
+            else if (menuEntry instanceof Checkbox) {
+                Checkbox entry = (Checkbox) menuEntry;
+                jMenu.add(entry.asSwingComponent());
+            }
+            else if (menuEntry instanceof MenuItem) {
+                MenuItem entry = (MenuItem) menuEntry;
+                jMenu.add(entry.asSwingComponent());
+            }
+            else if (menuEntry instanceof Separator) {
+                Separator entry = (Separator) menuEntry;
+                jMenu.add(entry.asSwingComponent());
+            }
+            else if (menuEntry instanceof Status) {
+                Status entry = (Status) menuEntry;
+                jMenu.add(entry.asSwingComponent());
             }
         }
 
         return jMenu;
     }
 
+    @Override
+    void updateFrom(final Entry other) {
+        super.updateFrom(other);
+
+        replaceAll(((Menu) other).getEntries());
+    }
+
+    @Override
+    void unbind() {
+        for (final Entry entry : menuEntries.get()) {
+            entry.unbind();
+        }
+
+        super.unbind();
+    }
+
     /**
      * This removes a menu entry from the menu.
      *
@@ -378,54 +907,34 @@ class Menu extends MenuItem {
         // null is passed in when a sub-menu is removing itself from us (because they have already called "remove" and have also
         // removed themselves from the menuEntries)
         if (entry != null) {
-            Entry toRemove = null;
-
-            synchronized (menuEntries) {
-                // access on this object must be synchronized for object visibility
-                for (Iterator<Entry> iterator = menuEntries.iterator(); iterator.hasNext(); ) {
-                    final Entry entry__ = iterator.next();
-                    if (entry__ == entry) {
-                        iterator.remove();
-                        toRemove = entry__;
-                        break;
-                    }
+            MenuEntries snapshot;
+            int index;
+
+            do {
+                snapshot = menuEntries.get();
+                index = snapshot.find(entry);
+                if (index == -1) {
+                    break;
                 }
-            }
-            if (toRemove != null) {
-                final Entry reference = toRemove;
-                // all ADD/REMOVE events have to be queued on our own dispatch thread, so the execution order of the events can be maintained.
-                EventDispatch.runLater(()->reference.remove());
+            } while (!menuEntries.compareAndSet(snapshot, snapshot.delete(index)));
 
-                toRemove = null;
+            if (index != -1) {
+                // all ADD/REMOVE events have to be queued on our own dispatch thread, so the execution order of the events can be maintained.
+                runPeerAction(()->entry.remove());
             }
 
 
             // now check to see if a spacer is at the TOP of the list (and remove it if so. This is a recursive function.
-            synchronized (menuEntries) {
-                // access on this object must be synchronized for object visibility. When it runs recursively, it will correctly remove the entry.
-                if (!menuEntries.isEmpty()) {
-                    if (menuEntries.get(0) instanceof dorkbox.systemTray.Separator) {
-                        toRemove = menuEntries.get(0);
-                    }
-                }
-            }
-            if (toRemove != null) {
-                remove(toRemove);
-                toRemove = null;
+            snapshot = menuEntries.get();
+            if (!snapshot.isEmpty() && snapshot.get(0) instanceof Separator) {
+                remove(snapshot.get(0));
             }
 
 
             // now check to see if a spacer is at the BOTTOM of the list (and remove it if so. This is a recursive function.
-            synchronized (menuEntries) {
-                // access on this object must be synchronized for object visibility. When it runs recursively, it will correctly remove the entry.
-                if (!menuEntries.isEmpty()) {
-                    if (menuEntries.get(menuEntries.size()-1) instanceof dorkbox.systemTray.Separator) {
-                        toRemove = menuEntries.get(menuEntries.size() - 1);
-                    }
-                }
-            }
-            if (toRemove != null) {
-                remove(toRemove);
+            snapshot = menuEntries.get();
+            if (!snapshot.isEmpty() && snapshot.get(snapshot.size() - 1) instanceof Separator) {
+                remove(snapshot.get(snapshot.size() - 1));
             }
         }
     }
@@ -436,15 +945,13 @@ class Menu extends MenuItem {
     @Override
     public
     void remove() {
-        synchronized (menuEntries) {
-            for (final Entry entry : menuEntries) {
-                entry.remove();
-            }
-
-            menuEntries.clear();
+        final MenuEntries snapshot = menuEntries.getAndSet(MenuEntries.EMPTY);
+        for (final Entry entry : snapshot) {
+            entry.remove();
         }
 
         // all ADD/REMOVE events have to be queued on our own dispatch thread, so the execution order of the events can be maintained.
+        endAsyncAdds();
         EventDispatch.runLater(()->Menu.this.remove_());
     }
 
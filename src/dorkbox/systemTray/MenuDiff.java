@@ -0,0 +1,291 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import dorkbox.systemTray.peer.EntryPeer;
+import dorkbox.systemTray.peer.MenuPeer;
+
+/**
+ * The difference between the current entries of a menu, and the entries that should replace them.
+ * <p>
+ * New entries are matched to the current entries first by identity, and then by their key (the type of entry + the text). A matched
+ * entry keeps the current entry (and its native widget), and is given the properties of the new entry. The largest set of matched
+ * entries that are still in the same order are not touched at all, the other matched entries are moved, unmatched new entries are
+ * inserted, and unmatched current entries are removed.
+ * <p>
+ * The status entry is managed by the tray (see {@link Tray#setStatus(String)}), so it is never part of the difference.
+ */
+final
+class MenuDiff {
+    private final MenuEntries current;
+
+    // the current entry that each new entry matches, or null if it is a new entry
+    private final Entry[] targets;
+    private final Entry[] newEntries;
+
+    // true if the target is in the same order as before (and does not have to move)
+    private final boolean[] kept;
+
+    // the index (in the current entries) of the target of each new entry, or -1 if it is a new entry
+    private final int[] matchedIndex;
+
+    private final List<Entry> removed = new ArrayList<>();
+
+    // the tasks that resize/cache the images of the new entries, set by apply()
+    private List<Future<?>> images = Collections.emptyList();
+
+    MenuDiff(final MenuEntries current, final List<? extends Entry> entries) {
+        this.current = current;
+
+        // the status entry is never replaced, and an entry can only be in a menu once
+        final List<Entry> filtered = new ArrayList<>(entries.size());
+        final Map<Entry, Boolean> seen = new IdentityHashMap<>();
+        for (final Entry entry : entries) {
+            if (entry != null && !(entry instanceof Status) && seen.put(entry, Boolean.TRUE) == null) {
+                filtered.add(entry);
+            }
+        }
+
+        final int size = filtered.size();
+        newEntries = filtered.toArray(new Entry[0]);
+        targets = new Entry[size];
+        kept = new boolean[size];
+
+        final int offset = current.hasStatus() ? 1 : 0;
+        final boolean[] matched = new boolean[current.size()];
+        matchedIndex = new int[size];
+        Arrays.fill(matchedIndex, -1);
+
+        // first, the entries that are still the same object
+        final Map<Entry, Integer> currentIndexes = new IdentityHashMap<>(current.size());
+        for (int i = offset; i < current.size(); i++) {
+            currentIndexes.put(current.get(i), i);
+        }
+
+        for (int i = 0; i < size; i++) {
+            final Integer index = currentIndexes.get(newEntries[i]);
+            if (index != null) {
+                matched[index] = true;
+                matchedIndex[i] = index;
+            }
+        }
+
+        // then the entries that have the same key, in the order that they were in
+        final Map<String, ArrayDeque<Integer>> byKey = new HashMap<>();
+        for (int i = offset; i < current.size(); i++) {
+            if (!matched[i]) {
+                byKey.computeIfAbsent(key(current.get(i)), k->new ArrayDeque<>()).add(i);
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (matchedIndex[i] == -1) {
+                final ArrayDeque<Integer> indexes = byKey.get(key(newEntries[i]));
+                if (indexes != null && !indexes.isEmpty()) {
+                    final int index = indexes.poll();
+                    matched[index] = true;
+                    matchedIndex[i] = index;
+                }
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (matchedIndex[i] != -1) {
+                targets[i] = current.get(matchedIndex[i]);
+            }
+        }
+
+        for (int i = offset; i < current.size(); i++) {
+            if (!matched[i]) {
+                removed.add(current.get(i));
+            }
+        }
+
+        markKept(matchedIndex);
+    }
+
+    private static
+    String key(final Entry entry) {
+        final String text;
+        if (entry instanceof MenuItem) {
+            text = ((MenuItem) entry).getText();
+        }
+        else if (entry instanceof Checkbox) {
+            text = ((Checkbox) entry).getText();
+        }
+        else {
+            text = null;
+        }
+
+        return entry.getClass().getName() + ':' + text;
+    }
+
+    /**
+     * The matched entries that are part of the longest increasing sequence (of their current index) do not have to move.
+     */
+    private
+    void markKept(final int[] matchedIndex) {
+        final int size = matchedIndex.length;
+
+        // tails[k] is the position (in matchedIndex) of the smallest tail of all increasing sequences of length k+1
+        final int[] tails = new int[size];
+        final int[] previous = new int[size];
+        int length = 0;
+
+        for (int i = 0; i < size; i++) {
+            final int value = matchedIndex[i];
+            if (value == -1) {
+                continue;
+            }
+
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (matchedIndex[tails[mid]] < value) {
+                    low = mid + 1;
+                }
+                else {
+                    high = mid;
+                }
+            }
+
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        if (length > 0) {
+            for (int i = tails[length - 1]; i != -1; i = previous[i]) {
+                kept[i] = true;
+            }
+        }
+    }
+
+    /**
+     * @return the entries of the menu after the difference is applied
+     */
+    MenuEntries result() {
+        final int offset = current.hasStatus() ? 1 : 0;
+        final Entry[] entries = new Entry[offset + targets.length];
+        if (offset == 1) {
+            entries[0] = current.get(0);
+        }
+
+        for (int i = 0; i < targets.length; i++) {
+            entries[offset + i] = targets[i] != null ? targets[i] : newEntries[i];
+        }
+
+        return MenuEntries.of(entries);
+    }
+
+    /**
+     * Gives the matched entries the properties of the new entries, and returns the changes (in the order they must happen) for the peer
+     * of the menu.
+     * <p>
+     * Because some peers remove their native widgets later on, every insert happens while the removed entries are still there (and
+     * their native index is calculated accordingly), and everything is removed at the end.
+     */
+    List<Runnable> apply(final Menu menu) {
+        final List<Runnable> actions = new ArrayList<>();
+        final List<EntryPeer> movedPeers = new ArrayList<>();
+
+        // the images of the new entries are resized/cached in parallel in the background (see getImages())
+        final List<Entry> insertedEntries = new ArrayList<>();
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] == null) {
+                insertedEntries.add(newEntries[i]);
+            }
+        }
+        images = EntryImages.prepare(insertedEntries, menu.getImageResizeUtil());
+
+        int cursor = current.hasStatus() ? 1 : 0;
+        int inserted = 0;
+
+        for (int i = 0; i < targets.length; i++) {
+            final Entry target = targets[i];
+
+            if (target != null && target != newEntries[i]) {
+                target.updateFrom(newEntries[i]);
+            }
+
+            if (kept[i]) {
+                cursor = matchedIndex[i] + inserted + 1;
+                continue;
+            }
+
+            final int index = cursor++;
+            inserted++;
+
+            if (target == null) {
+                final Entry entry = newEntries[i];
+                actions.add(()->addToPeer(menu, entry, index));
+            }
+            else {
+                // moving an entry re-creates its native widget at the new index. The old one is removed with everything else.
+                actions.add(()->{
+                    final EntryPeer movedPeer = target.peer;
+                    if (movedPeer != null) {
+                        target.unbind();
+                        movedPeers.add(movedPeer);
+                    }
+
+                    addToPeer(menu, target, index);
+                });
+            }
+        }
+
+        for (final Entry entry : removed) {
+            actions.add(entry::remove);
+        }
+
+        actions.add(()->{
+            for (final EntryPeer movedPeer : movedPeers) {
+                movedPeer.remove();
+            }
+        });
+
+        return actions;
+    }
+
+    /**
+     * @return the tasks that resize/cache the images of the new entries. The new entries should only be added to the native menu once
+     *         these are done (see {@link EntryImages#await(List)}).
+     */
+    List<Future<?>> getImages() {
+        return images;
+    }
+
+    private static
+    void addToPeer(final Menu menu, final Entry entry, final int index) {
+        final EntryPeer peer = menu.peer;
+        if (peer != null) {
+            ((MenuPeer) peer).add(menu, entry, index);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An immutable snapshot of the entries of a menu.
+ * <p>
+ * Every change to a menu publishes a new snapshot (copy-on-write), so reading the entries of a menu never requires a lock or a copy,
+ * and a reader always sees a consistent version of the menu.
+ * <p>
+ * Each snapshot also indexes the positions of the "real" entries (everything that is not a separator or the status), so that positional
+ * access does not have to scan the menu. Entries are found by scanning the array, because every change already copies it (an index by
+ * id would have to be rebuilt for every snapshot as well).
+ */
+final
+class MenuEntries extends AbstractList<Entry> implements RandomAccess {
+    static final MenuEntries EMPTY = new MenuEntries(new Entry[0]);
+
+    private final Entry[] entries;
+
+    // the positions (in 'entries') of the entries that are not a separator or the status
+    private final int[] realPositions;
+
+    private
+    MenuEntries(final Entry[] entries) {
+        this.entries = entries;
+
+        int[] realPositions = new int[entries.length];
+        int count = 0;
+        for (int i = 0; i < entries.length; i++) {
+            final Entry entry = entries[i];
+            if (!(entry instanceof Separator || entry instanceof Status)) {
+                realPositions[count++] = i;
+            }
+        }
+
+        if (count != realPositions.length) {
+            int[] trimmed = new int[count];
+            System.arraycopy(realPositions, 0, trimmed, 0, count);
+            realPositions = trimmed;
+        }
+
+        this.realPositions = realPositions;
+    }
+
+    /**
+     * @return a snapshot of the specified entries. The array must not be modified afterwards.
+     */
+    static
+    MenuEntries of(final Entry[] entries) {
+        if (entries.length == 0) {
+            return EMPTY;
+        }
+        return new MenuEntries(entries);
+    }
+
+    @Override
+    public
+    Entry get(final int index) {
+        return entries[index];
+    }
+
+    @Override
+    public
+    int size() {
+        return entries.length;
+    }
+
+    /**
+     * @return true if the first entry is the "status" entry (which is ALWAYS first)
+     */
+    boolean hasStatus() {
+        return entries.length > 0 && entries[0] instanceof Status;
+    }
+
+    /**
+     * @return the number of entries that are not a separator or the status
+     */
+    int realSize() {
+        return realPositions.length;
+    }
+
+    /**
+     * @return the entry (ignoring status and separators) at the specified index, or null if there is no entry for that index
+     */
+    Entry getReal(final int index) {
+        if (index < 0 || index >= realPositions.length) {
+            return null;
+        }
+
+        return entries[realPositions[index]];
+    }
+
+    /**
+     * @return the entry with the specified id, or null if it is not in this menu
+     */
+    Entry findById(final int id) {
+        for (final Entry entry : entries) {
+            if (entry.getId() == id) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the index of the entry (checked by identity), or -1 if it is not in this menu
+     */
+    int find(final Entry entry) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] == entry) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return a new snapshot, with the entry inserted at the specified index
+     */
+    MenuEntries insert(final int index, final Entry entry) {
+        if (index < 0 || index > entries.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + entries.length);
+        }
+
+        final Entry[] newEntries = new Entry[entries.length + 1];
+        System.arraycopy(entries, 0, newEntries, 0, index);
+        newEntries[index] = entry;
+        System.arraycopy(entries, index, newEntries, index + 1, entries.length - index);
+
+        return new MenuEntries(newEntries);
+    }
+
+    /**
+     * @return a new snapshot, without the entry at the specified index
+     */
+    MenuEntries delete(final int index) {
+        if (entries.length == 1) {
+            return EMPTY;
+        }
+
+        final Entry[] newEntries = new Entry[entries.length - 1];
+        System.arraycopy(entries, 0, newEntries, 0, index);
+        System.arraycopy(entries, index + 1, newEntries, index, entries.length - index - 1);
+
+        return new MenuEntries(newEntries);
+    }
+}
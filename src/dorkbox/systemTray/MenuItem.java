@@ -21,6 +21,10 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 import javax.imageio.stream.ImageInputStream;
 import javax.swing.Icon;
@@ -28,7 +32,9 @@ import javax.swing.ImageIcon;
 import javax.swing.JMenuItem;
 
 import dorkbox.systemTray.peer.MenuItemPeer;
+import dorkbox.systemTray.util.EventDispatch;
 import dorkbox.systemTray.util.ImageResizeUtil;
+import dorkbox.systemTray.util.ResizedImage;
 import dorkbox.util.SwingUtil;
 
 /**
@@ -41,8 +47,18 @@ class MenuItem extends Entry {
 
     private volatile String text;
     private volatile Object unknownImage = null;
-    private volatile File imageFile;
+    private volatile ResizedImage resizedImage;
+    // what the image was realized from, so that replacing a menu does not have to realize the same image again
+    private volatile Object imageSource = null;
     private volatile ActionListener callback;
+    private volatile Executor callbackExecutor = null;
+
+    // images are resized/cached in the background. A newer image supersedes (and cancels) an image that is still being resized.
+    private final Object imageLock = new Object();
+    private int imageGeneration = 0;  // access must be synchronized on imageLock
+    private boolean unknownImageIsTrayImage = false;  // access must be synchronized on imageLock
+    private CompletableFuture<ResizedImage> imageFuture = null;  // access must be synchronized on imageLock
+    private Future<?> imageTask = null;  // access must be synchronized on imageLock
 
     // default enabled is always true
     private volatile boolean enabled = true;
@@ -94,42 +110,42 @@ class MenuItem extends Entry {
     public
     MenuItem(final String text, final String imagePath, final ActionListener callback) {
         this.text = text;
-        this.unknownImage = imagePath; // imageFile is set in the 'bind' call
+        this.unknownImage = imagePath; // resizedImage is set in the 'bind' call
         this.callback = callback;
     }
 
     public
     MenuItem(final String text, final File imageFile, final ActionListener callback) {
         this.text = text;
-        this.unknownImage = imageFile; // imageFile is set in the 'bind' call
+        this.unknownImage = imageFile; // resizedImage is set in the 'bind' call
         this.callback = callback;
     }
 
     public
     MenuItem(final String text, final URL imageUrl, final ActionListener callback) {
         this.text = text;
-        this.unknownImage = imageUrl; // imageFile is set in the 'bind' call
+        this.unknownImage = imageUrl; // resizedImage is set in the 'bind' call
         this.callback = callback;
     }
 
     public
     MenuItem(final String text, final InputStream inputStream, final ActionListener callback) {
         this.text = text;
-        this.unknownImage = inputStream; // imageFile is set in the 'bind' call
+        this.unknownImage = inputStream; // resizedImage is set in the 'bind' call
         this.callback = callback;
     }
 
     public
     MenuItem(final String text, final Image image, final ActionListener callback) {
         this.text = text;
-        this.unknownImage = image; // imageFile is set in the 'bind' call
+        this.unknownImage = image; // resizedImage is set in the 'bind' call
         this.callback = callback;
     }
 
     public
     MenuItem(final String text, final ImageInputStream imageStream, final ActionListener callback) {
         this.text = text;
-        this.unknownImage = imageStream; // imageFile is set in the 'bind' call
+        this.unknownImage = imageStream; // resizedImage is set in the 'bind' call
         this.callback = callback;
     }
 
@@ -162,26 +178,204 @@ class MenuItem extends Entry {
         setText(jMenuItem.getText());
     }
 
-    private void realizeImageFile() {
-        if (this.unknownImage instanceof String) {
-            this.imageFile = imageResizeUtil.shouldResizeOrCache(false, (String) this.unknownImage);
+    /**
+     * Starts to resize/cache the current image in the background (if it has not been done yet, and is not already being done). When it is
+     * ready, it is applied to this entry (and the peer, if this entry has one).
+     *
+     * @return the task that resizes/caches the image, or null if there is nothing to wait for
+     */
+    private
+    Future<?> realizeImageLater(final ImageResizeUtil imageResizeUtil) {
+        final Object image;
+        final boolean isTrayImage;
+        final int generation;
+
+        synchronized (imageLock) {
+            image = this.unknownImage;
+            if (image == null || this.imageTask != null) {
+                return this.imageTask;
+            }
+
+            isTrayImage = this.unknownImageIsTrayImage;
+            generation = this.imageGeneration;
+        }
+
+        if (image instanceof IconHandle) {
+            // already resized/cached
+            applyImage(generation, image, resizeOrCache(imageResizeUtil, isTrayImage, image), true);
+            return null;
+        }
+
+        final Future<?> task = resizeLater(generation, image, isTrayImage, imageResizeUtil);
+
+        synchronized (imageLock) {
+            if (generation == this.imageGeneration && this.unknownImage == image) {
+                this.imageTask = task;
+            }
+        }
+        return task;
+    }
+
+    /**
+     * Resizes/caches the image on the "SystemTrayImages" executor, and applies it unless a newer image was set first.
+     */
+    private
+    Future<?> resizeLater(final int generation, final Object image, final boolean isTrayImage, final ImageResizeUtil imageResizeUtil) {
+        return EntryImages.execute(()->{
+            synchronized (imageLock) {
+                if (generation != this.imageGeneration) {
+                    // a newer image was set while we were waiting
+                    return;
+                }
+            }
+
+            final ResizedImage resizedImage;
+            try {
+                resizedImage = resizeOrCache(imageResizeUtil, isTrayImage, image);
+            } catch (Exception e) {
+                SystemTray.logger.error("Error resizing the image for the menu entry '{}'", getText(), e);
+                failImage(generation, e);
+                return;
+            }
+
+            applyImage(generation, image, resizedImage, true);
+        });
+    }
+
+    private static
+    ResizedImage resizeOrCache(final ImageResizeUtil imageResizeUtil, final boolean isTrayImage, final Object image) {
+        if (image instanceof IconHandle) {
+            // already resized/cached
+            return isTrayImage ? ((IconHandle) image).getTrayImage() : ((IconHandle) image).getMenuImage();
+        }
+
+        return imageResizeUtil.resize(isTrayImage, image);
+    }
+
+    /**
+     * Sets the image of this entry. The previous image continues to be shown until the new image has been resized/cached (in the
+     * background), and then the new image is applied. If a newer image is set before that happens, this image is dropped.
+     *
+     * @return the future that completes with the resized image (or null if the image was removed). It is cancelled if a newer image
+     *         is set first, and if this entry is not part of a menu yet, it completes when this entry is added to one.
+     */
+    final
+    CompletableFuture<ResizedImage> setImageSource(final Object image, final boolean isTrayImage) {
+        final CompletableFuture<ResizedImage> future = new CompletableFuture<>();
+        final CompletableFuture<ResizedImage> previousFuture;
+        final Future<?> previousTask;
+        final int generation;
+
+        synchronized (imageLock) {
+            generation = ++this.imageGeneration;
+            this.unknownImage = image;
+            this.unknownImageIsTrayImage = isTrayImage;
+
+            previousFuture = this.imageFuture;
+            previousTask = this.imageTask;
+            this.imageFuture = future;
+            this.imageTask = null;
+        }
+
+        // rapid image changes must never queue stale work
+        if (previousTask != null) {
+            EntryImages.cancel(previousTask);
+        }
+        if (previousFuture != null) {
+            previousFuture.cancel(false);
+        }
+
+        if (image == null) {
+            // the image was removed
+            applyImage(generation, null, null, true);
+            return future;
+        }
+
+        if (image instanceof IconHandle) {
+            // already resized/cached
+            applyImage(generation, image, resizeOrCache(imageResizeUtil, isTrayImage, image), true);
+            return future;
+        }
+
+        final ImageResizeUtil imageResizeUtil = this.imageResizeUtil;
+        if (peer == null || imageResizeUtil == null) {
+            // the image is resized/cached when this entry is added to a menu
+            return future;
         }
-        else if (this.unknownImage instanceof File) {
-            this.imageFile = imageResizeUtil.shouldResizeOrCache(false, (File) this.unknownImage);
+
+        final Future<?> task = resizeLater(generation, image, isTrayImage, imageResizeUtil);
+
+        synchronized (imageLock) {
+            if (generation == this.imageGeneration && this.imageFuture == future) {
+                this.imageTask = task;
+            }
+        }
+
+        return future;
+    }
+
+    private
+    void applyImage(final int generation, final Object image, final ResizedImage resizedImage, final boolean updatePeer) {
+        final CompletableFuture<ResizedImage> future;
+
+        synchronized (imageLock) {
+            if (generation != this.imageGeneration) {
+                // superseded by a newer image
+                return;
+            }
+
+            this.resizedImage = resizedImage;
+            this.imageSource = image;
+            this.unknownImage = null;
+
+            future = this.imageFuture;
+            this.imageFuture = null;
+            this.imageTask = null;
         }
-        else if (this.unknownImage instanceof URL) {
-            this.imageFile = imageResizeUtil.shouldResizeOrCache(false, (URL) this.unknownImage);
+
+        if (updatePeer) {
+            updatePeer(PeerUpdates.IMAGE, resizedImage, (MenuItemPeer peer)->peer.setImage(this));
         }
-        else if (this.unknownImage instanceof InputStream) {
-            this.imageFile = imageResizeUtil.shouldResizeOrCache(false, (InputStream) this.unknownImage);
+
+        if (future != null) {
+            future.complete(resizedImage);
         }
-        else if (this.unknownImage instanceof Image) {
-            this.imageFile = imageResizeUtil.shouldResizeOrCache(false, (Image) this.unknownImage);
+    }
+
+    private
+    void failImage(final int generation, final Exception exception) {
+        final CompletableFuture<ResizedImage> future;
+
+        synchronized (imageLock) {
+            if (generation != this.imageGeneration) {
+                return;
+            }
+
+            future = this.imageFuture;
+            this.imageFuture = null;
+            this.imageTask = null;
         }
-        else if (this.unknownImage instanceof ImageInputStream) {
-            this.imageFile = imageResizeUtil.shouldResizeOrCache(false, (ImageInputStream) this.unknownImage);
+
+        if (future != null) {
+            future.completeExceptionally(exception);
         }
-        this.unknownImage = null;
+    }
+
+    /**
+     * @return true if an image was assigned to this entry, and it has not been resized/cached yet
+     */
+    boolean hasUnrealizedImage() {
+        return unknownImage != null;
+    }
+
+    /**
+     * Starts to resize/cache the image of this entry in the background (before this entry is bound), so that it does not happen on the
+     * calling thread or on the native event thread. The image is applied when it is ready.
+     *
+     * @return the task that resizes/caches the image, or null if there is nothing to wait for
+     */
+    Future<?> prepareImage(final ImageResizeUtil imageResizeUtil) {
+        return realizeImageLater(imageResizeUtil);
     }
 
     /**
@@ -193,7 +387,8 @@ class MenuItem extends Entry {
     void bind(final MenuItemPeer peer, Menu parent, ImageResizeUtil imageResizeUtil) {
         super.bind(peer, parent, imageResizeUtil);
 
-        realizeImageFile();
+        // the entry is shown right away, and the image is applied to the peer once it has been resized/cached
+        realizeImageLater(imageResizeUtil);
 
         peer.setImage(this);
         peer.setEnabled(this);
@@ -203,24 +398,57 @@ class MenuItem extends Entry {
         peer.setTooltip(this);
     }
 
-    protected
-    void setImageFromTray(final File imageFile) {
-        this.imageFile = imageFile;
+    /**
+     * Sets the image of the tray icon, which is resized to the tray size (instead of the menu size).
+     */
+    CompletableFuture<ResizedImage> setTrayImage(final Object image) {
+        return setImageSource(image, true);
+    }
 
-        if (peer != null) {
-            realizeImageFile();
-            ((MenuItemPeer) peer).setImage(this);
+    /**
+     * @return the future for the image that is being resized/cached right now, or (if there is none) a future that is already completed
+     *         with the current image. The future is cancelled if a newer image is set first.
+     */
+    CompletableFuture<ResizedImage> getPendingImage() {
+        synchronized (imageLock) {
+            if (this.imageFuture != null) {
+                return this.imageFuture;
+            }
+            return CompletableFuture.completedFuture(this.resizedImage);
         }
     }
 
     /**
-     * Gets the File (which is the only cross-platform solution) that is assigned to this menu entry.
+     * Sets the image from one of the public setImage methods. The tray icon overrides this, so its image is resized to the tray size.
+     *
+     * @return the future that completes with the resized image, or is cancelled if a newer image is set first
+     */
+    CompletableFuture<ResizedImage> setImageSource(final Object image) {
+        return setImageSource(image, false);
+    }
+
+    /**
+     * Gets the File that is assigned to this menu entry.
      * <p>
-     * This file can also be a cached file, depending on how the image was assigned to this entry.
+     * This file can also be a cached file, depending on how the image was assigned to this entry. If the image is in memory (see
+     * {@link SystemTray#IN_MEMORY_IMAGES}), it is written to disk, so {@link #getResizedImage()} should be used instead when a file is
+     * not necessary.
      */
     public
     File getImage() {
-        return imageFile;
+        final ResizedImage resizedImage = this.resizedImage;
+        if (resizedImage == null) {
+            return null;
+        }
+        return resizedImage.getFile();
+    }
+
+    /**
+     * @return the (resized) image that is assigned to this menu entry, which can be in memory or on disk. Null if there is no image.
+     */
+    public
+    ResizedImage getResizedImage() {
+        return resizedImage;
     }
 
     /**
@@ -246,9 +474,7 @@ class MenuItem extends Entry {
     void setEnabled(final boolean enabled) {
         this.enabled = enabled;
 
-        if (peer != null) {
-            ((MenuItemPeer) peer).setEnabled(this);
-        }
+        updatePeer(PeerUpdates.ENABLED, enabled, (MenuItemPeer peer)->peer.setEnabled(this));
     }
 
     /**
@@ -268,111 +494,182 @@ class MenuItem extends Entry {
     void setText(final String text) {
         this.text = text;
 
-        if (peer != null) {
-            ((MenuItemPeer) peer).setText(this);
-        }
+        updatePeer(PeerUpdates.TEXT, text, (MenuItemPeer peer)->peer.setText(this));
     }
 
     /**
      * Specifies the new image to set for a menu entry, NULL to delete the image.
      * <p>
-     * This method will cache the image if it needs to be resized to fit.
+     * The image is resized/cached (if it needs to be resized to fit) in the background, and the previous image is shown until it is
+     * ready. Setting a newer image before then cancels this one. See {@link #setImageAsync(File)} to know when it was applied.
      *
      * @param imageFile the file of the image to use or null
      */
     public
     void setImage(final File imageFile) {
-        this.unknownImage = imageFile;
-
-        if (peer != null) {
-            realizeImageFile(); // imageResizeUtil is set in the 'bind' call (which is also when peer is assigned)
-            ((MenuItemPeer) peer).setImage(this);
-        }
+        setImageSource(imageFile);
     }
 
     /**
      * Specifies the new image to set for a menu entry, NULL to delete the image
      * <p>
-     * This method will cache the image if it needs to be resized to fit.
+     * The image is resized/cached (if it needs to be resized to fit) in the background, and the previous image is shown until it is
+     * ready. Setting a newer image before then cancels this one. See {@link #setImageAsync(String)} to know when it was applied.
      *
      * @param imagePath the full path of the image to use or null
      */
     public
     void setImage(final String imagePath) {
-        this.unknownImage = imagePath;
-
-        if (peer != null) {
-            realizeImageFile(); // imageResizeUtil is set in the 'bind' call (which is also when peer is assigned)
-            ((MenuItemPeer) peer).setImage(this);
-        }
+        setImageSource(imagePath);
     }
 
     /**
      * Specifies the new image to set for a menu entry, NULL to delete the image
      * <p>
-     * This method will cache the image if it needs to be resized to fit.
+     * The image is resized/cached (if it needs to be resized to fit) in the background, and the previous image is shown until it is
+     * ready. Setting a newer image before then cancels this one. See {@link #setImageAsync(URL)} to know when it was applied.
      *
      * @param imageUrl the URL of the image to use or null
      */
     public
     void setImage(final URL imageUrl) {
-        this.unknownImage = imageUrl;
-
-        if (peer != null) {
-            realizeImageFile(); // imageResizeUtil is set in the 'bind' call (which is also when peer is assigned)
-            ((MenuItemPeer) peer).setImage(this);
-        }
+        setImageSource(imageUrl);
     }
 
     /**
      * Specifies the new image to set for a menu entry, NULL to delete the image
      * <p>
-     * This method will cache the image if it needs to be resized to fit.
+     * The image is resized/cached (if it needs to be resized to fit) in the background, and the previous image is shown until it is
+     * ready. Setting a newer image before then cancels this one. See {@link #setImageAsync(InputStream)} to know when it was applied.
      *
      * @param inputStream the InputStream of the image to use
      */
     public
     void setImage(final InputStream inputStream) {
-        this.unknownImage = inputStream;
-
-        if (peer != null) {
-            realizeImageFile(); // imageResizeUtil is set in the 'bind' call (which is also when peer is assigned)
-            ((MenuItemPeer) peer).setImage(this);
-        }
+        setImageSource(inputStream);
     }
 
     /**
      * Specifies the new image to set for a menu entry, NULL to delete the image
      * <p>
-     * This method will cache the image if it needs to be resized to fit.
+     * The image is resized/cached (if it needs to be resized to fit) in the background, and the previous image is shown until it is
+     * ready. Setting a newer image before then cancels this one. See {@link #setImageAsync(Image)} to know when it was applied.
      *
      * @param image the image of the image to use
      */
     public
     void setImage(final Image image) {
-        this.unknownImage = image;
-
-        if (peer != null) {
-            realizeImageFile(); // imageResizeUtil is set in the 'bind' call (which is also when peer is assigned)
-            ((MenuItemPeer) peer).setImage(this);
-        }
+        setImageSource(image);
     }
 
     /**
      * Specifies the new image to set for a menu entry, NULL to delete the image
      * <p>
-     * This method will cache the image if it needs to be resized to fit.
+     * The image is resized/cached (if it needs to be resized to fit) in the background, and the previous image is shown until it is
+     * ready. Setting a newer image before then cancels this one. See {@link #setImageAsync(ImageInputStream)} to know when it was applied.
      *
      * @param imageStream the ImageInputStream of the image to use
      */
     public
     void setImage(final ImageInputStream imageStream) {
-        this.unknownImage = imageStream;
+        setImageSource(imageStream);
+    }
 
-        if (peer != null) {
-            realizeImageFile(); // imageResizeUtil is set in the 'bind' call (which is also when peer is assigned)
-            ((MenuItemPeer) peer).setImage(this);
-        }
+    /**
+     * Specifies the new image to set for a menu entry, using an icon that was already resized/cached by {@link TrayIcons}. This does not
+     * read, resize or cache anything.
+     *
+     * @param icon the icon to use, or null to delete the image
+     */
+    public
+    void setImage(final IconHandle icon) {
+        setImageSource(icon);
+    }
+
+    /**
+     * Same as {@link #setImage(File)}, but the future completes with this entry once the new image has been applied to it
+     * (and queued for the native menu).
+     */
+    public
+    CompletableFuture<Entry> setImageAsync(final File imageFile) {
+        return whenApplied(setImageSource(imageFile));
+    }
+
+    /**
+     * Same as {@link #setImage(String)}, but the future completes with this entry once the new image has been applied to it
+     * (and queued for the native menu).
+     */
+    public
+    CompletableFuture<Entry> setImageAsync(final String imagePath) {
+        return whenApplied(setImageSource(imagePath));
+    }
+
+    /**
+     * Same as {@link #setImage(URL)}, but the future completes with this entry once the new image has been applied to it
+     * (and queued for the native menu).
+     */
+    public
+    CompletableFuture<Entry> setImageAsync(final URL imageUrl) {
+        return whenApplied(setImageSource(imageUrl));
+    }
+
+    /**
+     * Same as {@link #setImage(InputStream)}, but the future completes with this entry once the new image has been applied to it
+     * (and queued for the native menu).
+     */
+    public
+    CompletableFuture<Entry> setImageAsync(final InputStream inputStream) {
+        return whenApplied(setImageSource(inputStream));
+    }
+
+    /**
+     * Same as {@link #setImage(Image)}, but the future completes with this entry once the new image has been applied to it
+     * (and queued for the native menu).
+     */
+    public
+    CompletableFuture<Entry> setImageAsync(final Image image) {
+        return whenApplied(setImageSource(image));
+    }
+
+    /**
+     * Same as {@link #setImage(ImageInputStream)}, but the future completes with this entry once the new image has been applied to it
+     * (and queued for the native menu).
+     */
+    public
+    CompletableFuture<Entry> setImageAsync(final ImageInputStream imageStream) {
+        return whenApplied(setImageSource(imageStream));
+    }
+
+    /**
+     * Same as {@link #setImage(IconHandle)}, but the future completes with this entry once the new image has been applied to it
+     * (and queued for the native menu).
+     */
+    public
+    CompletableFuture<Entry> setImageAsync(final IconHandle icon) {
+        return whenApplied(setImageSource(icon));
+    }
+
+    /**
+     * @return a future that completes with this entry (on the callback executor, see
+     *         {@link SystemTray#setCallbackExecutor(Executor)}) once the image from the future has been applied to this entry.
+     */
+    private
+    CompletableFuture<Entry> whenApplied(final CompletableFuture<ResizedImage> imageFuture) {
+        final CompletableFuture<Entry> future = new CompletableFuture<>();
+
+        imageFuture.whenComplete((resizedImage, throwable)->{
+            // the image has been applied (or failed), and the native menu gets it with the next property update
+            EventDispatch.runCallback(null, ()->{
+                if (throwable != null) {
+                    future.completeExceptionally(throwable);
+                }
+                else {
+                    future.complete(this);
+                }
+            });
+        });
+
+        return future;
     }
 
 
@@ -380,7 +677,7 @@ class MenuItem extends Entry {
      * @return true if this menu entry has an image assigned to it, or is just text.
      */
     public
-    boolean hasImage() {return imageFile != null;}
+    boolean hasImage() {return resizedImage != null;}
 
     /**
      * Sets a callback for a menu entry. This is the action that occurs when one clicks the menu entry
@@ -391,9 +688,28 @@ class MenuItem extends Entry {
     void setCallback(final ActionListener callback) {
         this.callback = callback;
 
-        if (peer != null) {
-            ((MenuItemPeer) peer).setCallback(this);
-        }
+        updatePeer((MenuItemPeer peer)->peer.setCallback(this));
+    }
+
+    /**
+     * Gets the executor that runs the callback for this menu entry
+     *
+     * @return the executor, or NULL if the callback runs on the executor set via {@link SystemTray#setCallbackExecutor(Executor)}
+     */
+    public
+    Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * Sets the executor that runs the callback for this menu entry, for example when the callback blocks and should not hold up the
+     * callbacks of other menu entries. See {@link dorkbox.systemTray.util.CallbackExecutors} for the provided executors.
+     *
+     * @param executor the executor to use, or NULL to use the executor set via {@link SystemTray#setCallbackExecutor(Executor)}
+     */
+    public
+    void setCallbackExecutor(final Executor executor) {
+        this.callbackExecutor = executor;
     }
 
     /**
@@ -420,9 +736,7 @@ class MenuItem extends Entry {
     void setShortcut(final char key) {
         this.mnemonicKey = key;
 
-        if (peer != null) {
-            ((MenuItemPeer) peer).setShortcut(this);
-        }
+        updatePeer((MenuItemPeer peer)->peer.setShortcut(this));
     }
 
     /**
@@ -437,9 +751,7 @@ class MenuItem extends Entry {
     void setShortcut(final int key) {
         this.mnemonicKey = SwingUtil.INSTANCE.getFromVirtualKey(key);
 
-        if (peer != null) {
-            ((MenuItemPeer) peer).setShortcut(this);
-        }
+        updatePeer((MenuItemPeer peer)->peer.setShortcut(this));
     }
 
     /**
@@ -468,9 +780,7 @@ class MenuItem extends Entry {
 
         this.tooltip = tooltipText;
 
-        if (peer != null) {
-            ((MenuItemPeer) peer).setTooltip(this);
-        }
+        updatePeer(PeerUpdates.TOOLTIP, tooltipText, (MenuItemPeer peer)->peer.setTooltip(this));
     }
 
     /**
@@ -483,6 +793,50 @@ class MenuItem extends Entry {
         return this.tooltip;
     }
 
+    @Override
+    void updateFrom(final Entry other) {
+        final MenuItem item = (MenuItem) other;
+
+        if (!Objects.equals(this.text, item.text)) {
+            setText(item.text);
+        }
+        if (this.enabled != item.enabled) {
+            setEnabled(item.enabled);
+        }
+        if (this.callback != item.callback) {
+            setCallback(item.callback);
+        }
+        this.callbackExecutor = item.callbackExecutor;
+        if (this.mnemonicKey != item.mnemonicKey) {
+            setShortcut(item.mnemonicKey);
+        }
+        if (!Objects.equals(this.tooltip, item.tooltip)) {
+            setTooltip(item.tooltip);
+        }
+
+        // the other entry is not part of a menu, so its image has not been realized yet
+        final Object image = item.unknownImage;
+        if (image == null) {
+            if (item.resizedImage == null && this.resizedImage != null) {
+                setImageSource(null, false);
+            }
+        }
+        else if (!isSameImage(image, this.imageSource)) {
+            setImageSource(image, false);
+        }
+    }
+
+    private static
+    boolean isSameImage(final Object image, final Object imageSource) {
+        if (image instanceof URL && imageSource instanceof URL) {
+            // URL.equals() will resolve the host name
+            return ((URL) image).toExternalForm().equals(((URL) imageSource).toExternalForm());
+        }
+
+        // streams can only be read once, so they are never the same
+        return !(image instanceof InputStream || image instanceof ImageInputStream) && image.equals(imageSource);
+    }
+
     /**
      * @return a copy of this MenuItem as a swing JMenuItem, with all elements converted to their respective swing elements.
      */
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dorkbox.util.NamedThreadFactory;
+
+/**
+ * Coalesces the property updates (text, image, enabled, etc.) of a single entry, so that bursts of updates only reach the peer at most
+ * once per {@link SystemTray#PROPERTY_UPDATE_INTERVAL}, and updates that would not change what the peer already shows are dropped.
+ */
+final
+class PeerUpdates {
+    static final int TEXT = 0;
+    static final int ENABLED = 1;
+    static final int IMAGE = 2;
+    static final int CHECKED = 3;
+    static final int TOOLTIP = 4;
+    private static final int PROPERTY_COUNT = 5;
+
+    private static final AtomicLong coalescedCount = new AtomicLong();
+    private static final AtomicLong appliedCount = new AtomicLong();
+
+    private static ScheduledExecutorService scheduler = null;
+
+    private final Entry entry;
+
+    // access must be synchronized on 'this'
+    private final Runnable[] pendingUpdates = new Runnable[PROPERTY_COUNT];
+    private final Object[] pendingValues = new Object[PROPERTY_COUNT];
+    private final Object[] appliedValues = new Object[PROPERTY_COUNT];
+    private final boolean[] hasAppliedValue = new boolean[PROPERTY_COUNT];
+    private boolean flushScheduled = false;
+    private long lastFlushTime = 0L;
+
+    PeerUpdates(final Entry entry) {
+        this.entry = entry;
+    }
+
+    static
+    long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    static
+    long getAppliedCount() {
+        return appliedCount.get();
+    }
+
+    private static synchronized
+    ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("SystemTrayPropertyUpdates",
+                                                                                                            Thread.currentThread().getThreadGroup(),
+                                                                                                            Thread.NORM_PRIORITY, true));
+            executor.setRemoveOnCancelPolicy(true);
+            scheduler = executor;
+        }
+        return scheduler;
+    }
+
+    /**
+     * Saves the update for the specified property (replacing any update for the same property that has not been applied yet), and
+     * applies it now if the peer has not been updated within the last {@link SystemTray#PROPERTY_UPDATE_INTERVAL}.
+     *
+     * @param value the new value of the property, used to check if the update would change anything
+     * @param update the action that updates the peer
+     */
+    void update(final int property, final Object value, final Runnable update) {
+        boolean flushNow = false;
+
+        synchronized (this) {
+            if (pendingUpdates[property] != null) {
+                // the previous update never reached the peer
+                coalescedCount.getAndIncrement();
+            }
+
+            pendingUpdates[property] = update;
+            pendingValues[property] = value;
+
+            if (!flushScheduled) {
+                final long interval = TimeUnit.MILLISECONDS.toNanos(SystemTray.PROPERTY_UPDATE_INTERVAL);
+                final Menu parent = entry.getParent();
+
+                long delay = lastFlushTime + interval - System.nanoTime();
+                if (interval <= 0 || delay <= 0 || (parent != null && parent.isBatchUpdateInProgress())) {
+                    // batch updates are already applied as a single unit
+                    flushNow = true;
+                }
+                else {
+                    flushScheduled = true;
+                    getScheduler().schedule(this::flush, delay, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        if (flushNow) {
+            flush();
+        }
+    }
+
+    /**
+     * Forgets what was applied to the peer (and any updates that have not been applied yet), because a new peer was bound to the entry.
+     */
+    synchronized
+    void reset() {
+        for (int i = 0; i < PROPERTY_COUNT; i++) {
+            pendingUpdates[i] = null;
+            pendingValues[i] = null;
+            appliedValues[i] = null;
+            hasAppliedValue[i] = false;
+        }
+    }
+
+    private
+    void flush() {
+        final List<Runnable> updates = new ArrayList<>(PROPERTY_COUNT);
+
+        synchronized (this) {
+            flushScheduled = false;
+            lastFlushTime = System.nanoTime();
+
+            for (int i = 0; i < PROPERTY_COUNT; i++) {
+                final Runnable update = pendingUpdates[i];
+                if (update == null) {
+                    continue;
+                }
+
+                final Object value = pendingValues[i];
+                pendingUpdates[i] = null;
+                pendingValues[i] = null;
+
+                if (hasAppliedValue[i] && Objects.equals(appliedValues[i], value)) {
+                    // the peer already shows this value
+                    coalescedCount.getAndIncrement();
+                    continue;
+                }
+
+                appliedValues[i] = value;
+                hasAppliedValue[i] = true;
+                updates.add(update);
+            }
+        }
+
+        //noinspection ForLoopReplaceableByForEach
+        for (int i = 0, size = updates.size(); i < size; i++) {
+            appliedCount.getAndIncrement();
+
+            try {
+                entry.runPeerUpdate(updates.get(i));
+            } catch (Exception e) {
+                SystemTray.logger.error("Error updating the menu entry.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * A group of checkboxes where only one checkbox can be checked at a time.
+ * <p>
+ * The group owns the selection. Checking a checkbox of the group unchecks the previously checked checkbox, and both changes reach the
+ * native menu together as a single batch update (if the checkboxes are in different menus, each menu gets its own batch update).
+ * Clicking the checkbox that is already checked keeps it checked.
+ * <p>
+ * The callbacks of the checkboxes in the group are replaced by the callback of the group, which is only called once the selection has
+ * changed because of a click, and only with the final selection. (Quickly clicking several checkboxes does not call the callback for
+ * the selections in between.)
+ */
+@SuppressWarnings("unused")
+public
+class RadioGroup {
+    // access must be synchronized on 'this'
+    private final List<Checkbox> checkboxes = new ArrayList<>();
+    private Checkbox selected = null;
+    private Checkbox lastNotified = null;
+
+    private volatile ActionListener callback;
+
+    public
+    RadioGroup() {
+        this(null);
+    }
+
+    /**
+     * @param callback called (with the checked checkbox as the source of the event) when the selection is changed by a click
+     */
+    public
+    RadioGroup(final ActionListener callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * Creates a new checkbox that is part of this group. It still has to be added to a menu.
+     */
+    public
+    Checkbox add(final String text) {
+        final Checkbox checkbox = new Checkbox(text);
+        add(checkbox);
+        return checkbox;
+    }
+
+    /**
+     * Makes the checkbox part of this group. The callback of the checkbox is replaced by the callback of this group, and if the
+     * checkbox is checked, it becomes the selection of this group.
+     */
+    public
+    void add(final Checkbox checkbox) {
+        final RadioGroup previousGroup = checkbox.getRadioGroup();
+        if (previousGroup == this) {
+            return;
+        }
+        if (previousGroup != null) {
+            previousGroup.remove(checkbox);
+        }
+
+        final boolean isChecked = checkbox.getChecked();
+
+        synchronized (this) {
+            checkboxes.add(checkbox);
+            checkbox.setRadioGroup(this);
+        }
+
+        // the peers only call back when a checkbox has a callback
+        checkbox.setCallback((event)->onClick(checkbox));
+
+        if (isChecked) {
+            setSelected(checkbox);
+        }
+    }
+
+    /**
+     * Removes the checkbox from this group (it is not removed from its menu). If it was the selection, this group has no selection.
+     */
+    public
+    void remove(final Checkbox checkbox) {
+        synchronized (this) {
+            if (!checkboxes.remove(checkbox)) {
+                return;
+            }
+
+            checkbox.setRadioGroup(null);
+
+            if (selected == checkbox) {
+                selected = null;
+            }
+            if (lastNotified == checkbox) {
+                lastNotified = null;
+            }
+        }
+
+        checkbox.setCallback(null);
+    }
+
+    /**
+     * @return the checkboxes in this group
+     */
+    public synchronized
+    List<Checkbox> getCheckboxes() {
+        return Collections.unmodifiableList(new ArrayList<>(checkboxes));
+    }
+
+    /**
+     * @return the checked checkbox, or null if none of the checkboxes are checked
+     */
+    public synchronized
+    Checkbox getSelected() {
+        return selected;
+    }
+
+    /**
+     * Checks the checkbox (and unchecks the previously checked checkbox) as a single batch update. This does not call the callback.
+     *
+     * @param checkbox the checkbox to check, or null to uncheck all of the checkboxes in this group
+     */
+    public
+    void setSelected(final Checkbox checkbox) {
+        select(checkbox, false);
+    }
+
+    /**
+     * @param byClick true if the selection is changed by a click, in which case the callback will be called for it. Otherwise the new
+     *                selection is never reported to the callback.
+     */
+    private
+    void select(final Checkbox checkbox, final boolean byClick) {
+        synchronized (this) {
+            if (checkbox != null && !checkboxes.contains(checkbox)) {
+                throw new IllegalArgumentException("The checkbox '" + checkbox.getText() + "' is not part of this radio group.");
+            }
+
+            final Checkbox previous = selected;
+            selected = checkbox;
+            if (!byClick && previous != checkbox) {
+                // changes that are not made by a click are never reported, so a click on this checkbox later on does not change anything
+                lastNotified = checkbox;
+            }
+
+            if (previous == checkbox) {
+                if (checkbox != null) {
+                    // make sure the native checkbox shows it is checked (a click on a native checkbox can uncheck it by itself)
+                    checkbox.refreshChecked();
+                }
+                return;
+            }
+
+            // both changes are applied to the native menu at the same time. This happens while holding the lock, so that concurrent
+            // changes are applied in the same order as the selection changes
+            final Runnable changes = ()->{
+                if (previous != null) {
+                    previous.applyChecked(false);
+                }
+                if (checkbox != null) {
+                    checkbox.applyChecked(true);
+                }
+            };
+
+            // each menu that has one of the checkboxes gets a batch update
+            final Menu previousParent = previous != null ? previous.getParent() : null;
+            final Menu parent = checkbox != null ? checkbox.getParent() : null;
+
+            if (previousParent != null) {
+                previousParent.beginUpdate();
+            }
+            if (parent != null && parent != previousParent) {
+                parent.beginUpdate();
+            }
+
+            try {
+                changes.run();
+            } finally {
+                if (parent != null && parent != previousParent) {
+                    parent.commit();
+                }
+                if (previousParent != null) {
+                    previousParent.commit();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the callback for this group, which is called (with the checked checkbox as the source of the event) when the selection is
+     * changed by a click.
+     */
+    public
+    void setCallback(final ActionListener callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * Gets the callback assigned to this group
+     */
+    public
+    ActionListener getCallback() {
+        return callback;
+    }
+
+    /**
+     * Called when a checkbox in this group is checked/unchecked, via {@link Checkbox#setChecked(boolean)} or via a click
+     *
+     * @param byClick true if the checkbox was clicked, false if it was changed by {@link Checkbox#setChecked(boolean)} (which is not
+     *                reported to the callback)
+     */
+    void setChecked(final Checkbox checkbox, final boolean isChecked, final boolean byClick) {
+        if (isChecked) {
+            select(checkbox, byClick);
+            return;
+        }
+
+        synchronized (this) {
+            if (selected != checkbox) {
+                // it is already unchecked
+                return;
+            }
+        }
+
+        // the checked checkbox cannot be unchecked (only another checkbox can be checked instead), however the native checkbox might
+        // have unchecked itself when it was clicked.
+        checkbox.refreshChecked();
+    }
+
+    /**
+     * Called (on the callback executor of the checkbox) after a checkbox in this group was clicked. Only the final selection is reported.
+     */
+    private
+    void onClick(final Checkbox checkbox) {
+        synchronized (this) {
+            if (selected != checkbox || lastNotified == checkbox) {
+                // either the selection changed again before we were called, or the selection did not change
+                return;
+            }
+            lastNotified = checkbox;
+        }
+
+        final ActionListener callback = this.callback;
+        if (callback != null) {
+            try {
+                callback.actionPerformed(new ActionEvent(checkbox, ActionEvent.ACTION_PERFORMED, ""));
+            } catch (Throwable throwable) {
+                SystemTray.logger.error("Error calling radio group entry {} click event.", checkbox.getText(), throwable);
+            }
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package dorkbox.systemTray;
 
+import java.util.Objects;
+
 import javax.swing.JMenuItem;
 
 import dorkbox.systemTray.peer.StatusPeer;
@@ -60,8 +62,14 @@ class Status extends Entry {
     void setText(final String text) {
         this.text = text;
 
-        if (peer != null) {
-            ((StatusPeer) peer).setText(this);
+        updatePeer(PeerUpdates.TEXT, text, (StatusPeer peer)->peer.setText(this));
+    }
+
+    @Override
+    void updateFrom(final Entry other) {
+        final String text = ((Status) other).getText();
+        if (!Objects.equals(this.text, text)) {
+            setText(text);
         }
     }
 
@@ -22,8 +22,14 @@ import java.awt.GraphicsEnvironment;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.imageio.stream.ImageInputStream;
@@ -47,6 +53,9 @@ import dorkbox.jna.rendering.RenderProvider;
 import dorkbox.os.OS;
 import dorkbox.systemTray.ui.swing.SwingUIFactory;
 import dorkbox.systemTray.util.AutoDetectTrayType;
+import dorkbox.systemTray.util.BadgeCompositor;
+import dorkbox.systemTray.util.DispatchQueue;
+import dorkbox.systemTray.util.DispatchStats;
 import dorkbox.systemTray.util.EventDispatch;
 import dorkbox.systemTray.util.ImageResizeUtil;
 import dorkbox.systemTray.util.LinuxSwingUI;
@@ -100,6 +109,22 @@ class SystemTray {
     /** Enables auto-detection for the system tray. This should be mostly successful. */
     public static volatile boolean AUTO_SIZE = OS.INSTANCE.getBoolean(SystemTray.class.getSimpleName() + ".AUTO_SIZE", true);
 
+    /**
+     * Keeps resized images in memory instead of saving them to the image cache on disk. Images are only written to disk when the tray
+     * type can only use a file (AppIndicator), which is useful when the home directory is read-only.
+     */
+    public static volatile boolean IN_MEMORY_IMAGES = OS.INSTANCE.getBoolean(SystemTray.class.getSimpleName() + ".IN_MEMORY_IMAGES", false);
+
+    /**
+     * The most memory (in bytes) used to keep recently resized images in memory, so that using the same image again (the same file,
+     * path or URL, at the same size) does not have to read, hash, or check the image on disk again. Setting this to 0 disables keeping
+     * images in memory.
+     * <p>
+     * A file that is written again (a different modification time or length) is resized again. Image objects are never kept in memory,
+     * because they can be drawn on again.
+     */
+    public static volatile int IMAGE_MEMORY_CACHE_SIZE = OS.INSTANCE.getInt(SystemTray.class.getSimpleName() + ".IMAGE_MEMORY_CACHE_SIZE", 8 * 1024 * 1024);
+
     /** Default name of the application, sometimes shows on tray-icon mouse over. Not used for all OSes, but mostly for Linux */
     public static volatile String APP_NAME = "SystemTray";
 
@@ -138,6 +163,47 @@ class SystemTray {
      */
     public static volatile boolean DEBUG = OS.INSTANCE.getBoolean(SystemTray.class.getSimpleName() + ".DEBUG", false);
 
+    /**
+     * The minimum time (in milliseconds) between the property updates (text, image, enabled, checked, tooltip) of a single menu entry
+     * reaching the native menu. Updates that happen faster than this are merged, so only the most recent value is applied. Setting
+     * this to 0 applies every update immediately.
+     * <p>
+     * Updates that do not change what is already shown by the native menu are always dropped.
+     */
+    public static volatile int PROPERTY_UPDATE_INTERVAL = OS.INSTANCE.getInt(SystemTray.class.getSimpleName() + ".PROPERTY_UPDATE_INTERVAL", 16);
+
+    /**
+     * The number of menu changes (add/remove) that can be queued for the SystemTray event dispatch before they are stored in a (slower)
+     * overflow queue instead. This is rounded up to a power of 2.
+     */
+    public static volatile int EVENT_DISPATCH_QUEUE_SIZE = OS.INSTANCE.getInt(SystemTray.class.getSimpleName() + ".EVENT_DISPATCH_QUEUE_SIZE", 1024);
+
+    /**
+     * How the SystemTray event dispatch waits for menu changes: Park, Yield, or Spin. Park uses no CPU while waiting, Yield and Spin
+     * react faster but use CPU while waiting.
+     * <p>
+     * This is an advanced feature, and it is recommended to leave as Park
+     */
+    public static volatile DispatchQueue.WaitStrategy EVENT_DISPATCH_WAIT_STRATEGY = DispatchQueue.WaitStrategy.fromString(
+            OS.INSTANCE.getProperty(SystemTray.class.getSimpleName() + ".EVENT_DISPATCH_WAIT_STRATEGY", DispatchQueue.WaitStrategy.Park.name()));
+
+    /**
+     * Tasks on the SystemTray, GTK, or Swing/AWT dispatch threads that run for longer than this (in milliseconds) are logged, and are
+     * kept in {@link #getDispatchStats()} along with where they were queued from. Setting this to 0 disables slow task detection.
+     * <p>
+     * This is a debugging feature. When enabled, the stack of every queued task is captured, which is slow.
+     */
+    public static volatile int SLOW_DISPATCH_THRESHOLD = OS.INSTANCE.getInt(SystemTray.class.getSimpleName() + ".SLOW_DISPATCH_THRESHOLD", 0);
+
+    /**
+     * When the main Swing menu (Swing and WindowsNative tray types) has more entries than this, it is shown as a scrolling list that
+     * only creates and paints the rows that are visible, instead of laying out every entry every time the menu is shown. Setting this
+     * to 0 always shows every entry.
+     * <p>
+     * Sub-menus of a large menu are still shown as regular menus.
+     */
+    public static volatile int VIRTUAL_MENU_THRESHOLD = OS.INSTANCE.getInt(SystemTray.class.getSimpleName() + ".VIRTUAL_MENU_THRESHOLD", 500);
+
     /**
      * Allows a custom look and feel for the Swing UI, if defined. See the test example for specific use.
      */
@@ -151,6 +217,79 @@ class SystemTray {
         return "4.5";
     }
 
+    /**
+     * @return how many property updates (text, image, enabled, checked, tooltip) were merged with a newer update, or dropped because
+     *         they would not change what the native menu already shows. See {@link #PROPERTY_UPDATE_INTERVAL}
+     */
+    public static
+    long getCoalescedUpdateCount() {
+        return PeerUpdates.getCoalescedCount();
+    }
+
+    /**
+     * @return how many property updates (text, image, enabled, checked, tooltip) were applied to the native menu.
+     *         See {@link #PROPERTY_UPDATE_INTERVAL}
+     */
+    public static
+    long getAppliedUpdateCount() {
+        return PeerUpdates.getAppliedCount();
+    }
+
+    /**
+     * Sets the executor that runs menu entry callbacks, unless a menu entry has its own executor assigned. By default, callbacks run
+     * one at a time on the SystemTray callback dispatch thread, so a slow callback will delay all other callbacks (but not menu changes).
+     * <p>
+     * See {@link dorkbox.systemTray.util.CallbackExecutors} for executors that use virtual threads (Java 21+), or the JavaFX/SWT thread.
+     *
+     * @param executor the executor to use, or NULL to run callbacks on the SystemTray callback dispatch thread
+     */
+    public static
+    void setCallbackExecutor(final Executor executor) {
+        EventDispatch.setCallbackExecutor(executor);
+    }
+
+    /**
+     * @return the executor that runs menu entry callbacks, or NULL if they run on the SystemTray callback dispatch thread
+     */
+    public static
+    Executor getCallbackExecutor() {
+        return EventDispatch.getCallbackExecutor();
+    }
+
+    /**
+     * @return how many times a resized image was used again from memory. See {@link #IMAGE_MEMORY_CACHE_SIZE}
+     */
+    public static
+    long getImageCacheHitCount() {
+        return ImageResizeUtil.getMemoryCacheHitCount();
+    }
+
+    /**
+     * @return how many times an image was not in memory, and had to be resized (or read from the cache on disk).
+     *         See {@link #IMAGE_MEMORY_CACHE_SIZE}
+     */
+    public static
+    long getImageCacheMissCount() {
+        return ImageResizeUtil.getMemoryCacheMissCount();
+    }
+
+    /**
+     * @return how many resized images were removed from memory, to make room for newer images. See {@link #IMAGE_MEMORY_CACHE_SIZE}
+     */
+    public static
+    long getImageCacheEvictionCount() {
+        return ImageResizeUtil.getMemoryCacheEvictionCount();
+    }
+
+    /**
+     * @return how many tasks are queued on, and how long tasks wait for and run for, on the threads that the SystemTray dispatches to.
+     *         See {@link #SLOW_DISPATCH_THRESHOLD} to also record slow tasks.
+     */
+    public static
+    DispatchStats getDispatchStats() {
+        return DispatchStats.snapshot();
+    }
+
     static {
         // Add this project to the updates system, which verifies this class + UUID + version information
         dorkbox.updates.Updates.INSTANCE.add(SystemTray.class, "b35c107332d844559a3f877fcef42a21", getVersion());
@@ -850,6 +989,7 @@ class SystemTray {
             // when there is more than 1 user logged in at the same time!
             CacheUtil cache = new CacheUtil(trayName + "Cache" + "_" + System.getProperty("user.name"));
             ImageResizeUtil imageResizeUtil = new ImageResizeUtil(cache);
+            BadgeCompositor badgeCompositor = new BadgeCompositor(new CacheUtil(trayName + "Badges" + "_" + System.getProperty("user.name")));
 
 
             // the "menu" in this case is the ACTUAL menu that shows up in the system tray (the icon + submenu, etc)
@@ -889,7 +1029,7 @@ class SystemTray {
                 logger.info("Successfully loaded");
             }
 
-            SystemTray systemTray = new SystemTray(systemTrayMenu, imageResizeUtil);
+            SystemTray systemTray = new SystemTray(systemTrayMenu, imageResizeUtil, badgeCompositor);
             AutoDetectTrayType.setInstance(trayName, systemTray);
 
             // we ALWAYS want to add a **JVM** shutdown hook!
@@ -907,11 +1047,16 @@ class SystemTray {
     /** Default name of the application, sometimes shows on tray-icon mouse over. Not used for all OSes, but mostly for Linux */
     private final Tray menu;
     private final ImageResizeUtil imageResizeUtil;
+    private final TrayIcons icons;
+    private final BadgeCompositor badgeCompositor;
+    private volatile BadgeStyle badgeStyle = BadgeStyle.DEFAULT;
 
     private
-    SystemTray(final Tray systemTrayMenu, final ImageResizeUtil imageResizeUtil) {
+    SystemTray(final Tray systemTrayMenu, final ImageResizeUtil imageResizeUtil, final BadgeCompositor badgeCompositor) {
         this.menu = systemTrayMenu;
         this.imageResizeUtil = imageResizeUtil;
+        this.icons = new TrayIcons(imageResizeUtil);
+        this.badgeCompositor = badgeCompositor;
     }
 
     /**
@@ -1047,7 +1192,7 @@ class SystemTray {
             throw new NullPointerException("imageFile");
         }
 
-        menu.setImageFromTray(imageResizeUtil.shouldResizeOrCache(true, imageFile));
+        menu.setTrayImage(imageFile);
     }
 
     /**
@@ -1063,7 +1208,7 @@ class SystemTray {
             throw new NullPointerException("imagePath");
         }
 
-        menu.setImageFromTray(imageResizeUtil.shouldResizeOrCache(true, imagePath));
+        menu.setTrayImage(imagePath);
         return menu;
     }
 
@@ -1080,7 +1225,7 @@ class SystemTray {
             throw new NullPointerException("imageUrl");
         }
 
-        menu.setImageFromTray(imageResizeUtil.shouldResizeOrCache(true, imageUrl));
+        menu.setTrayImage(imageUrl);
         return menu;
     }
 
@@ -1097,7 +1242,7 @@ class SystemTray {
             throw new NullPointerException("imageStream");
         }
 
-        menu.setImageFromTray(imageResizeUtil.shouldResizeOrCache(true, imageStream));
+        menu.setTrayImage(imageStream);
         return menu;
     }
 
@@ -1114,7 +1259,7 @@ class SystemTray {
             throw new NullPointerException("image");
         }
 
-        menu.setImageFromTray(imageResizeUtil.shouldResizeOrCache(true, image));
+        menu.setTrayImage(image);
         return menu;
     }
 
@@ -1131,10 +1276,249 @@ class SystemTray {
             throw new NullPointerException("image");
         }
 
-        menu.setImageFromTray(imageResizeUtil.shouldResizeOrCache(true, imageStream));
+        menu.setTrayImage(imageStream);
         return menu;
     }
 
+    /**
+     * Specifies the new image to set for the tray icon, using an icon that was already resized/cached by {@link #getIcons()}. This does
+     * not read, resize or cache anything.
+     *
+     * @param icon the icon to use
+     */
+    public
+    Menu setImage(final IconHandle icon) {
+        if (icon == null) {
+            throw new NullPointerException("icon");
+        }
+
+        menu.setTrayImage(icon);
+        return menu;
+    }
+
+    /**
+     * Animates the tray icon, by showing the frames one after another (and starting over after the last frame). All the frames are
+     * resized/cached once (in the background) before the animation starts, so showing a frame only changes the native tray icon image.
+     * <p>
+     * The animation is paused while the tray icon is disabled, and is stopped when a new image is set for the tray icon.
+     *
+     * @param frames the images of the animation
+     * @param fps how many frames are shown every second
+     */
+    public
+    Menu setAnimation(final List<? extends Image> frames, final int fps) {
+        if (frames == null) {
+            throw new NullPointerException("frames");
+        }
+        if (frames.isEmpty()) {
+            throw new IllegalArgumentException("An animation must have at least one frame");
+        }
+        if (fps <= 0) {
+            throw new IllegalArgumentException("The fps must be greater than 0");
+        }
+
+        final long[] delays = new long[frames.size()];
+        Arrays.fill(delays, Math.max(1L, 1000L / fps));
+
+        startAnimation(new ArrayList<>(frames), delays);
+        return menu;
+    }
+
+    /**
+     * Animates the tray icon with the frames of an animated GIF, using the frame delays of the GIF. See {@link #setAnimation(List, int)}
+     *
+     * @param gifFile the file of the animated GIF
+     */
+    public
+    Menu setAnimation(final File gifFile) {
+        if (gifFile == null) {
+            throw new NullPointerException("gifFile");
+        }
+
+        try (InputStream gifStream = new FileInputStream(gifFile)) {
+            return setAnimation(gifStream);
+        } catch (IOException e) {
+            logger.error("Error reading the GIF animation '{}'", gifFile, e);
+            return menu;
+        }
+    }
+
+    /**
+     * Animates the tray icon with the frames of an animated GIF, using the frame delays of the GIF. See {@link #setAnimation(List, int)}
+     *
+     * @param gifUrl the URL of the animated GIF
+     */
+    public
+    Menu setAnimation(final URL gifUrl) {
+        if (gifUrl == null) {
+            throw new NullPointerException("gifUrl");
+        }
+
+        try (InputStream gifStream = gifUrl.openStream()) {
+            return setAnimation(gifStream);
+        } catch (IOException e) {
+            logger.error("Error reading the GIF animation '{}'", gifUrl, e);
+            return menu;
+        }
+    }
+
+    /**
+     * Animates the tray icon with the frames of an animated GIF, using the frame delays of the GIF. See {@link #setAnimation(List, int)}
+     *
+     * @param gifStream the InputStream of the animated GIF
+     */
+    public
+    Menu setAnimation(final InputStream gifStream) {
+        if (gifStream == null) {
+            throw new NullPointerException("gifStream");
+        }
+
+        final List<BufferedImage> frames = new ArrayList<>();
+        final List<Long> frameDelays = new ArrayList<>();
+        try {
+            TrayAnimation.readGif(gifStream, frames, frameDelays);
+        } catch (IOException e) {
+            logger.error("Error reading the GIF animation", e);
+            return menu;
+        }
+
+        final long[] delays = new long[frameDelays.size()];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = frameDelays.get(i);
+        }
+
+        startAnimation(frames, delays);
+        return menu;
+    }
+
+    private
+    void startAnimation(final List<? extends Image> frames, final long[] delays) {
+        // the current animation stops now, and the previous image stays visible until the new frames are ready
+        final int generation = menu.nextTrayImage();
+
+        EntryImages.execute(()->{
+            try {
+                menu.startAnimation(generation, TrayAnimation.prepare(menu, frames, delays, imageResizeUtil));
+            } catch (Exception e) {
+                logger.error("Error resizing the frames of the tray icon animation", e);
+            }
+        });
+    }
+
+    /**
+     * Stops the animation of the tray icon (if there is one). The current frame stays visible.
+     */
+    public
+    Menu stopAnimation() {
+        menu.stopAnimation();
+        return menu;
+    }
+
+    /**
+     * Draws a badge (for example, an unread count) over the tray icon, using the current badge style. The badge is drawn in memory
+     * over the already resized tray image, and the most recently used badges are remembered, so changing the badge often is cheap.
+     * <p>
+     * The badge is removed when a new image is set for the tray icon. If the tray image is still being resized, the badge is drawn over
+     * it once it is ready.
+     * <p>
+     * A badge replaces a running animation: the animation is stopped, and the badge is drawn over the frame that is currently shown.
+     * Starting an animation removes the badge.
+     *
+     * @param badge the text of the badge, null (or empty) to remove the badge
+     */
+    public
+    Menu setBadge(final String badge) {
+        return setBadge(badge, badgeStyle);
+    }
+
+    /**
+     * Draws a count as a badge over the tray icon. See {@link #setBadge(String)}
+     *
+     * @param count the count to show. Counts larger than 99 are shown as "99+", and a count of 0 (or less) removes the badge.
+     */
+    public
+    Menu setBadge(final int count) {
+        if (count <= 0) {
+            return setBadge(null);
+        }
+
+        return setBadge(count > 99 ? "99+" : Integer.toString(count));
+    }
+
+    /**
+     * Draws a badge (for example, an unread count) over the tray icon. See {@link #setBadge(String)}
+     *
+     * @param badge the text of the badge, null (or empty) to remove the badge
+     * @param style how the badge is drawn
+     */
+    public
+    Menu setBadge(final String badge, final BadgeStyle style) {
+        if (style == null) {
+            throw new NullPointerException("style");
+        }
+
+        // this also stops the animation (if there is one). The badge is drawn over the frame that is currently shown
+        final int generation = menu.nextTrayImage();
+
+        // if the tray image is still being resized, the badge is drawn over it once it is ready (instead of over the previous image)
+        menu.getBadgeBase().whenComplete((base, throwable)->{
+            if (throwable != null) {
+                // a newer image was set first (or it could not be resized, which was already logged)
+                return;
+            }
+
+            if (base == null) {
+                logger.error("Unable to show the badge '{}', because the tray icon has no image.", badge);
+                return;
+            }
+
+            if (badge == null || badge.isEmpty()) {
+                menu.showBadge(generation, base, base, badgeCompositor);
+                return;
+            }
+
+            EntryImages.execute(()->{
+                try {
+                    menu.showBadge(generation, base, badgeCompositor.compose(base, badge, style), badgeCompositor);
+                } catch (Exception e) {
+                    logger.error("Error drawing the badge '{}' for the tray icon", badge, e);
+                }
+            });
+        });
+        return menu;
+    }
+
+    /**
+     * @return how badges are drawn over the tray icon, when a style is not specified
+     */
+    public
+    BadgeStyle getBadgeStyle() {
+        return badgeStyle;
+    }
+
+    /**
+     * Sets how badges are drawn over the tray icon, when a style is not specified. This does not change the badge that is currently
+     * shown.
+     */
+    public
+    Menu setBadgeStyle(final BadgeStyle style) {
+        if (style == null) {
+            throw new NullPointerException("style");
+        }
+
+        this.badgeStyle = style;
+        return menu;
+    }
+
+    /**
+     * @return the registry of icons for this system tray. Icons that are registered once are resized/cached for both the tray icon and
+     *         menu entries, so they can be used any number of times without doing that again.
+     */
+    public
+    TrayIcons getIcons() {
+        return icons;
+    }
+
     /**
      * @return the system tray image size, accounting for OS and theme differences
      */
@@ -19,9 +19,14 @@ import java.awt.Image;
 import java.io.File;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.imageio.stream.ImageInputStream;
 
+import dorkbox.systemTray.util.BadgeCompositor;
+import dorkbox.systemTray.util.ResizedImage;
+
 // This is public ONLY so that it is in the scope for SwingUI and NativeUI system tray components
 public
 class Tray extends Menu {
@@ -35,6 +40,12 @@ class Tray extends Menu {
 
     private volatile String statusText;
 
+    // access must be synchronized on trayImageLock
+    private final Object trayImageLock = new Object();
+    private TrayAnimation animation = null;
+    private ResizedImage badgeBase = null;
+    private int trayImageGeneration = 0;
+
     public
     Tray(final Runnable onRemoveEvent) {
         super();
@@ -61,11 +72,9 @@ class Tray extends Menu {
         // status is ALWAYS at 0 index...
         Entry menuEntry = null;
 
-        synchronized (menuEntries) {
-            // access on this object must be synchronized for object visibility
-            if (!menuEntries.isEmpty()) {
-                menuEntry = menuEntries.get(0);
-            }
+        final List<Entry> entries = getEntries();
+        if (!entries.isEmpty()) {
+            menuEntry = entries.get(0);
         }
 
         if (menuEntry instanceof Status) {
@@ -93,79 +102,225 @@ class Tray extends Menu {
     /**
      * Specifies the new image to set for the tray icon.
      * <p>
-     * If AUTO_SIZE, then this method resize the image (best guess), otherwise the image "as-is" will be used
+     * If AUTO_SIZE, then this method resize the image (best guess), otherwise the image "as-is" will be used. This happens in the
+     * background, and the previous image is shown until the new image is ready.
      *
      * @param imageFile the file of the image to use
      */
     @Override
     public
     void setImage(final File imageFile) {
-        setImageFromTray(imageResizeUtil.shouldResizeOrCache(true, imageFile));
+        setTrayImage(imageFile);
     }
 
     /**
      * Specifies the new image to set for the tray icon.
      * <p>
-     * If AUTO_SIZE, then this method resize the image (best guess), otherwise the image "as-is" will be used
+     * If AUTO_SIZE, then this method resize the image (best guess), otherwise the image "as-is" will be used. This happens in the
+     * background, and the previous image is shown until the new image is ready.
      *
      * @param imagePath the full path of the image to use
      */
     @Override
     public
     void setImage(final String imagePath) {
-        setImageFromTray(imageResizeUtil.shouldResizeOrCache(true, imagePath));
+        setTrayImage(imagePath);
     }
 
     /**
      * Specifies the new image to set for the tray icon.
      * <p>
-     * If AUTO_SIZE, then this method resize the image (best guess), otherwise the image "as-is" will be used
+     * If AUTO_SIZE, then this method resize the image (best guess), otherwise the image "as-is" will be used. This happens in the
+     * background, and the previous image is shown until the new image is ready.
      *
      * @param imageUrl the URL of the image to use
      */
     @Override
     public
     void setImage(final URL imageUrl) {
-        setImageFromTray(imageResizeUtil.shouldResizeOrCache(true, imageUrl));
+        setTrayImage(imageUrl);
     }
 
     /**
      * Specifies the new image to set for the tray icon.
      * <p>
-     * If AUTO_SIZE, then this method resize the image (best guess), otherwise the image "as-is" will be used
+     * If AUTO_SIZE, then this method resize the image (best guess), otherwise the image "as-is" will be used. This happens in the
+     * background, and the previous image is shown until the new image is ready.
      *
      * @param imageStream the InputStream of the image to use
      */
     @Override
     public
     void setImage(final InputStream imageStream) {
-        setImageFromTray(imageResizeUtil.shouldResizeOrCache(true, imageStream));
+        setTrayImage(imageStream);
     }
 
     /**
      * Specifies the new image to set for the tray icon.
      * <p>
-     * If AUTO_SIZE, then this method resize the image (best guess), otherwise the image "as-is" will be used
+     * If AUTO_SIZE, then this method resize the image (best guess), otherwise the image "as-is" will be used. This happens in the
+     * background, and the previous image is shown until the new image is ready.
      *
      * @param image the image of the image to use
      */
     @Override
     public
     void setImage(final Image image) {
-        setImageFromTray(imageResizeUtil.shouldResizeOrCache(true, image));
+        setTrayImage(image);
     }
 
     /**
      * Specifies the new image to set for the tray icon.
      * <p>
-     * If AUTO_SIZE, then this method resize the image (best guess), otherwise the image "as-is" will be used
+     * If AUTO_SIZE, then this method resize the image (best guess), otherwise the image "as-is" will be used. This happens in the
+     * background, and the previous image is shown until the new image is ready.
      *
      * @param imageStream the ImageInputStream of the image to use
      */
     @Override
     public
     void setImage(final ImageInputStream imageStream) {
-        setImageFromTray(imageResizeUtil.shouldResizeOrCache(true, imageStream));
+        setTrayImage(imageStream);
+    }
+
+    /**
+     * Specifies the new image to set for the tray icon, using an icon that was already resized/cached by {@link TrayIcons}. This does
+     * not read, resize or cache anything.
+     *
+     * @param icon the icon to use
+     */
+    @Override
+    public
+    void setImage(final IconHandle icon) {
+        setTrayImage(icon);
+    }
+
+    /**
+     * The setImage methods (and setImageAsync methods) of the tray icon resize the image to the tray size
+     */
+    @Override
+    CompletableFuture<ResizedImage> setImageSource(final Object image) {
+        return setTrayImage(image);
+    }
+
+    /**
+     * Sets the image of the tray icon (stopping the animation and removing the badge, if there are any)
+     */
+    @Override
+    CompletableFuture<ResizedImage> setTrayImage(final Object image) {
+        synchronized (trayImageLock) {
+            nextTrayImage();
+            badgeBase = null;
+        }
+
+        return super.setTrayImage(image);
+    }
+
+    /**
+     * Shows a (pre-resized) frame of the animation
+     */
+    void showAnimationFrame(final IconHandle frame) {
+        super.setTrayImage(frame);
+    }
+
+    /**
+     * Stops the current animation (if there is one). The current frame stays visible.
+     */
+    void stopAnimation() {
+        synchronized (trayImageLock) {
+            nextTrayImage();
+        }
+    }
+
+    /**
+     * Stops the current animation (if there is one), because the tray image is about to change.
+     *
+     * @return the generation of the tray image that is shown next. An animation or badge that was prepared after a newer image was set
+     *         is not shown.
+     */
+    int nextTrayImage() {
+        synchronized (trayImageLock) {
+            if (animation != null) {
+                animation.stop();
+                animation = null;
+            }
+
+            return ++trayImageGeneration;
+        }
+    }
+
+    /**
+     * Starts the animation, unless a newer image (or animation) was set while its frames were being prepared. The animation is paused
+     * while the tray icon is disabled.
+     */
+    void startAnimation(final int generation, final TrayAnimation animation) {
+        synchronized (trayImageLock) {
+            if (generation != trayImageGeneration) {
+                return;
+            }
+
+            this.animation = animation;
+            badgeBase = null;
+
+            if (getEnabled()) {
+                animation.start();
+            }
+        }
+    }
+
+    /**
+     * @return the (resized) tray image without the badge. If there is no badge, this is the tray image that was set last, which
+     *         completes once it has been resized/cached (and is cancelled if a newer image is set first).
+     */
+    CompletableFuture<ResizedImage> getBadgeBase() {
+        synchronized (trayImageLock) {
+            if (badgeBase != null) {
+                return CompletableFuture.completedFuture(badgeBase);
+            }
+        }
+
+        return getPendingImage();
+    }
+
+    /**
+     * Shows the tray image with a badge drawn over it, unless a newer image was set while the badge was being drawn.
+     *
+     * @param base the tray image without the badge
+     * @param badgeImage the tray image with the badge, or the base image to remove the badge
+     * @param badgeCompositor told which badge is shown, so that its file is kept while it is shown
+     */
+    void showBadge(final int generation, final ResizedImage base, final ResizedImage badgeImage, final BadgeCompositor badgeCompositor) {
+        synchronized (trayImageLock) {
+            if (generation != trayImageGeneration) {
+                return;
+            }
+
+            final boolean removed = base.equals(badgeImage);
+            badgeBase = removed ? null : base;
+            super.setTrayImage(new IconHandle("badge", badgeImage, null));
+
+            badgeCompositor.shown(removed ? null : badgeImage);
+        }
+    }
+
+    /**
+     * Shows (if hidden), or hides (if showing) the tray icon. The animation (if there is one) is paused while the tray icon is hidden.
+     */
+    @Override
+    public
+    void setEnabled(final boolean enabled) {
+        super.setEnabled(enabled);
+
+        synchronized (trayImageLock) {
+            if (animation != null) {
+                if (enabled) {
+                    animation.start();
+                }
+                else {
+                    animation.stop();
+                }
+            }
+        }
     }
 
     /**
@@ -176,6 +331,7 @@ class Tray extends Menu {
     @Override
     public
     void remove() {
+        stopAnimation();
         super.remove();
 
         // the super.remove() call will ignore this part if we are the root menu (which we are), so we have to manually do this.
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+
+import dorkbox.systemTray.util.ImageResizeUtil;
+import dorkbox.util.NamedThreadFactory;
+
+/**
+ * An animated tray icon. All the frames are resized/cached once (before the animation starts), so that showing a frame only has to
+ * change the image of the native tray icon.
+ * <p>
+ * The frames of every animation are shown by a single (shared) scheduler thread.
+ */
+final
+class TrayAnimation {
+    // the delay used for GIF frames that do not specify a delay (browsers do the same)
+    private static final int DEFAULT_GIF_DELAY = 100;
+
+    private static ScheduledExecutorService scheduler = null;
+
+    private final Tray tray;
+    private final IconHandle[] frames;
+    private final long[] delays;  // in milliseconds, per frame
+
+    // access must be synchronized on 'this'
+    private ScheduledFuture<?> nextFrame = null;
+    private int frameIndex = 0;
+    private boolean running = false;
+
+    private
+    TrayAnimation(final Tray tray, final IconHandle[] frames, final long[] delays) {
+        this.tray = tray;
+        this.frames = frames;
+        this.delays = delays;
+    }
+
+    private static synchronized
+    ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("SystemTrayAnimation",
+                                                                                                            Thread.currentThread().getThreadGroup(),
+                                                                                                            Thread.NORM_PRIORITY, true));
+            executor.setRemoveOnCancelPolicy(true);
+            scheduler = executor;
+        }
+        return scheduler;
+    }
+
+    /**
+     * Resizes/caches all the frames for the tray icon. This is slow, and should not happen on the event dispatch thread.
+     *
+     * @param delays the delay (in milliseconds) for each frame
+     */
+    static
+    TrayAnimation prepare(final Tray tray, final List<? extends Image> images, final long[] delays, final ImageResizeUtil imageResizeUtil) {
+        final int size = images.size();
+        final IconHandle[] frames = new IconHandle[size];
+
+        for (int i = 0; i < size; i++) {
+            // there is no menu image for a frame. Identical frames resize/cache to the same file
+            frames[i] = new IconHandle("frame " + i, imageResizeUtil.resize(true, images.get(i)), null);
+        }
+
+        return new TrayAnimation(tray, frames, delays);
+    }
+
+    /**
+     * Decodes all the frames (and their delays) of an animated GIF. Frames that only change part of the image are drawn over the
+     * previous frame, so every frame is a complete image.
+     */
+    static
+    void readGif(final InputStream gifStream, final List<BufferedImage> frames, final List<Long> delays) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(gifStream)) {
+            final Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName("gif");
+            if (input == null || !readers.hasNext()) {
+                throw new IOException("Unable to read GIF images");
+            }
+
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, false, false);
+
+                BufferedImage canvas = null;
+                for (int i = 0; ; i++) {
+                    final BufferedImage image;
+                    try {
+                        image = reader.read(i);
+                    } catch (IndexOutOfBoundsException e) {
+                        // no more frames
+                        break;
+                    }
+
+                    int x = 0;
+                    int y = 0;
+                    int delay = DEFAULT_GIF_DELAY;
+                    String disposal = "none";
+
+                    final IIOMetadata metadata = reader.getImageMetadata(i);
+                    final IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(metadata.getNativeMetadataFormatName());
+                    for (int j = 0; j < root.getLength(); j++) {
+                        final IIOMetadataNode node = (IIOMetadataNode) root.item(j);
+
+                        if ("ImageDescriptor".equals(node.getNodeName())) {
+                            x = Integer.parseInt(node.getAttribute("imageLeftPosition"));
+                            y = Integer.parseInt(node.getAttribute("imageTopPosition"));
+                        }
+                        else if ("GraphicControlExtension".equals(node.getNodeName())) {
+                            // gif delays are in 1/100 of a second
+                            final int gifDelay = Integer.parseInt(node.getAttribute("delayTime")) * 10;
+                            if (gifDelay > 0) {
+                                delay = gifDelay;
+                            }
+                            disposal = node.getAttribute("disposalMethod");
+                        }
+                    }
+
+                    if (canvas == null) {
+                        canvas = new BufferedImage(Math.max(reader.getWidth(0), x + image.getWidth()),
+                                                   Math.max(reader.getHeight(0), y + image.getHeight()),
+                                                   BufferedImage.TYPE_INT_ARGB);
+                    }
+
+                    final BufferedImage previous = copy(canvas);
+
+                    Graphics2D g = canvas.createGraphics();
+                    g.drawImage(image, x, y, null);
+                    g.dispose();
+
+                    frames.add(copy(canvas));
+                    delays.add((long) delay);
+
+                    // what the next frame is drawn over
+                    if ("restoreToBackgroundColor".equals(disposal)) {
+                        g = canvas.createGraphics();
+                        g.setBackground(new Color(0, 0, 0, 0));
+                        g.clearRect(x, y, image.getWidth(), image.getHeight());
+                        g.dispose();
+                    }
+                    else if ("restoreToPrevious".equals(disposal)) {
+                        canvas = previous;
+                    }
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        if (frames.isEmpty()) {
+            throw new IOException("The GIF does not have any images");
+        }
+    }
+
+    private static
+    BufferedImage copy(final BufferedImage image) {
+        final BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = copy.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+
+    /**
+     * Starts (or resumes) showing the frames, starting with the frame that was next when it was paused
+     */
+    synchronized
+    void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        showFrame();
+    }
+
+    /**
+     * Stops showing the frames. The current frame stays visible.
+     */
+    synchronized
+    void stop() {
+        running = false;
+
+        if (nextFrame != null) {
+            nextFrame.cancel(false);
+            nextFrame = null;
+        }
+    }
+
+    private synchronized
+    void showFrame() {
+        if (!running) {
+            return;
+        }
+
+        final int index = frameIndex;
+        frameIndex = (index + 1) % frames.length;
+
+        tray.showAnimationFrame(frames[index]);
+
+        if (frames.length > 1) {
+            nextFrame = getScheduler().schedule(this::showFrame, delays[index], TimeUnit.MILLISECONDS);
+        }
+    }
+}
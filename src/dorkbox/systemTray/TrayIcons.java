@@ -0,0 +1,213 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray;
+
+import java.awt.Image;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.imageio.stream.ImageInputStream;
+
+import dorkbox.systemTray.util.ImageResizeUtil;
+import dorkbox.util.IO;
+
+/**
+ * A registry of the icons that an application uses. An icon is registered once (which resizes/caches it for both the tray icon and for
+ * menu entries), and the returned {@link IconHandle} can then be used for any number of entries without doing that again.
+ * <p>
+ * Icons are registered by name, and registering a name that already exists returns the existing icon.
+ */
+public final
+class TrayIcons {
+    private final ImageResizeUtil imageResizeUtil;
+    // the icons are resized/cached outside of the map (so unrelated names are never blocked), and registering a name that is still being
+    // resized waits for that to finish
+    private final ConcurrentHashMap<String, CompletableFuture<IconHandle>> icons = new ConcurrentHashMap<>();
+
+    TrayIcons(final ImageResizeUtil imageResizeUtil) {
+        this.imageResizeUtil = imageResizeUtil;
+    }
+
+    /**
+     * @return the icon registered with this name, or null if there is none. If the icon is still being registered, this waits for it.
+     */
+    public
+    IconHandle get(final String name) {
+        final CompletableFuture<IconHandle> future = icons.get(name);
+        if (future == null) {
+            return null;
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            // registering the icon failed
+            return null;
+        }
+    }
+
+    /**
+     * Removes the icon from this registry. Entries that already use it are not changed.
+     */
+    public
+    void unregister(final String name) {
+        icons.remove(name);
+    }
+
+    /**
+     * Registers the image file as an icon, using the file path as its name.
+     */
+    public
+    IconHandle register(final File imageFile) {
+        return register(imageFile.getAbsolutePath(), imageFile);
+    }
+
+    /**
+     * Registers the image (as a file path or resource) as an icon, using the path as its name.
+     */
+    public
+    IconHandle register(final String imagePath) {
+        return register(imagePath, imagePath);
+    }
+
+    /**
+     * Registers the image URL as an icon, using the URL as its name.
+     */
+    public
+    IconHandle register(final URL imageUrl) {
+        return register(imageUrl.toExternalForm(), imageUrl);
+    }
+
+    /**
+     * Registers the image file as an icon with the specified name.
+     */
+    public
+    IconHandle register(final String name, final File imageFile) {
+        return register(name, (key)->new IconHandle(key,
+                                                    imageResizeUtil.resize(true, imageFile),
+                                                    imageResizeUtil.resize(false, imageFile)));
+    }
+
+    /**
+     * Registers the image (as a file path or resource) as an icon with the specified name.
+     */
+    public
+    IconHandle register(final String name, final String imagePath) {
+        return register(name, (key)->new IconHandle(key,
+                                                    imageResizeUtil.resize(true, imagePath),
+                                                    imageResizeUtil.resize(false, imagePath)));
+    }
+
+    /**
+     * Registers the image URL as an icon with the specified name.
+     */
+    public
+    IconHandle register(final String name, final URL imageUrl) {
+        return register(name, (key)->new IconHandle(key,
+                                                    imageResizeUtil.resize(true, imageUrl),
+                                                    imageResizeUtil.resize(false, imageUrl)));
+    }
+
+    /**
+     * Registers the image as an icon with the specified name.
+     */
+    public
+    IconHandle register(final String name, final Image image) {
+        return register(name, (key)->new IconHandle(key,
+                                                    imageResizeUtil.resize(true, image),
+                                                    imageResizeUtil.resize(false, image)));
+    }
+
+    /**
+     * Registers the image stream as an icon with the specified name. The stream is read (and closed) only if the name has not been
+     * registered yet.
+     */
+    public
+    IconHandle register(final String name, final InputStream imageStream) {
+        return register(name, (key)->{
+            // the stream can only be read once, but it is resized twice
+            final byte[] bytes;
+            try {
+                bytes = IO.copyStream(imageStream).toByteArray();
+                imageStream.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to read the image for the icon '" + key + "'", e);
+            }
+
+            return new IconHandle(key,
+                                  imageResizeUtil.resize(true, new ByteArrayInputStream(bytes)),
+                                  imageResizeUtil.resize(false, new ByteArrayInputStream(bytes)));
+        });
+    }
+
+    /**
+     * Registers the image stream as an icon with the specified name. The stream is read only if the name has not been registered yet.
+     */
+    public
+    IconHandle register(final String name, final ImageInputStream imageStream) {
+        return register(name, (key)->{
+            // the stream can only be read once, but it is resized twice
+            final byte[] bytes;
+            try {
+                bytes = IO.copyStream(imageStream).toByteArray();
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to read the image for the icon '" + key + "'", e);
+            }
+
+            return new IconHandle(key,
+                                  imageResizeUtil.resize(true, new ByteArrayInputStream(bytes)),
+                                  imageResizeUtil.resize(false, new ByteArrayInputStream(bytes)));
+        });
+    }
+
+    /**
+     * Creates the icon, unless the name has already been registered (or is being registered by another thread).
+     */
+    private
+    IconHandle register(final String name, final Function<String, IconHandle> create) {
+        CompletableFuture<IconHandle> future = icons.get(name);
+
+        if (future == null) {
+            final CompletableFuture<IconHandle> newFuture = new CompletableFuture<>();
+            future = icons.putIfAbsent(name, newFuture);
+
+            if (future == null) {
+                final IconHandle icon;
+                try {
+                    icon = create.apply(name);
+                } catch (RuntimeException e) {
+                    // so that it can be registered again
+                    icons.remove(name, newFuture);
+                    newFuture.completeExceptionally(e);
+                    throw e;
+                }
+
+                newFuture.complete(icon);
+                return icon;
+            }
+        }
+
+        return future.join();
+    }
+}
@@ -25,5 +25,18 @@ public
 interface MenuPeer extends MenuItemPeer {
     void add(Menu parentMenu, Entry entry, int index);
 
+    /**
+     * Runs all of the actions (adds, removes and property changes for this menu and its children) as a single unit, so the native menu
+     * is only rebuilt once.
+     */
+    void batch(Runnable actions);
+
+    /**
+     * Makes the native menu call {@link Menu#aboutToShow()} (on the native event thread) every time it is about to be shown.
+     *
+     * @return false if the native menu cannot tell when it is about to be shown
+     */
+    boolean notifyAboutToShow(Menu menu);
+
     boolean hasParent();
 }
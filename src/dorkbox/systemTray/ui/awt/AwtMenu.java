@@ -25,6 +25,7 @@ import dorkbox.systemTray.MenuItem;
 import dorkbox.systemTray.Separator;
 import dorkbox.systemTray.Status;
 import dorkbox.systemTray.peer.MenuPeer;
+import dorkbox.systemTray.util.Dispatch;
 import dorkbox.util.SwingUtil;
 
 // this is a weird composite class, because it must be a Menu, but ALSO a Entry -- so it has both
@@ -54,7 +55,7 @@ class AwtMenu implements MenuPeer {
     public
     void add(final Menu parentMenu, final Entry entry, final int index) {
         // must always be called on the EDT
-        SwingUtil.INSTANCE.invokeAndWaitQuietly(()->{
+        Dispatch.swingAndWait(()->{
             if (entry instanceof Menu) {
                 AwtMenu menu = new AwtMenu(AwtMenu.this);
                 ((Menu) entry).bind(menu, parentMenu, parentMenu.getImageResizeUtil());
@@ -78,6 +79,20 @@ class AwtMenu implements MenuPeer {
         });
     }
 
+    @Override
+    public
+    void batch(final Runnable actions) {
+        // everything in the batch is applied in a single trip to the EDT. Nested calls to the EDT are run immediately.
+        Dispatch.swingAndWait(actions);
+    }
+
+    @Override
+    public
+    boolean notifyAboutToShow(final Menu menu) {
+        // AWT menus are native, and there is no notification for when they are shown
+        return false;
+    }
+
     // is overridden in tray impl
     @Override
     public
@@ -89,14 +104,14 @@ class AwtMenu implements MenuPeer {
     @Override
     public
     void setEnabled(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setEnabled(menuItem.getEnabled()));
+        Dispatch.swing(()->_native.setEnabled(menuItem.getEnabled()));
     }
 
     // is overridden in tray impl
     @Override
     public
     void setText(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setLabel(menuItem.getText()));
+        Dispatch.swing(()->_native.setLabel(menuItem.getText()));
     }
 
     @Override
@@ -112,7 +127,7 @@ class AwtMenu implements MenuPeer {
         // Will return 0 as the vKey if it's not set (which will remove the shortcut)
         final int vKey = SwingUtil.INSTANCE.getVirtualKey(menuItem.getShortcut());
 
-        SwingUtil.INSTANCE.invokeLater(()->_native.setShortcut(new MenuShortcut(vKey)));
+        Dispatch.swing(()->_native.setShortcut(new MenuShortcut(vKey)));
     }
 
     @Override
@@ -124,7 +139,7 @@ class AwtMenu implements MenuPeer {
     @Override
     public
     void remove() {
-        SwingUtil.INSTANCE.invokeLater(()->{
+        Dispatch.swing(()->{
             _native.removeAll();
             _native.deleteShortcut();
             _native.setEnabled(false);
@@ -22,6 +22,7 @@ import java.awt.event.ActionListener;
 import dorkbox.systemTray.MenuItem;
 import dorkbox.systemTray.SystemTray;
 import dorkbox.systemTray.peer.MenuItemPeer;
+import dorkbox.systemTray.util.Dispatch;
 import dorkbox.systemTray.util.EventDispatch;
 import dorkbox.util.SwingUtil;
 
@@ -47,13 +48,13 @@ class AwtMenuItem implements MenuItemPeer {
     @Override
     public
     void setEnabled(final dorkbox.systemTray.MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setEnabled(menuItem.getEnabled()));
+        Dispatch.swing(()->_native.setEnabled(menuItem.getEnabled()));
     }
 
     @Override
     public
     void setText(final dorkbox.systemTray.MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setLabel(menuItem.getText()));
+        Dispatch.swing(()->_native.setLabel(menuItem.getText()));
     }
 
     @SuppressWarnings("Duplicates")
@@ -74,7 +75,7 @@ class AwtMenuItem implements MenuItemPeer {
                 public
                 void actionPerformed(ActionEvent e) {
                     // we want it to run on our own with our own action event info (so it is consistent across all platforms)
-                    EventDispatch.runLater(()->{
+                    EventDispatch.runCallback(menuItem.getCallbackExecutor(), ()->{
                         try {
                             cb.actionPerformed(new ActionEvent(menuItem, ActionEvent.ACTION_PERFORMED, ""));
                         } catch (Throwable throwable) {
@@ -94,7 +95,7 @@ class AwtMenuItem implements MenuItemPeer {
         // Will return 0 as the vKey if it's not set (which will remove the shortcut)
         final int vKey = SwingUtil.INSTANCE.getVirtualKey(menuItem.getShortcut());
 
-        SwingUtil.INSTANCE.invokeLater(()->_native.setShortcut(new MenuShortcut(vKey)));
+        Dispatch.swing(()->_native.setShortcut(new MenuShortcut(vKey)));
     }
 
     @Override
@@ -107,7 +108,7 @@ class AwtMenuItem implements MenuItemPeer {
     @Override
     public
     void remove() {
-        SwingUtil.INSTANCE.invokeLater(()->{
+        Dispatch.swing(()->{
             _native.deleteShortcut();
             _native.setEnabled(false);
 
@@ -17,7 +17,7 @@ package dorkbox.systemTray.ui.awt;
 
 
 import dorkbox.systemTray.peer.EntryPeer;
-import dorkbox.util.SwingUtil;
+import dorkbox.systemTray.util.Dispatch;
 
 class AwtMenuItemSeparator implements EntryPeer {
 
@@ -34,6 +34,6 @@ class AwtMenuItemSeparator implements EntryPeer {
     @Override
     public
     void remove() {
-        SwingUtil.INSTANCE.invokeLater(()->parent._native.remove(_native));
+        Dispatch.swing(()->parent._native.remove(_native));
     }
 }
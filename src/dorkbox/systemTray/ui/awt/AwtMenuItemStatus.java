@@ -22,7 +22,7 @@ import java.awt.MenuItem;
 
 import dorkbox.systemTray.Status;
 import dorkbox.systemTray.peer.StatusPeer;
-import dorkbox.util.SwingUtil;
+import dorkbox.systemTray.util.Dispatch;
 
 class AwtMenuItemStatus implements StatusPeer {
 
@@ -39,7 +39,7 @@ class AwtMenuItemStatus implements StatusPeer {
     @Override
     public
     void setText(final Status menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->{
+        Dispatch.swing(()->{
             Font font = _native.getFont();
             if (font == null) {
                 font = new Font(DIALOG, Font.BOLD, 12); // the default font used for dialogs.
@@ -59,6 +59,6 @@ class AwtMenuItemStatus implements StatusPeer {
     @Override
     public
     void remove() {
-        SwingUtil.INSTANCE.invokeLater(()->parent._native.remove(_native));
+        Dispatch.swing(()->parent._native.remove(_native));
     }
 }
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.ui.gtk;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+
+import dorkbox.jna.linux.GObject;
+import dorkbox.systemTray.SystemTray;
+import dorkbox.systemTray.util.ResizedImage;
+
+/**
+ * Creates GTK images from a cache of decoded images (GdkPixbuf), so the same image is only decoded once, no matter how many menu
+ * entries show it, or how often the menu is re-created. Every GtkImage of the same image shares the same pixbuf.
+ * <p>
+ * Images in memory are decoded from their PNG bytes, so that they do not have to be written to disk first.
+ * <p>
+ * A pixbuf is kept while it is used, and a few pixbufs are kept after they are no longer used (so that images that are shown again,
+ * such as the frames of an animation, are not decoded again). The images used by every menu (the spacer and check-mark images) are
+ * never released.
+ * <p>
+ * Pixbufs are cached by the identity of the ResizedImage (not by its file path), because the same file can be rewritten with a different
+ * image (for example, the badge files, or a file that the application changes and sets again).
+ * <p>
+ * GTK (2 or 3) is always loaded before a menu is created, so these symbols are looked up in the current process instead of a specific
+ * library file. ALWAYS accessed on the GTK dispatch thread.
+ */
+final
+class GdkPixbufs {
+    static {
+        Native.register(GdkPixbufs.class, NativeLibrary.getProcess());
+    }
+
+    // how many pixbufs that are no longer used are kept
+    private static final int MAX_UNUSED = 16;
+
+    // keyed by the image identity, not by ResizedImage.equals()
+    private static final IdentityHashMap<ResizedImage, CachedPixbuf> pixbufs = new IdentityHashMap<>();
+
+    // the images that are never released, by path
+    private static final HashMap<String, Pointer> permanentPixbufs = new HashMap<>();
+
+    // the pixbufs that are no longer used, the least recently used first (CachedPixbuf uses identity equality)
+    private static final LinkedHashSet<CachedPixbuf> unused = new LinkedHashSet<>();
+
+    private static final
+    class CachedPixbuf {
+        private final ResizedImage resizedImage;
+        private final Pointer pixbuf;
+        private int references = 0;
+
+        private
+        CachedPixbuf(final ResizedImage resizedImage, final Pointer pixbuf) {
+            this.resizedImage = resizedImage;
+            this.pixbuf = pixbuf;
+        }
+    }
+
+    /**
+     * Creates a new GtkImage for the image. Every call MUST be matched by a call to {@link #release(ResizedImage)} once the GtkImage
+     * is no longer used.
+     *
+     * @return the GtkImage widget, or null if the image cannot be loaded
+     */
+    static
+    Pointer newImage(final ResizedImage resizedImage) {
+        final Pointer pixbuf = acquire(resizedImage);
+        if (pixbuf == null) {
+            return null;
+        }
+
+        // the image has its own reference to the pixbuf
+        return gtk_image_new_from_pixbuf(pixbuf);
+    }
+
+    /**
+     * Creates a new GtkImage for an image file that is used by every menu for as long as the application runs (for example the spacer
+     * image). These are never released.
+     *
+     * @return the GtkImage widget, or null if the image cannot be loaded
+     */
+    static
+    Pointer newImage(final String imagePath) {
+        Pointer pixbuf = permanentPixbufs.get(imagePath);
+        if (pixbuf == null) {
+            pixbuf = gdk_pixbuf_new_from_file(imagePath, null);
+            if (pixbuf == null) {
+                SystemTray.logger.error("Unable to load the image {} for GTK", imagePath);
+                return null;
+            }
+
+            permanentPixbufs.put(imagePath, pixbuf);
+        }
+
+        return gtk_image_new_from_pixbuf(pixbuf);
+    }
+
+    /**
+     * Sets the image of the status icon. Every call MUST be matched by a call to {@link #release(ResizedImage)} once the status icon
+     * shows a different image.
+     */
+    static
+    void setStatusIcon(final Pointer statusIcon, final ResizedImage resizedImage) {
+        final Pointer pixbuf = acquire(resizedImage);
+        if (pixbuf != null) {
+            // the status icon has its own reference to the pixbuf
+            gtk_status_icon_set_from_pixbuf(statusIcon, pixbuf);
+        }
+    }
+
+    /**
+     * Releases an image that was used by {@link #newImage(ResizedImage)} or {@link #setStatusIcon(Pointer, ResizedImage)}
+     */
+    static
+    void release(final ResizedImage resizedImage) {
+        if (resizedImage == null) {
+            return;
+        }
+
+        final CachedPixbuf cached = pixbufs.get(resizedImage);
+        if (cached == null || --cached.references > 0) {
+            return;
+        }
+
+        unused.add(cached);
+
+        if (unused.size() > MAX_UNUSED) {
+            final Iterator<CachedPixbuf> iterator = unused.iterator();
+            final CachedPixbuf eldest = iterator.next();
+            iterator.remove();
+
+            pixbufs.remove(eldest.resizedImage);
+            GObject.g_object_unref(eldest.pixbuf);
+        }
+    }
+
+    /**
+     * @return the pixbuf of the image (decoding it if necessary), or null if the image cannot be decoded
+     */
+    private static
+    Pointer acquire(final ResizedImage resizedImage) {
+        CachedPixbuf cached = pixbufs.get(resizedImage);
+        if (cached == null) {
+            final Pointer pixbuf = load(resizedImage);
+            if (pixbuf == null) {
+                return null;
+            }
+
+            cached = new CachedPixbuf(resizedImage, pixbuf);
+            pixbufs.put(resizedImage, cached);
+        }
+        else if (cached.references == 0) {
+            unused.remove(cached);
+        }
+
+        cached.references++;
+        return cached.pixbuf;
+    }
+
+    /**
+     * @return a new pixbuf (which we own a reference to), or null if the image cannot be decoded
+     */
+    private static
+    Pointer load(final ResizedImage resizedImage) {
+        if (!resizedImage.isInMemory()) {
+            final Pointer pixbuf = gdk_pixbuf_new_from_file(resizedImage.getFile().getAbsolutePath(), null);
+            if (pixbuf == null) {
+                SystemTray.logger.error("Unable to load the image {} for GTK", resizedImage);
+            }
+            return pixbuf;
+        }
+
+        final byte[] bytes = resizedImage.getBytes();
+        if (bytes == null) {
+            return null;
+        }
+
+        final Pointer loader = gdk_pixbuf_loader_new();
+        try {
+            final boolean written = gdk_pixbuf_loader_write(loader, bytes, new NativeLong(bytes.length), null);
+
+            // the loader must always be closed, even if writing failed
+            final boolean closed = gdk_pixbuf_loader_close(loader, null);
+
+            final Pointer pixbuf = gdk_pixbuf_loader_get_pixbuf(loader);
+            if (!written || !closed || pixbuf == null) {
+                SystemTray.logger.error("Unable to decode the image {} for GTK", resizedImage);
+                return null;
+            }
+
+            // the pixbuf is owned by the loader
+            return g_object_ref(pixbuf);
+        } finally {
+            GObject.g_object_unref(loader);
+        }
+    }
+
+    /**
+     * https://docs.gtk.org/gdk-pixbuf/ctor.Pixbuf.new_from_file.html
+     */
+    private static native
+    Pointer gdk_pixbuf_new_from_file(String filename, Pointer error);
+
+    /**
+     * https://docs.gtk.org/gdk-pixbuf/ctor.PixbufLoader.new.html
+     */
+    private static native
+    Pointer gdk_pixbuf_loader_new();
+
+    /**
+     * https://docs.gtk.org/gdk-pixbuf/method.PixbufLoader.write.html
+     */
+    private static native
+    boolean gdk_pixbuf_loader_write(Pointer loader, byte[] buf, NativeLong count, Pointer error);
+
+    /**
+     * https://docs.gtk.org/gdk-pixbuf/method.PixbufLoader.close.html
+     */
+    private static native
+    boolean gdk_pixbuf_loader_close(Pointer loader, Pointer error);
+
+    /**
+     * The pixbuf is owned by the loader.
+     * <p>
+     * https://docs.gtk.org/gdk-pixbuf/method.PixbufLoader.get_pixbuf.html
+     */
+    private static native
+    Pointer gdk_pixbuf_loader_get_pixbuf(Pointer loader);
+
+    /**
+     * https://docs.gtk.org/gobject/method.Object.ref.html
+     */
+    private static native
+    Pointer g_object_ref(Pointer object);
+
+    /**
+     * https://docs.gtk.org/gtk3/ctor.Image.new_from_pixbuf.html
+     */
+    private static native
+    Pointer gtk_image_new_from_pixbuf(Pointer pixbuf);
+
+    /**
+     * https://docs.gtk.org/gtk3/method.StatusIcon.set_from_pixbuf.html
+     */
+    private static native
+    void gtk_status_icon_set_from_pixbuf(Pointer status_icon, Pointer pixbuf);
+
+    private
+    GdkPixbufs() {
+    }
+}
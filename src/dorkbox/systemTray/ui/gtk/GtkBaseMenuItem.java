@@ -22,8 +22,8 @@ import java.io.File;
 import com.sun.jna.Pointer;
 
 import dorkbox.jna.linux.GObject;
-import dorkbox.jna.linux.GtkEventDispatch;
 import dorkbox.systemTray.peer.EntryPeer;
+import dorkbox.systemTray.util.Dispatch;
 
 abstract
 class GtkBaseMenuItem implements EntryPeer {
@@ -38,6 +38,9 @@ class GtkBaseMenuItem implements EntryPeer {
     // the native GTK component
     protected final Pointer _native;
 
+    // true when the native component has been appended to the native menu of the parent. ALWAYS accessed on the EDT
+    private boolean attached = false;
+
     GtkBaseMenuItem(final Pointer _native) {
         this._native = _native;
     }
@@ -73,7 +76,8 @@ class GtkBaseMenuItem implements EntryPeer {
     protected
     void addSpacerImage() {
         if (spacerImage == null) {
-            spacerImage = Gtk2.gtk_image_new_from_file(transparentIcon.getAbsolutePath());
+            // the spacer is decoded once, and shared by every menu entry
+            spacerImage = GdkPixbufs.newImage(transparentIcon.getAbsolutePath());
             Gtk2.gtk_image_menu_item_set_image(_native, spacerImage);
 
             //  must always re-set always-show after setting the image
@@ -107,6 +111,12 @@ class GtkBaseMenuItem implements EntryPeer {
     // To work around this issue, we destroy then recreate the menu every time something is changed.
     // always on EDT
     void onDeleteMenu(final Pointer parentNative) {
+        if (!attached) {
+            // this entry was added during a batch update, and has not been appended to the native menu yet
+            return;
+        }
+        attached = false;
+
         GObject.g_object_force_floating(_native);  // makes it a floating reference
         Gtk2.gtk_container_remove(parentNative, _native);
     }
@@ -120,13 +130,39 @@ class GtkBaseMenuItem implements EntryPeer {
         // will also get:  gsignal.c:2516: signal 'child-added' is invalid for instance '0x7f1df8244080' of type 'GtkMenu'
         Gtk2.gtk_menu_shell_append(parentNative, _native);
         GObject.g_object_ref_sink(_native);  // undoes "floating"
+        attached = true;
         // NOTE: We cannot show the menu until AFTER items have been added, otherwise we get GLIB warnings
     }
 
+    /**
+     * Inserts the native component into a menu that is already live (instead of recreating the entire menu).
+     * <p>
+     * ALWAYS CALLED ON THE EDT
+     */
+    void onInsertMenu(final Pointer parentNative, final int index, final boolean hasImagesInMenu) {
+        setSpacerImage(hasImagesInMenu);
+
+        GtkMenuShell.gtk_menu_shell_insert(parentNative, _native, index);
+        GObject.g_object_ref_sink(_native);  // undoes "floating"
+        attached = true;
+    }
+
+    /**
+     * Removes the native component from the native menu of the parent (if it was ever appended to it).
+     * <p>
+     * ALWAYS CALLED ON THE EDT
+     */
+    void detach(final Pointer parentNative) {
+        if (attached) {
+            attached = false;
+            Gtk2.gtk_container_remove(parentNative, _native); // will automatically get destroyed if no other references to it
+        }
+    }
+
     @Override
     public
     void remove() {
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             if (spacerImage != null) {
                 Gtk2.gtk_container_remove(_native, spacerImage); // will automatically get destroyed if no other references to it
                 spacerImage = null;
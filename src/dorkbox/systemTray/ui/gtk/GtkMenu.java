@@ -23,7 +23,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.sun.jna.Pointer;
 
-import dorkbox.jna.linux.GtkEventDispatch;
+import dorkbox.jna.linux.GCallback;
+import dorkbox.jna.linux.GObject;
 import dorkbox.systemTray.Checkbox;
 import dorkbox.systemTray.Entry;
 import dorkbox.systemTray.Menu;
@@ -31,8 +32,10 @@ import dorkbox.systemTray.MenuItem;
 import dorkbox.systemTray.Separator;
 import dorkbox.systemTray.Status;
 import dorkbox.systemTray.peer.MenuPeer;
+import dorkbox.systemTray.util.Dispatch;
+import dorkbox.systemTray.util.ResizedImage;
 
-class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
+class GtkMenu extends GtkBaseMenuItem implements MenuPeer, GCallback {
     // this is a list (that mirrors the actual list) BECAUSE we have to create/delete the entire menu in GTK every time something is changed
     private final List<GtkBaseMenuItem> menuEntries = new ArrayList<>();
 
@@ -41,6 +44,8 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
     volatile Pointer _nativeMenu;  // must ONLY be created at the end of delete!
 
     private volatile Pointer image;
+    // the image shown by 'image', which is released when it is no longer shown. ALWAYS accessed on the EDT
+    private ResizedImage shownImage;
 
     // The mnemonic will ONLY show-up once a menu entry is selected. IT WILL NOT show up before then!
     // AppIndicators will only show if you use the keyboard to navigate
@@ -50,12 +55,34 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
     // have to make sure no other methods can call obliterate, delete, or create menu once it's already started
     private final AtomicBoolean obliterateInProgress = new AtomicBoolean(false);
 
+    // non-null while this menu is applying a batch update. These are the menus that must be rebuilt once the batch is done.
+    // ALWAYS accessed on the EDT
+    private List<GtkMenu> batchChangedMenus = null;
+
+    // true if entries can be inserted/removed while the menu is live, instead of destroying then recreating the menu on every change.
+    // GtkStatusIcon menus support this, AppIndicator menus DO NOT (they are exported over dbus)
+    private final boolean liveChanges;
+
+    // if any of the entries in the (native) menu have an image. ALWAYS accessed on the EDT
+    private boolean hasImages = false;
+
+    // non-null if the menu must be told when the native menu is about to be shown. ALWAYS accessed on the EDT
+    private Menu aboutToShowMenu = null;
+
     // called by the system tray constructors
     // This is NOT a copy constructor!
     @SuppressWarnings("IncompleteCopyConstructor")
     GtkMenu() {
+        this(false);
+    }
+
+    // called by the system tray constructors
+    // This is NOT a copy constructor!
+    @SuppressWarnings("IncompleteCopyConstructor")
+    GtkMenu(final boolean liveChanges) {
         super(null);
         this.parent = null;
+        this.liveChanges = liveChanges;
     }
 
     // This is NOT a copy constructor!
@@ -64,6 +91,7 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
     GtkMenu(final GtkMenu parent) {
         super(Gtk2.gtk_image_menu_item_new_with_mnemonic("")); // is what is added to the parent menu (so images work)
         this.parent = parent;
+        this.liveChanges = parent.liveChanges;
     }
 
     GtkMenu getParent() {
@@ -91,7 +119,7 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
      */
     @SuppressWarnings("ForLoopReplaceableByForEach")
     private
-    void deleteMenu(boolean recursiveDeleteParentMenu) {
+    void deleteMenu() {
         if (obliterateInProgress.get()) {
             return;
         }
@@ -105,22 +133,19 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
 
             Gtk2.gtk_widget_destroy(_nativeMenu);
         }
-
-        if (parent != null && recursiveDeleteParentMenu) {
-            parent.deleteMenu(true);
-        }
     }
 
     /**
      * some GTK libraries DO NOT let us add items AFTER the menu has been attached to the indicator.
      *
-     * To work around this issue, we destroy then recreate the menu every time something is changed.
+     * To work around this issue, we destroy then recreate the menu every time something is changed. Only the menu that changed is
+     * recreated, the parent menus pick up the new sub-menu because it is re-assigned to the (unchanged) sub-menu entry.
      *
      * ALWAYS CALLED ON THE EDT
      */
     @SuppressWarnings("ForLoopReplaceableByForEach")
     private
-    void createMenu(boolean recursiveCreateParentMenu) {
+    void createMenu() {
         if (obliterateInProgress.get()) {
             return;
         }
@@ -128,16 +153,30 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
         // makes a new one
         _nativeMenu = Gtk2.gtk_menu_new();
 
+        if (aboutToShowMenu != null) {
+            GObject.g_signal_connect_object(_nativeMenu, "show", this, null, 0);
+        }
+
         // binds sub-menu to entry (if it exists! it does not for the root menu)
         if (parent != null) {
             Gtk2.gtk_menu_item_set_submenu(_native, _nativeMenu);
         }
 
-        if (parent != null && recursiveCreateParentMenu) {
-            parent.createMenu(true);
+        // now add back other menu entries
+        hasImages = checkForImages();
+
+        for (int i = 0, menuEntriesSize = menuEntries.size(); i < menuEntriesSize; i++) {
+            // the menu entry looks FUNKY when there are a mis-match of entries WITH and WITHOUT images
+            final GtkBaseMenuItem menuEntry__ = menuEntries.get(i);
+            menuEntry__.onCreateMenu(_nativeMenu, hasImages);
         }
 
-        // now add back other menu entries
+        onMenuAdded(_nativeMenu);
+    }
+
+    @SuppressWarnings("ForLoopReplaceableByForEach")
+    private
+    boolean checkForImages() {
         boolean hasImages = false;
 
         for (int i = 0, menuEntriesSize = menuEntries.size(); i < menuEntriesSize; i++) {
@@ -145,21 +184,30 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
             hasImages |= menuEntry__.hasImage();
         }
 
+        return hasImages;
+    }
+
+    /**
+     * When the menu is changed in-place, the spacer images of the other entries only have to change when the menu goes from having
+     * no images to having images (or the opposite).
+     *
+     * ALWAYS CALLED ON THE EDT
+     */
+    @SuppressWarnings("ForLoopReplaceableByForEach")
+    private
+    void updateSpacerImages(final GtkBaseMenuItem ignored) {
+        final boolean hasImages = checkForImages();
+        if (hasImages == this.hasImages) {
+            return;
+        }
+        this.hasImages = hasImages;
+
         for (int i = 0, menuEntriesSize = menuEntries.size(); i < menuEntriesSize; i++) {
-            // the menu entry looks FUNKY when there are a mis-match of entries WITH and WITHOUT images
             final GtkBaseMenuItem menuEntry__ = menuEntries.get(i);
-            menuEntry__.onCreateMenu(_nativeMenu, hasImages);
-
-            if (menuEntry__ instanceof GtkMenu) {
-                GtkMenu subMenu = (GtkMenu) menuEntry__;
-                if (subMenu.getParent() != GtkMenu.this) {
-                    // we don't want to "createMenu" on our sub-menu that is assigned to us directly, as they are already doing it
-                    subMenu.createMenu(recursiveCreateParentMenu);
-                }
+            if (menuEntry__ != ignored) {
+                menuEntry__.setSpacerImage(hasImages);
             }
         }
-
-        onMenuAdded(_nativeMenu);
     }
 
     /**
@@ -197,12 +245,18 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
     public
     void add(final Menu parentMenu, final Entry entry, final int index) {
         // must always be called on the GTK dispatch. This must be dispatchAndWait() so it will properly executed immediately
-        GtkEventDispatch.dispatchAndWait(()->{
+        Dispatch.gtkAndWait(()->{
             // some GTK libraries DO NOT let us add items AFTER the menu has been attached to the indicator.
             // To work around this issue, we destroy then recreate the menu every time something is changed.
+            // If the menu supports it (and it has already been created), the entry is inserted into the live menu instead.
+            final boolean insertLive = liveChanges && _nativeMenu != null;
 
-            // when adding/removing menus DURING the `add` operation for a menu, we DO NOT want to recursively add/remove menus!
-            deleteMenu(false);
+            // during a batch update, the menu is only rebuilt once (after everything in the batch has been applied)
+            final boolean deferRebuild = !insertLive && deferRebuild();
+
+            if (!insertLive && !deferRebuild) {
+                deleteMenu();
+            }
 
             GtkBaseMenuItem item = null;
 
@@ -248,8 +302,18 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
                 ((MenuItem) entry).bind((GtkMenuItem) item, parentMenu, parentMenu.getImageResizeUtil());
             }
 
-            // when adding/removing menus DURING the `add` operation for a menu, we DO NOT want to recursively add/remove menus!
-            createMenu(false);
+            if (insertLive) {
+                updateSpacerImages(item);
+                item.onInsertMenu(_nativeMenu, index, hasImages);
+                Gtk2.gtk_widget_show_all(item._native);
+                return;
+            }
+
+            if (deferRebuild) {
+                return;
+            }
+
+            createMenu();
 
             // only call show on the ROOT menu!
             if (parent == null) {
@@ -258,6 +322,132 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
         });
     }
 
+    @Override
+    public
+    boolean notifyAboutToShow(final Menu menu) {
+        if (!liveChanges) {
+            // the menu is destroyed and recreated on every change, which cannot happen while it is being shown
+            return false;
+        }
+
+        Dispatch.gtk(()->{
+            if (aboutToShowMenu != null) {
+                return;
+            }
+            aboutToShowMenu = menu;
+
+            if (_nativeMenu != null) {
+                GObject.g_signal_connect_object(_nativeMenu, "show", GtkMenu.this, null, 0);
+            }
+            else {
+                // the native menu is normally only created when the first entry is added. When all of the content is lazy, there is
+                // nothing to add until the menu is shown, so an empty native menu (which connects "show") has to be attached now.
+                createMenu();
+            }
+        });
+
+        return true;
+    }
+
+    // called by native code when the menu is about to be shown, always on the GTK event dispatch thread
+    @Override
+    public
+    int callback(final Pointer instance, final Pointer data) {
+        final Menu menu = aboutToShowMenu;
+        if (menu != null) {
+            menu.aboutToShow();
+        }
+
+        return Gtk2.TRUE;
+    }
+
+    @Override
+    public
+    void batch(final Runnable actions) {
+        // must always be called on the GTK dispatch. Nested calls to the GTK dispatch are run immediately.
+        Dispatch.gtkAndWait(()->{
+            if (getBatchMenu() != null) {
+                // we are part of a batch update that is already in progress
+                actions.run();
+                return;
+            }
+
+            batchChangedMenus = new ArrayList<>();
+            try {
+                actions.run();
+            } finally {
+                final List<GtkMenu> changedMenus = batchChangedMenus;
+                batchChangedMenus = null;
+
+                // sub-menus are rebuilt before their parents, so the parent (or the root menu) is always sent to the indicator last
+                changedMenus.sort((menu1, menu2)->Integer.compare(menu2.depth(), menu1.depth()));
+
+                GtkMenu root = null;
+                for (int i = 0, size = changedMenus.size(); i < size; i++) {
+                    final GtkMenu menu = changedMenus.get(i);
+                    menu.deleteMenu();
+                    menu.createMenu();
+
+                    if (menu.parent == null) {
+                        root = menu;
+                    }
+                }
+
+                // only call show on the ROOT menu!
+                if (root != null) {
+                    Gtk2.gtk_widget_show_all(root._nativeMenu);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the menu (either this menu or one of its parents) that is applying a batch update, or null if there is none.
+     *
+     * ALWAYS CALLED ON THE EDT
+     */
+    private
+    GtkMenu getBatchMenu() {
+        GtkMenu menu = this;
+        while (menu != null && menu.batchChangedMenus == null) {
+            menu = menu.parent;
+        }
+        return menu;
+    }
+
+    /**
+     * If this menu (or one of its parents) is applying a batch update, this menu is marked as changed so that it is rebuilt (only once)
+     * when the batch update is done.
+     *
+     * ALWAYS CALLED ON THE EDT
+     *
+     * @return true if the rebuild was deferred, false if the menu must be rebuilt now
+     */
+    private
+    boolean deferRebuild() {
+        final GtkMenu batchMenu = getBatchMenu();
+        if (batchMenu == null) {
+            return false;
+        }
+
+        if (!batchMenu.batchChangedMenus.contains(this)) {
+            batchMenu.batchChangedMenus.add(this);
+        }
+
+        return true;
+    }
+
+    private
+    int depth() {
+        int depth = 0;
+        GtkMenu menu = parent;
+        while (menu != null) {
+            depth++;
+            menu = menu.parent;
+        }
+        return depth;
+    }
+
 
     // NOTE: XFCE used to use appindicator3, which DOES NOT support images in the menu. This change was reverted.
     // see: https://ask.fedoraproject.org/en/question/23116/how-to-fix-missing-icons-in-program-menus-and-context-menus/
@@ -269,16 +459,21 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
     public
     void setImage(final MenuItem menuItem) {
         // is overridden by system tray
-        setLegitImage(menuItem.getImage() != null);
+        final ResizedImage resizedImage = menuItem.getResizedImage();
+        setLegitImage(resizedImage != null);
 
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             if (image != null) {
                 Gtk2.gtk_container_remove(_native, image); // will automatically get destroyed if no other references to it
                 image = null;
+
+                GdkPixbufs.release(shownImage);
+                shownImage = null;
             }
 
-            if (menuItem.getImage() != null) {
-                image = Gtk2.gtk_image_new_from_file(menuItem.getImage().getAbsolutePath());
+            if (resizedImage != null) {
+                image = GdkPixbufs.newImage(resizedImage);
+                shownImage = resizedImage;
                 Gtk2.gtk_image_menu_item_set_image(_native, image);
 
                 //  must always re-set always-show after setting the image
@@ -294,7 +489,7 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
     public
     void setEnabled(final MenuItem menuItem) {
         // is overridden by system tray
-        GtkEventDispatch.dispatch(()->Gtk2.gtk_widget_set_sensitive(_native, menuItem.getEnabled()));
+        Dispatch.gtk(()->Gtk2.gtk_widget_set_sensitive(_native, menuItem.getEnabled()));
     }
 
     // is overridden in tray impl
@@ -327,7 +522,7 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
             textWithMnemonic = menuItem.getText();
         }
 
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             Gtk2.gtk_menu_item_set_label(_native, textWithMnemonic);
             Gtk2.gtk_widget_show_all(_native);
         });
@@ -358,7 +553,7 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
     @Override
     public
     void setTooltip(final MenuItem menuItem) {
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             // NOTE: this will not work for AppIndicator tray types!
             // null will remove the tooltip
             Gtk2.gtk_widget_set_tooltip_text(_native, menuItem.getTooltip());
@@ -374,16 +569,30 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
     void remove(final GtkBaseMenuItem item) {
         menuEntries.remove(item);
 
+        if (obliterateInProgress.get()) {
+            return;
+        }
+
+        if (liveChanges) {
+            // the item has already removed itself from the live menu
+            updateSpacerImages(null);
+            return;
+        }
+
+        if (deferRebuild()) {
+            return;
+        }
+
         // have to rebuild the menu now...
-        deleteMenu(true);  // must be on EDT
-        createMenu(true);  // must be on EDT
+        deleteMenu();  // must be on EDT
+        createMenu();  // must be on EDT
     }
 
     // a child will always remove itself from the parent.
     @Override
     public
     void remove() {
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             GtkMenu parent = getParent();
 
             if (parent != null) {
@@ -394,13 +603,34 @@ class GtkMenu extends GtkBaseMenuItem implements MenuPeer {
             // delete all of the children of this submenu (must happen before the menuEntry is removed)
             obliterateMenu(); // must be on EDT
 
+            if (image != null) {
+                GdkPixbufs.release(shownImage);
+                shownImage = null;
+            }
+
+            // if we are part of a batch update, there is nothing left of us to rebuild once the batch is done
+            final GtkMenu batchMenu = getBatchMenu();
+            if (batchMenu != null) {
+                batchMenu.batchChangedMenus.remove(GtkMenu.this);
+            }
+
             if (parent != null) {
                 // remove the gtk entry item from our menu NATIVE components
                 Gtk2.gtk_menu_item_set_submenu(_native, null);
 
+                if (liveChanges) {
+                    detach(parent._nativeMenu);
+                    parent.updateSpacerImages(null);
+                    return;
+                }
+
+                if (parent.deferRebuild()) {
+                    return;
+                }
+
                 // have to rebuild the menu now...
-                parent.deleteMenu(true);  // must be on EDT
-                parent.createMenu(true);  // must be on EDT
+                parent.deleteMenu();  // must be on EDT
+                parent.createMenu();  // must be on EDT
             }
         });
     }
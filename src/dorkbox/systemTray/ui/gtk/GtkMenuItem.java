@@ -28,7 +28,9 @@ import dorkbox.jna.linux.GtkEventDispatch;
 import dorkbox.systemTray.MenuItem;
 import dorkbox.systemTray.SystemTray;
 import dorkbox.systemTray.peer.MenuItemPeer;
+import dorkbox.systemTray.util.Dispatch;
 import dorkbox.systemTray.util.EventDispatch;
+import dorkbox.systemTray.util.ResizedImage;
 
 class GtkMenuItem extends GtkBaseMenuItem implements MenuItemPeer, GCallback {
     private final GtkMenu parent;
@@ -36,6 +38,8 @@ class GtkMenuItem extends GtkBaseMenuItem implements MenuItemPeer, GCallback {
     // these have to be volatile, because they can be changed from any thread
     private volatile ActionListener callback;
     private volatile Pointer image;
+    // the image shown by 'image', which is released when it is no longer shown. ALWAYS accessed on the EDT
+    private ResizedImage shownImage;
 
     // The mnemonic will ONLY show-up once a menu entry is selected. IT WILL NOT show up before then!
     // AppIndicators will only show if you use the keyboard to navigate
@@ -74,20 +78,24 @@ class GtkMenuItem extends GtkBaseMenuItem implements MenuItemPeer, GCallback {
     public
     void setImage(final MenuItem menuItem) {
         final boolean hadImage = hasImage();
-        setLegitImage(menuItem.getImage() != null);
+        final ResizedImage resizedImage = menuItem.getResizedImage();
+        setLegitImage(resizedImage != null);
 
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             if (image != null) {
                 Gtk2.gtk_container_remove(_native, image);  // will automatically get destroyed if no other references to it
                 image = null;
+
+                GdkPixbufs.release(shownImage);
+                shownImage = null;
             }
 
-            if (menuItem.getImage() != null) {
+            if (resizedImage != null) {
                 // always remove the spacer image in case it's there. The spacer image will correctly added when the menu is created.
                 removeSpacerImage();
 
-                image = Gtk2.gtk_image_new_from_file(menuItem.getImage()
-                                                             .getAbsolutePath());
+                image = GdkPixbufs.newImage(resizedImage);
+                shownImage = resizedImage;
                 Gtk2.gtk_image_menu_item_set_image(_native, image);
 
                 //  must always re-set always-show after setting the image
@@ -106,7 +114,7 @@ class GtkMenuItem extends GtkBaseMenuItem implements MenuItemPeer, GCallback {
     @Override
     public
     void setEnabled(final MenuItem menuItem) {
-        GtkEventDispatch.dispatch(()->Gtk2.gtk_widget_set_sensitive(_native, menuItem.getEnabled()));
+        Dispatch.gtk(()->Gtk2.gtk_widget_set_sensitive(_native, menuItem.getEnabled()));
     }
 
     @SuppressWarnings("Duplicates")
@@ -137,7 +145,7 @@ class GtkMenuItem extends GtkBaseMenuItem implements MenuItemPeer, GCallback {
             textWithMnemonic = menuItem.getText();
         }
 
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             Gtk2.gtk_menu_item_set_label(_native, textWithMnemonic);
             Gtk2.gtk_widget_show_all(_native);
         });
@@ -157,7 +165,7 @@ class GtkMenuItem extends GtkBaseMenuItem implements MenuItemPeer, GCallback {
                 public
                 void actionPerformed(ActionEvent e) {
                     // we want it to run on our own with our own action event info (so it is consistent across all platforms)
-                    EventDispatch.runLater(()->{
+                    EventDispatch.runCallback(menuItem.getCallbackExecutor(), ()->{
                         try {
                             cb.actionPerformed(new ActionEvent(menuItem, ActionEvent.ACTION_PERFORMED, ""));
                         } catch (Throwable throwable) {
@@ -186,7 +194,7 @@ class GtkMenuItem extends GtkBaseMenuItem implements MenuItemPeer, GCallback {
     @Override
     public
     void setTooltip(final MenuItem menuItem) {
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             // NOTE: this will not work for AppIndicator tray types!
             // null will remove the tooltip
             Gtk2.gtk_widget_set_tooltip_text(_native, menuItem.getTooltip());
@@ -197,16 +205,19 @@ class GtkMenuItem extends GtkBaseMenuItem implements MenuItemPeer, GCallback {
     @Override
     public
     void remove() {
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             GtkMenuItem.super.remove();
 
             callback = null;
 
-            Gtk2.gtk_container_remove(parent._nativeMenu, _native); // will automatically get destroyed if no other references to it
+            detach(parent._nativeMenu);
 
             if (image != null) {
                 Gtk2.gtk_container_remove(_native, image); // will automatically get destroyed if no other references to it
                 image = null;
+
+                GdkPixbufs.release(shownImage);
+                shownImage = null;
             }
 
             parent.remove(GtkMenuItem.this);
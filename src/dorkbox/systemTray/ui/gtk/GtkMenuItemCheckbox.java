@@ -31,6 +31,7 @@ import dorkbox.os.OS;
 import dorkbox.systemTray.Checkbox;
 import dorkbox.systemTray.SystemTray;
 import dorkbox.systemTray.peer.CheckboxPeer;
+import dorkbox.systemTray.util.Dispatch;
 import dorkbox.systemTray.util.EventDispatch;
 import dorkbox.systemTray.util.GtkTheme;
 import dorkbox.systemTray.util.HeavyCheckMark;
@@ -70,6 +71,8 @@ class GtkMenuItemCheckbox extends GtkBaseMenuItem implements CheckboxPeer, GCall
     // these have to be volatile, because they can be changed from any thread
     private volatile ActionListener callback;
     private volatile boolean isChecked = false;
+    // the state of the native check menu item, which changes by itself when it is clicked. ONLY changed on the EDT
+    private volatile boolean nativeChecked = false;
     private volatile Pointer checkedImage;
     private volatile Pointer image;
 
@@ -145,6 +148,11 @@ class GtkMenuItemCheckbox extends GtkBaseMenuItem implements CheckboxPeer, GCall
     @Override
     public
     int callback(final Pointer instance, final Pointer data) {
+        if (!useFakeCheckMark) {
+            // GTK has already toggled the check menu item
+            nativeChecked = !nativeChecked;
+        }
+
         ActionListener callback = this.callback;
         if (callback != null) {
             GtkEventDispatch.proxyClick(callback);
@@ -168,7 +176,7 @@ class GtkMenuItemCheckbox extends GtkBaseMenuItem implements CheckboxPeer, GCall
     @Override
     public
     void setEnabled(final Checkbox menuItem) {
-        GtkEventDispatch.dispatch(()->Gtk2.gtk_widget_set_sensitive(_native, menuItem.getEnabled()));
+        Dispatch.gtk(()->Gtk2.gtk_widget_set_sensitive(_native, menuItem.getEnabled()));
     }
 
     @Override
@@ -194,7 +202,7 @@ class GtkMenuItemCheckbox extends GtkBaseMenuItem implements CheckboxPeer, GCall
             textWithMnemonic = menuItem.getText();
         }
 
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             Gtk2.gtk_menu_item_set_label(_native, textWithMnemonic);
             Gtk2.gtk_widget_show_all(_native);
         });
@@ -214,10 +222,10 @@ class GtkMenuItemCheckbox extends GtkBaseMenuItem implements CheckboxPeer, GCall
                 public
                 void actionPerformed(ActionEvent e) {
                     // this will run on the EDT, since we are calling it from the EDT. This can ALSO recursively call the callback
-                    menuItem.setChecked(!isChecked);
+                    menuItem.setCheckedByClick(!isChecked);
 
                     // we want it to run on our own with our own action event info (so it is consistent across all platforms)
-                    EventDispatch.runLater(()->{
+                    EventDispatch.runCallback(menuItem.getCallbackExecutor(), ()->{
                         try {
                             cb.actionPerformed(new ActionEvent(menuItem, ActionEvent.ACTION_PERFORMED, ""));
                         } catch (Throwable throwable) {
@@ -234,20 +242,22 @@ class GtkMenuItemCheckbox extends GtkBaseMenuItem implements CheckboxPeer, GCall
     void setChecked(final Checkbox menuItem) {
         final boolean checked = menuItem.getChecked();
 
-        // only dispatch if it's actually different
-        if (checked != this.isChecked) {
+        // only dispatch if it's actually different. The native check menu item also changes its state when it is clicked.
+        if (checked != this.isChecked || (!useFakeCheckMark && checked != this.nativeChecked)) {
             this.isChecked = checked;
 
-            GtkEventDispatch.dispatch(()->{
+            Dispatch.gtk(()->{
                 if (useFakeCheckMark) {
                     setCheckedIconForFakeCheckMarks();
-                } else {
+                } else if (nativeChecked != isChecked) {
+                    nativeChecked = isChecked;
+
                     // note: this will trigger "activate", which will then trigger the callback.
                     // we assume this is consistent across ALL versions and variants of GTK
                     // https://github.com/GNOME/gtk/blob/master/gtk/gtkcheckmenuitem.c#L317
                     // this disables the signal handler, then enables it
                     GObject.g_signal_handler_block(_native, handlerId);
-                    Gtk2.gtk_check_menu_item_set_active(_native, isChecked);
+                    Gtk2.gtk_check_menu_item_set_active(_native, nativeChecked);
                     GObject.g_signal_handler_unblock(_native, handlerId);
                 }
             });
@@ -257,7 +267,7 @@ class GtkMenuItemCheckbox extends GtkBaseMenuItem implements CheckboxPeer, GCall
     @Override
     public
     void setTooltip(final Checkbox menuItem) {
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             // NOTE: this will not work for AppIndicator tray types!
             // null will remove the tooltip
             Gtk2.gtk_widget_set_tooltip_text(_native, menuItem.getTooltip());
@@ -274,9 +284,9 @@ class GtkMenuItemCheckbox extends GtkBaseMenuItem implements CheckboxPeer, GCall
 
 
         if (this.isChecked) {
-            checkedImage = Gtk2.gtk_image_new_from_file(checkedFile);
+            checkedImage = GdkPixbufs.newImage(checkedFile);
         } else {
-            checkedImage = Gtk2.gtk_image_new_from_file(uncheckedFile);
+            checkedImage = GdkPixbufs.newImage(uncheckedFile);
         }
 
         Gtk2.gtk_image_menu_item_set_image(_native, checkedImage);
@@ -305,12 +315,12 @@ class GtkMenuItemCheckbox extends GtkBaseMenuItem implements CheckboxPeer, GCall
     @Override
     public
     void remove() {
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             GtkMenuItemCheckbox.super.remove();
 
             callback = null;
 
-            Gtk2.gtk_container_remove(parent._nativeMenu, _native);  // will automatically get destroyed if no other references to it
+            detach(parent._nativeMenu);
 
             if (image != null) {
                 Gtk2.gtk_container_remove(_native, image); // will automatically get destroyed if no other references to it
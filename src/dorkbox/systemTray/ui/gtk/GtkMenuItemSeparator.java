@@ -17,8 +17,8 @@ package dorkbox.systemTray.ui.gtk;
 
 import static dorkbox.jna.linux.Gtk.Gtk2;
 
-import dorkbox.jna.linux.GtkEventDispatch;
 import dorkbox.systemTray.peer.SeparatorPeer;
+import dorkbox.systemTray.util.Dispatch;
 
 class GtkMenuItemSeparator extends GtkBaseMenuItem implements SeparatorPeer {
 
@@ -37,8 +37,8 @@ class GtkMenuItemSeparator extends GtkBaseMenuItem implements SeparatorPeer {
     @Override
     public
     void remove() {
-        GtkEventDispatch.dispatch(()->{
-            Gtk2.gtk_container_remove(parent._nativeMenu, _native);  // will automatically get destroyed if no other references to it
+        Dispatch.gtk(()->{
+            detach(parent._nativeMenu);
 
             parent.remove(GtkMenuItemSeparator.this);
         });
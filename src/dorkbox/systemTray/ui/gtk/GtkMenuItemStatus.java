@@ -17,9 +17,9 @@ package dorkbox.systemTray.ui.gtk;
 
 import static dorkbox.jna.linux.Gtk.Gtk2;
 
-import dorkbox.jna.linux.GtkEventDispatch;
 import dorkbox.systemTray.Status;
 import dorkbox.systemTray.peer.StatusPeer;
+import dorkbox.systemTray.util.Dispatch;
 
 // you might wonder WHY this extends MenuEntryItem -- the reason is that an AppIndicator "status" will be offset from everyone else,
 // where a GtkStatusIconTray + SwingUI will have everything lined up. (with or without icons).  This is to normalize how it looks
@@ -42,7 +42,7 @@ class GtkMenuItemStatus extends GtkBaseMenuItem implements StatusPeer {
     @Override
     public
     void setText(final Status menuItem) {
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             // AppIndicator strips out markup text.
             // https://mail.gnome.org/archives/commits-list/2016-March/msg05444.html
 
@@ -57,10 +57,10 @@ class GtkMenuItemStatus extends GtkBaseMenuItem implements StatusPeer {
     @Override
     public
     void remove() {
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             GtkMenuItemStatus.super.remove();
 
-            Gtk2.gtk_container_remove(parent._nativeMenu, _native); // will automatically get destroyed if no other references to it
+            detach(parent._nativeMenu);
 
             parent.remove(GtkMenuItemStatus.this);
         });
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.ui.gtk;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Pointer;
+
+/**
+ * GTK menu-shell functions that are not part of the shared GTK bindings.
+ * <p>
+ * GTK (2 or 3) is always loaded before a menu is created, so these symbols are looked up in the current process instead of a specific
+ * library file.
+ */
+final
+class GtkMenuShell {
+    static {
+        Native.register(GtkMenuShell.class, NativeLibrary.getProcess());
+    }
+
+    /**
+     * Inserts a new GtkMenuItem into the menu shell's item list at the position indicated by position.
+     * <p>
+     * https://docs.gtk.org/gtk3/method.MenuShell.insert.html
+     */
+    static native
+    void gtk_menu_shell_insert(Pointer menu_shell, Pointer child, int position);
+
+    private
+    GtkMenuShell() {
+    }
+}
@@ -26,7 +26,9 @@ import dorkbox.jna.linux.GtkEventDispatch;
 import dorkbox.jna.linux.structs.AppIndicatorInstanceStruct;
 import dorkbox.systemTray.MenuItem;
 import dorkbox.systemTray.Tray;
+import dorkbox.systemTray.util.Dispatch;
 import dorkbox.systemTray.util.ImageResizeUtil;
+import dorkbox.systemTray.util.ResizedImage;
 import dorkbox.systemTray.util.SizeAndScaling;
 
 /**
@@ -87,7 +89,7 @@ class _AppIndicatorNativeTray extends Tray {
 
     // is the system tray visible or not.
     private volatile boolean visible = true;
-    private volatile File imageFile;
+    private volatile ResizedImage resizedImage;
 
     // has the name already been set for the indicator?
     private volatile boolean setName = false;
@@ -141,7 +143,7 @@ class _AppIndicatorNativeTray extends Tray {
             @Override
             public
             void setEnabled(final MenuItem menuItem) {
-                GtkEventDispatch.dispatch(()->{
+                Dispatch.gtk(()->{
                     boolean enabled = menuItem.getEnabled();
 
                     if (visible && !enabled) {
@@ -159,12 +161,19 @@ class _AppIndicatorNativeTray extends Tray {
             @Override
             public
             void setImage(final MenuItem menuItem) {
-                imageFile = menuItem.getImage();
+                final ResizedImage resizedImage = menuItem.getResizedImage();
+                _AppIndicatorNativeTray.this.resizedImage = resizedImage;
+                if (resizedImage == null) {
+                    return;
+                }
+
+                // app-indicators can only use a file path, so images in memory are written to disk
+                final File imageFile = resizedImage.getFile();
                 if (imageFile == null) {
                     return;
                 }
 
-                GtkEventDispatch.dispatch(()->{
+                Dispatch.gtk(()->{
                     appIndicator.app_indicator_set_icon(imageFile.getAbsolutePath());
 
                     if (!isActive) {
@@ -199,7 +208,7 @@ class _AppIndicatorNativeTray extends Tray {
                 if (!shuttingDown.getAndSet(true)) {
                     super.remove();
 
-                    GtkEventDispatch.dispatchAndWait(()->{
+                    Dispatch.gtkAndWait(()->{
                         // must happen asap, so our hook properly notices we are in shutdown mode
                         final AppIndicatorInstanceStruct savedAppIndicator = appIndicator;
                         appIndicator = null;
@@ -215,7 +224,7 @@ class _AppIndicatorNativeTray extends Tray {
             }
         };
 
-        GtkEventDispatch.dispatchAndWait(()->{
+        Dispatch.gtkAndWait(()->{
             String id = "DBST" + System.nanoTime();
 
             // we initialize with a blank image. Throws RuntimeException if not possible (this should never happen!)
@@ -233,6 +242,6 @@ class _AppIndicatorNativeTray extends Tray {
     @Override
     public
     boolean hasImage() {
-        return imageFile != null;
+        return resizedImage != null;
     }
 }
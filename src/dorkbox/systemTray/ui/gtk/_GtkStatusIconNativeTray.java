@@ -17,7 +17,6 @@ package dorkbox.systemTray.ui.gtk;
 
 import static dorkbox.jna.linux.Gtk.Gtk2;
 
-import java.io.File;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.sun.jna.Pointer;
@@ -29,7 +28,9 @@ import dorkbox.jna.linux.structs.GdkEventButton;
 import dorkbox.jna.rendering.RenderProvider;
 import dorkbox.systemTray.MenuItem;
 import dorkbox.systemTray.Tray;
+import dorkbox.systemTray.util.Dispatch;
 import dorkbox.systemTray.util.ImageResizeUtil;
+import dorkbox.systemTray.util.ResizedImage;
 
 /**
  * Class for handling all system tray interactions via GTK.
@@ -55,7 +56,9 @@ class _GtkStatusIconNativeTray extends Tray {
 
     // is the system tray visible or not.
     private volatile boolean visible = true;
-    private volatile File imageFile;
+    private volatile ResizedImage resizedImage;
+    // the image shown by the status icon. ALWAYS accessed on the EDT
+    private ResizedImage shownImage;
     private volatile String tooltipText = "";
 
     private final GtkMenu gtkMenu;
@@ -70,11 +73,12 @@ class _GtkStatusIconNativeTray extends Tray {
         GtkMenuItemCheckbox.uncheckedFile = imageResizeUtil.getTransparentImage().getAbsolutePath();
 
         // we override various methods, because each tray implementation is SLIGHTLY different. This allows us customization.
-        gtkMenu = new GtkMenu() {
+        // GtkStatusIcon menus are plain GTK menus, so entries can be inserted/removed without recreating the entire menu.
+        gtkMenu = new GtkMenu(true) {
             @Override
             public
             void setEnabled(final MenuItem menuItem) {
-                GtkEventDispatch.dispatch(()->{
+                Dispatch.gtk(()->{
                     boolean enabled = menuItem.getEnabled();
 
                     if (visible && !enabled) {
@@ -91,13 +95,18 @@ class _GtkStatusIconNativeTray extends Tray {
             @Override
             public
             void setImage(final MenuItem menuItem) {
-                imageFile = menuItem.getImage();
-                if (imageFile == null) {
+                final ResizedImage resizedImage = menuItem.getResizedImage();
+                _GtkStatusIconNativeTray.this.resizedImage = resizedImage;
+                if (resizedImage == null) {
                     return;
                 }
 
-                GtkEventDispatch.dispatch(()->{
-                    Gtk2.gtk_status_icon_set_from_file(trayIcon, imageFile.getAbsolutePath());
+                Dispatch.gtk(()->{
+                    // images in memory are not written to disk. The new image is used before the previous image is released, in case
+                    // they are the same image
+                    GdkPixbufs.setStatusIcon(trayIcon, resizedImage);
+                    GdkPixbufs.release(shownImage);
+                    shownImage = resizedImage;
 
                     if (!isActive) {
                         isActive = true;
@@ -130,7 +139,7 @@ class _GtkStatusIconNativeTray extends Tray {
 
                 tooltipText = text;
 
-                GtkEventDispatch.dispatch(()->Gtk2.gtk_status_icon_set_tooltip_text(trayIcon, text));
+                Dispatch.gtk(()->Gtk2.gtk_status_icon_set_tooltip_text(trayIcon, text));
             }
 
             @Override
@@ -138,7 +147,7 @@ class _GtkStatusIconNativeTray extends Tray {
             void remove() {
                 // This is required if we have JavaFX or SWT shutdown hooks (to prevent us from shutting down twice...)
                 if (!shuttingDown.getAndSet(true)) {
-                    GtkEventDispatch.dispatchAndWait(()->{
+                    Dispatch.gtkAndWait(()->{
                         // this hides the indicator
                         Gtk2.gtk_status_icon_set_visible(trayIcon, false);
                         GObject.g_object_unref(trayIcon);
@@ -156,7 +165,7 @@ class _GtkStatusIconNativeTray extends Tray {
             }
         };
 
-        GtkEventDispatch.dispatch(()->{
+        Dispatch.gtk(()->{
             trayIcon = Gtk2.gtk_status_icon_new();
 
             gtkCallback = new GEventCallback() {
@@ -177,7 +186,7 @@ class _GtkStatusIconNativeTray extends Tray {
         GtkEventDispatch.waitForEventsToComplete();
 
         // we have to be able to set our title, otherwise the gnome-shell extension WILL NOT work
-        GtkEventDispatch.dispatchAndWait(()->{
+        Dispatch.gtkAndWait(()->{
             // in GNOME by default, the title/name of the tray icon is "java". We are the only java-based tray icon, so we just use that.
             // If you change "SystemTray" to something else, make sure to change it in extension.js as well
 
@@ -204,6 +213,6 @@ class _GtkStatusIconNativeTray extends Tray {
     @Override
     public
     boolean hasImage() {
-        return imageFile != null;
+        return resizedImage != null;
     }
 }
@@ -18,9 +18,6 @@ package dorkbox.systemTray.ui.osx;
 import java.awt.Image;
 import java.awt.MenuShortcut;
 import java.awt.PopupMenu;
-import java.io.File;
-
-import javax.swing.ImageIcon;
 
 import dorkbox.systemTray.Checkbox;
 import dorkbox.systemTray.Entry;
@@ -31,6 +28,8 @@ import dorkbox.systemTray.Status;
 import dorkbox.systemTray.SystemTray;
 import dorkbox.systemTray.peer.MenuPeer;
 import dorkbox.systemTray.util.AwtAccessor;
+import dorkbox.systemTray.util.Dispatch;
+import dorkbox.systemTray.util.ResizedImage;
 import dorkbox.util.SwingUtil;
 
 // this is a weird composite class, because it must be a Menu, but ALSO a Entry -- so it has both
@@ -66,7 +65,7 @@ class AwtOsxMenu implements MenuPeer {
     public
     void add(final Menu parentMenu, final Entry entry, final int index) {
         // must always be called on the EDT
-        SwingUtil.INSTANCE.invokeAndWaitQuietly(()->{
+        Dispatch.swingAndWait(()->{
             if (entry instanceof Menu) {
                 AwtOsxMenu menu = new AwtOsxMenu(AwtOsxMenu.this);
                 ((Menu) entry).bind(menu, parentMenu, parentMenu.getImageResizeUtil());
@@ -90,6 +89,20 @@ class AwtOsxMenu implements MenuPeer {
         });
     }
 
+    @Override
+    public
+    void batch(final Runnable actions) {
+        // everything in the batch is applied in a single trip to the EDT. Nested calls to the EDT are run immediately.
+        Dispatch.swingAndWait(actions);
+    }
+
+    @Override
+    public
+    boolean notifyAboutToShow(final Menu menu) {
+        // AWT menus are native, and there is no notification for when they are shown
+        return false;
+    }
+
     // is overridden in tray impl
     @SuppressWarnings("DuplicatedCode")
     @Override
@@ -97,11 +110,11 @@ class AwtOsxMenu implements MenuPeer {
     void setImage(final MenuItem menuItem) {
         // lucky for us, macOS AWT menu items CAN show images, but it takes a bit of magic.
         // peerObj will be null for the TrayImpl!
-        File imageFile = menuItem.getImage();
+        ResizedImage resizedImage = menuItem.getResizedImage();
 
-        if (peerObj != null && imageFile != null) {
-            Image image = new ImageIcon(imageFile.getAbsolutePath()).getImage();
-            SwingUtil.INSTANCE.invokeLater(()-> {
+        if (peerObj != null && resizedImage != null) {
+            Image image = resizedImage.getImage();
+            Dispatch.swing(()-> {
                 try {
                     AwtAccessor.setImage(peerObj, image);
                 } catch (Exception e) {
@@ -115,14 +128,14 @@ class AwtOsxMenu implements MenuPeer {
     @Override
     public
     void setEnabled(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setEnabled(menuItem.getEnabled()));
+        Dispatch.swing(()->_native.setEnabled(menuItem.getEnabled()));
     }
 
     // is overridden in tray impl
     @Override
     public
     void setText(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setLabel(menuItem.getText()));
+        Dispatch.swing(()->_native.setLabel(menuItem.getText()));
     }
 
     @Override
@@ -138,7 +151,7 @@ class AwtOsxMenu implements MenuPeer {
         // Will return 0 as the vKey if it's not set (which will remove the shortcut)
         final int vKey = SwingUtil.INSTANCE.getVirtualKey(menuItem.getShortcut());
 
-        SwingUtil.INSTANCE.invokeLater(()->_native.setShortcut(new MenuShortcut(vKey)));
+        Dispatch.swing(()->_native.setShortcut(new MenuShortcut(vKey)));
     }
 
     @SuppressWarnings("DuplicatedCode")
@@ -151,7 +164,7 @@ class AwtOsxMenu implements MenuPeer {
         String tooltipText = menuItem.getTooltip();
 
         if (peerObj != null && tooltipText != null) {
-            SwingUtil.INSTANCE.invokeLater(()-> {
+            Dispatch.swing(()-> {
                 try {
                     AwtAccessor.setToolTipText(peerObj, tooltipText);
                 } catch (Exception e) {
@@ -164,7 +177,7 @@ class AwtOsxMenu implements MenuPeer {
     @Override
     public
     void remove() {
-        SwingUtil.INSTANCE.invokeLater(()->{
+        Dispatch.swing(()->{
             _native.removeAll();
             _native.deleteShortcut();
             _native.setEnabled(false);
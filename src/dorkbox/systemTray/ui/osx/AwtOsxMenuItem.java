@@ -19,14 +19,13 @@ import java.awt.Image;
 import java.awt.MenuShortcut;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.File;
-
-import javax.swing.ImageIcon;
 
 import dorkbox.systemTray.MenuItem;
 import dorkbox.systemTray.SystemTray;
 import dorkbox.systemTray.peer.MenuItemPeer;
 import dorkbox.systemTray.util.AwtAccessor;
+import dorkbox.systemTray.util.Dispatch;
+import dorkbox.systemTray.util.ResizedImage;
 import dorkbox.systemTray.util.EventDispatch;
 import dorkbox.util.SwingUtil;
 
@@ -53,11 +52,11 @@ class AwtOsxMenuItem implements MenuItemPeer {
     public
     void setImage(final MenuItem menuItem) {
         // lucky for us, macOS AWT menu items CAN show images, but it takes a bit of magic.
-        File imageFile = menuItem.getImage();
+        ResizedImage resizedImage = menuItem.getResizedImage();
 
-        if (peerObj != null && imageFile != null) {
-            Image image = new ImageIcon(imageFile.getAbsolutePath()).getImage();
-            SwingUtil.INSTANCE.invokeLater(()-> {
+        if (peerObj != null && resizedImage != null) {
+            Image image = resizedImage.getImage();
+            Dispatch.swing(()-> {
                 try {
                     AwtAccessor.setImage(peerObj, image);
                 } catch (Exception e) {
@@ -70,13 +69,13 @@ class AwtOsxMenuItem implements MenuItemPeer {
     @Override
     public
     void setEnabled(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setEnabled(menuItem.getEnabled()));
+        Dispatch.swing(()->_native.setEnabled(menuItem.getEnabled()));
     }
 
     @Override
     public
     void setText(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setLabel(menuItem.getText()));
+        Dispatch.swing(()->_native.setLabel(menuItem.getText()));
     }
 
     @SuppressWarnings("Duplicates")
@@ -97,7 +96,7 @@ class AwtOsxMenuItem implements MenuItemPeer {
                 public
                 void actionPerformed(ActionEvent e) {
                     // we want it to run on our own with our own action event info (so it is consistent across all platforms)
-                    EventDispatch.runLater(()->{
+                    EventDispatch.runCallback(menuItem.getCallbackExecutor(), ()->{
                         try {
                             cb.actionPerformed(new ActionEvent(menuItem, ActionEvent.ACTION_PERFORMED, ""));
                         } catch (Throwable throwable) {
@@ -117,7 +116,7 @@ class AwtOsxMenuItem implements MenuItemPeer {
         // Will return 0 as the vKey if it's not set (which will remove the shortcut)
         final int vKey = SwingUtil.INSTANCE.getVirtualKey(menuItem.getShortcut());
 
-        SwingUtil.INSTANCE.invokeLater(()->_native.setShortcut(new MenuShortcut(vKey)));
+        Dispatch.swing(()->_native.setShortcut(new MenuShortcut(vKey)));
     }
 
     @SuppressWarnings("DuplicatedCode")
@@ -128,7 +127,7 @@ class AwtOsxMenuItem implements MenuItemPeer {
         String tooltipText = menuItem.getTooltip();
 
         if (peerObj != null && tooltipText != null) {
-            SwingUtil.INSTANCE.invokeLater(()-> {
+            Dispatch.swing(()-> {
                 try {
                     AwtAccessor.setToolTipText(peerObj, tooltipText);
                 } catch (Exception e) {
@@ -142,7 +141,7 @@ class AwtOsxMenuItem implements MenuItemPeer {
     @Override
     public
     void remove() {
-        SwingUtil.INSTANCE.invokeLater(()->{
+        Dispatch.swing(()->{
             _native.deleteShortcut();
             _native.setEnabled(false);
 
@@ -25,6 +25,7 @@ import dorkbox.systemTray.Checkbox;
 import dorkbox.systemTray.SystemTray;
 import dorkbox.systemTray.peer.CheckboxPeer;
 import dorkbox.systemTray.util.AwtAccessor;
+import dorkbox.systemTray.util.Dispatch;
 import dorkbox.systemTray.util.EventDispatch;
 import dorkbox.util.SwingUtil;
 
@@ -50,13 +51,13 @@ class AwtOsxMenuItemCheckbox implements CheckboxPeer {
     @Override
     public
     void setEnabled(final Checkbox menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setEnabled(menuItem.getEnabled()));
+        Dispatch.swing(()->_native.setEnabled(menuItem.getEnabled()));
     }
 
     @Override
     public
     void setText(final Checkbox menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setLabel(menuItem.getText()));
+        Dispatch.swing(()->_native.setLabel(menuItem.getText()));
     }
 
     @SuppressWarnings("Duplicates")
@@ -78,10 +79,10 @@ class AwtOsxMenuItemCheckbox implements CheckboxPeer {
                 public
                 void itemStateChanged(final ItemEvent e) {
                     // this will run on the EDT, since we are calling it from the EDT
-                    menuItem.setChecked(!isChecked);
+                    menuItem.setCheckedByClick(!isChecked);
 
                     // we want it to run on our own with our own action event info (so it is consistent across all platforms)
-                    EventDispatch.runLater(()->{
+                    EventDispatch.runCallback(menuItem.getCallbackExecutor(), ()->{
                         try {
                             cb.actionPerformed(new ActionEvent(menuItem, ActionEvent.ACTION_PERFORMED, ""));
                         } catch (Throwable throwable) {
@@ -101,7 +102,7 @@ class AwtOsxMenuItemCheckbox implements CheckboxPeer {
         // Will return 0 as the vKey if it's not set (which will remove the shortcut)
         final int vKey = SwingUtil.INSTANCE.getVirtualKey(menuItem.getShortcut());
 
-        SwingUtil.INSTANCE.invokeLater(()->_native.setShortcut(new MenuShortcut(vKey)));
+        Dispatch.swing(()->_native.setShortcut(new MenuShortcut(vKey)));
     }
 
     @SuppressWarnings("DuplicatedCode")
@@ -112,7 +113,7 @@ class AwtOsxMenuItemCheckbox implements CheckboxPeer {
         String tooltipText = menuItem.getTooltip();
 
         if (peerObj != null && tooltipText != null) {
-            SwingUtil.INSTANCE.invokeLater(()-> {
+            Dispatch.swing(()-> {
                 try {
                     AwtAccessor.setToolTipText(peerObj, tooltipText);
                 } catch (Exception e) {
@@ -127,11 +128,11 @@ class AwtOsxMenuItemCheckbox implements CheckboxPeer {
     void setChecked(final Checkbox menuItem) {
         boolean checked = menuItem.getChecked();
 
-        // only dispatch if it's actually different
-        if (checked != this.isChecked) {
+        // only dispatch if it's actually different. The native checkbox also changes its state when it is clicked.
+        if (checked != this.isChecked || checked != _native.getState()) {
             this.isChecked = checked;
 
-            SwingUtil.INSTANCE.invokeLater(()->_native.setState(isChecked));
+            Dispatch.swing(()->_native.setState(isChecked));
         }
     }
 
@@ -139,7 +140,7 @@ class AwtOsxMenuItemCheckbox implements CheckboxPeer {
     @Override
     public
     void remove() {
-        SwingUtil.INSTANCE.invokeLater(()->{
+        Dispatch.swing(()->{
             _native.deleteShortcut();
             _native.setEnabled(false);
 
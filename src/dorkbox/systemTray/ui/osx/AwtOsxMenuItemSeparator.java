@@ -17,7 +17,7 @@ package dorkbox.systemTray.ui.osx;
 
 
 import dorkbox.systemTray.peer.EntryPeer;
-import dorkbox.util.SwingUtil;
+import dorkbox.systemTray.util.Dispatch;
 
 class AwtOsxMenuItemSeparator implements EntryPeer {
 
@@ -34,6 +34,6 @@ class AwtOsxMenuItemSeparator implements EntryPeer {
     @Override
     public
     void remove() {
-        SwingUtil.INSTANCE.invokeLater(()->parent._native.remove(_native));
+        Dispatch.swing(()->parent._native.remove(_native));
     }
 }
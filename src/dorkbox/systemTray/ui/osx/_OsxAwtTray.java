@@ -25,7 +25,6 @@ import java.awt.TrayIcon;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Point2D;
-import java.io.File;
 import java.util.concurrent.CountDownLatch;
 
 import javax.swing.ImageIcon;
@@ -34,8 +33,9 @@ import dorkbox.collections.ArrayMap;
 import dorkbox.systemTray.MenuItem;
 import dorkbox.systemTray.Tray;
 import dorkbox.systemTray.util.AwtAccessor;
+import dorkbox.systemTray.util.Dispatch;
 import dorkbox.systemTray.util.ImageResizeUtil;
-import dorkbox.util.SwingUtil;
+import dorkbox.systemTray.util.ResizedImage;
 
 /**
  * The previous, native access we used to create menus NO LONGER works on any OS beyond Big Sur (macOS 11), and now the *best* way
@@ -51,7 +51,7 @@ class _OsxAwtTray extends Tray {
 
     // is the system tray visible or not.
     private volatile boolean visible = false;
-    private volatile File imageFile;
+    private volatile ResizedImage resizedImage;
     private volatile String tooltipText = "";
 
     private volatile CountDownLatch keepAliveLatch = new CountDownLatch(1);
@@ -61,7 +61,7 @@ class _OsxAwtTray extends Tray {
     // constantly created/destroyed -- which over time leads to issues.
     // This cache isn't anything fancy, it just lets us reuse what we have. It's cleared on hide(), and it will auto-grow as necessary.
     // If someone uses a different file every time, then this will cause problems. An error log is added if a different image is created 100x
-    private final ArrayMap<String, Image> imageCache = new ArrayMap<>(false, 10);
+    private final ArrayMap<ResizedImage, Image> imageCache = new ArrayMap<>(false, 10);
 
     @SuppressWarnings("unused")
     public
@@ -88,7 +88,7 @@ class _OsxAwtTray extends Tray {
             @Override
             public
             void setEnabled(final MenuItem menuItem) {
-                SwingUtil.INSTANCE.invokeLater(()->{
+                Dispatch.swing(()->{
                     if (tray == null) {
                         tray = SystemTray.getSystemTray();
                     }
@@ -124,21 +124,24 @@ class _OsxAwtTray extends Tray {
             @Override
             public
             void setImage(final MenuItem menuItem) {
-                imageFile = menuItem.getImage();
+                resizedImage = menuItem.getResizedImage();
 
-                SwingUtil.INSTANCE.invokeLater(()->{
+                Dispatch.swing(()->{
                     if (tray == null) {
                         tray = SystemTray.getSystemTray();
                     }
 
                     final Image trayImage;
-                    if (imageFile != null) {
-                        String path = imageFile.getAbsolutePath();
+                    if (resizedImage != null && resizedImage.isInMemory()) {
+                        // already decoded
+                        trayImage = resizedImage.getImage();
+                    }
+                    else if (resizedImage != null) {
                         synchronized (imageCache) {
-                            Image previousImage = imageCache.get(path);
+                            Image previousImage = imageCache.get(resizedImage);
                             if (previousImage == null) {
-                                previousImage = new ImageIcon(path).getImage();
-                                imageCache.put(path, previousImage);
+                                previousImage = new ImageIcon(resizedImage.getFile().getAbsolutePath()).getImage();
+                                imageCache.put(resizedImage, previousImage);
                                 if (imageCache.getSize() > 120) {
                                     dorkbox.systemTray.SystemTray.logger.error("More than 120 different images used for the SystemTray icon. This will lead to performance issues.");
                                 }
@@ -228,7 +231,7 @@ class _OsxAwtTray extends Tray {
 
                 tooltipText = text;
 
-                SwingUtil.INSTANCE.invokeLater(()->{
+                Dispatch.swing(()->{
                     // don't want to matter which (setImage/setTooltip/setEnabled) is done first, and if the image/enabled is changed, we
                     // want to make sure keep the tooltip text the same as before.
                     if (trayIcon != null) {
@@ -248,7 +251,7 @@ class _OsxAwtTray extends Tray {
                     imageCache.clear();
                 }
 
-                SwingUtil.INSTANCE.invokeAndWaitQuietly(()->{
+                Dispatch.swingAndWait(()->{
                     if (trayIcon != null) {
                         trayIcon.setPopupMenu(null);
                         if (tray != null) {
@@ -278,6 +281,6 @@ class _OsxAwtTray extends Tray {
     @Override
     public
     boolean hasImage() {
-        return imageFile != null;
+        return resizedImage != null;
     }
 }
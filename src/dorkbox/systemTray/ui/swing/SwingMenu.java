@@ -15,12 +15,14 @@
  */
 package dorkbox.systemTray.ui.swing;
 
-import java.io.File;
+import java.awt.Image;
 
 import javax.swing.ImageIcon;
 import javax.swing.JComponent;
 import javax.swing.JMenu;
 import javax.swing.JPopupMenu;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
 
 import dorkbox.systemTray.Checkbox;
 import dorkbox.systemTray.Entry;
@@ -30,6 +32,8 @@ import dorkbox.systemTray.Separator;
 import dorkbox.systemTray.Status;
 import dorkbox.systemTray.SystemTray;
 import dorkbox.systemTray.peer.MenuPeer;
+import dorkbox.systemTray.util.Dispatch;
+import dorkbox.systemTray.util.ResizedImage;
 import dorkbox.util.SwingUtil;
 
 // this is a weird composite class, because it must be a Menu, but ALSO a Entry -- so it has both (and duplicate code)
@@ -39,6 +43,9 @@ class SwingMenu implements MenuPeer {
 
     final JComponent _native;
 
+    // only accessed on the EDT
+    private boolean notifyAboutToShow = false;
+
     // called by the system tray constructors
     // This is NOT a copy constructor!
     @SuppressWarnings("IncompleteCopyConstructor")
@@ -74,13 +81,33 @@ class SwingMenu implements MenuPeer {
     public
     void add(final Menu parentMenu, final Entry entry, final int index) {
         // must always be called on the EDT
-        SwingUtil.INSTANCE.invokeAndWaitQuietly(()->{
+        Dispatch.swingAndWait(()->{
             // don't add this entry if it's already been added via another method. Because of threading via swing/gtk, entries can
             // POSSIBLY get added twice. Once via add() and once via bind().
             if (entry.hasPeer()) {
                 return;
             }
 
+            final VirtualMenuList virtualList = _native instanceof TrayPopup ? ((TrayPopup) _native).getVirtualList() : null;
+            if (virtualList != null && !(entry instanceof Menu)) {
+                // very large menus only keep what is needed to paint each row, instead of a Swing component for every entry
+                VirtualMenuRow row = new VirtualMenuRow(virtualList, entry, index);
+
+                if (entry instanceof Separator) {
+                    ((Separator) entry).bind(row, parentMenu, parentMenu.getImageResizeUtil());
+                }
+                else if (entry instanceof Checkbox) {
+                    ((Checkbox) entry).bind(row, parentMenu, parentMenu.getImageResizeUtil());
+                }
+                else if (entry instanceof Status) {
+                    ((Status) entry).bind(row, parentMenu, parentMenu.getImageResizeUtil());
+                }
+                else if (entry instanceof MenuItem) {
+                    ((MenuItem) entry).bind(row, parentMenu, parentMenu.getImageResizeUtil());
+                }
+                return;
+            }
+
             if (entry instanceof Menu) {
                 SwingMenu swingMenu = new SwingMenu(SwingMenu.this, (Menu) entry, index);
                 ((Menu) entry).bind(swingMenu, parentMenu, parentMenu.getImageResizeUtil());
@@ -105,15 +132,61 @@ class SwingMenu implements MenuPeer {
         });
     }
 
+    @Override
+    public
+    void batch(final Runnable actions) {
+        // everything in the batch is applied in a single trip to the EDT. Nested calls to the EDT are run immediately.
+        Dispatch.swingAndWait(actions);
+    }
+
+    @Override
+    public
+    boolean notifyAboutToShow(final Menu menu) {
+        Dispatch.swing(()->{
+            if (notifyAboutToShow) {
+                return;
+            }
+            notifyAboutToShow = true;
+
+            final JPopupMenu popupMenu;
+            if (_native instanceof JMenu) {
+                popupMenu = ((JMenu) _native).getPopupMenu();
+            }
+            else {
+                popupMenu = (JPopupMenu) _native;
+            }
+
+            popupMenu.addPopupMenuListener(new PopupMenuListener() {
+                @Override
+                public
+                void popupMenuWillBecomeVisible(final PopupMenuEvent e) {
+                    menu.aboutToShow();
+                }
+
+                @Override
+                public
+                void popupMenuWillBecomeInvisible(final PopupMenuEvent e) {
+                }
+
+                @Override
+                public
+                void popupMenuCanceled(final PopupMenuEvent e) {
+                }
+            });
+        });
+
+        return true;
+    }
+
     // is overridden in tray impl
     @Override
     public
     void setImage(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->{
-            File imageFile = menuItem.getImage();
-            if (imageFile != null) {
-                ImageIcon origIcon = new ImageIcon(imageFile.getAbsolutePath());
-                ((JMenu) _native).setIcon(origIcon);
+        Dispatch.swing(()->{
+            ResizedImage resizedImage = menuItem.getResizedImage();
+            Image image = resizedImage != null ? resizedImage.getImage() : null;
+            if (image != null) {
+                ((JMenu) _native).setIcon(new ImageIcon(image));
             }
             else {
                 ((JMenu) _native).setIcon(null);
@@ -125,7 +198,7 @@ class SwingMenu implements MenuPeer {
     @Override
     public
     void setEnabled(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setEnabled(menuItem.getEnabled()));
+        Dispatch.swing(()->_native.setEnabled(menuItem.getEnabled()));
     }
 
 
@@ -133,7 +206,7 @@ class SwingMenu implements MenuPeer {
     @Override
     public
     void setText(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->((JMenu) _native).setText(menuItem.getText()));
+        Dispatch.swing(()->((JMenu) _native).setText(menuItem.getText()));
     }
 
     @Override
@@ -149,7 +222,7 @@ class SwingMenu implements MenuPeer {
         // Will return 0 as the vKey if it's not set (which will remove the shortcut)
         final int vKey = SwingUtil.INSTANCE.getVirtualKey(menuItem.getShortcut());
 
-        SwingUtil.INSTANCE.invokeLater(()->((JMenu) _native).setMnemonic(vKey));
+        Dispatch.swing(()->((JMenu) _native).setMnemonic(vKey));
     }
 
     @Override
@@ -164,7 +237,7 @@ class SwingMenu implements MenuPeer {
     @Override
     public synchronized
     void remove() {
-        SwingUtil.INSTANCE.invokeLater(()->{
+        Dispatch.swing(()->{
             _native.setVisible(false);
             _native.removeAll();
 
@@ -15,9 +15,9 @@
  */
 package dorkbox.systemTray.ui.swing;
 
+import java.awt.Image;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.File;
 
 import javax.swing.ImageIcon;
 import javax.swing.JMenuItem;
@@ -27,8 +27,10 @@ import dorkbox.systemTray.Entry;
 import dorkbox.systemTray.MenuItem;
 import dorkbox.systemTray.SystemTray;
 import dorkbox.systemTray.peer.MenuItemPeer;
+import dorkbox.systemTray.util.Dispatch;
 import dorkbox.systemTray.util.EventDispatch;
 import dorkbox.systemTray.util.ImageResizeUtil;
+import dorkbox.systemTray.util.ResizedImage;
 import dorkbox.util.SwingUtil;
 
 class SwingMenuItem implements MenuItemPeer {
@@ -83,11 +85,11 @@ class SwingMenuItem implements MenuItemPeer {
     @Override
     public
     void setImage(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->{
-            File imageFile = menuItem.getImage();
-            if (imageFile != null) {
-                ImageIcon origIcon = new ImageIcon(imageFile.getAbsolutePath());
-                _native.setIcon(origIcon);
+        Dispatch.swing(()->{
+            ResizedImage resizedImage = menuItem.getResizedImage();
+            Image image = resizedImage != null ? resizedImage.getImage() : null;
+            if (image != null) {
+                _native.setIcon(new ImageIcon(image));
             }
             else {
                 _native.setIcon(transparentIcon);
@@ -98,13 +100,13 @@ class SwingMenuItem implements MenuItemPeer {
     @Override
     public
     void setEnabled(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setEnabled(menuItem.getEnabled()));
+        Dispatch.swing(()->_native.setEnabled(menuItem.getEnabled()));
     }
 
     @Override
     public
     void setText(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setText(menuItem.getText()));
+        Dispatch.swing(()->_native.setText(menuItem.getText()));
     }
 
     @SuppressWarnings("Duplicates")
@@ -125,7 +127,7 @@ class SwingMenuItem implements MenuItemPeer {
                 public
                 void actionPerformed(ActionEvent e) {
                     // we want it to run on our own with our own action event info (so it is consistent across all platforms)
-                    EventDispatch.runLater(()->{
+                    EventDispatch.runCallback(menuItem.getCallbackExecutor(), ()->{
                         try {
                             cb.actionPerformed(new ActionEvent(menuItem, ActionEvent.ACTION_PERFORMED, ""));
                         } catch (Throwable throwable) {
@@ -145,20 +147,20 @@ class SwingMenuItem implements MenuItemPeer {
         // Will return 0 as the vKey if it's not set (which will remove the shortcut)
         final int vKey = SwingUtil.INSTANCE.getVirtualKey(menuItem.getShortcut());
 
-        SwingUtil.INSTANCE.invokeLater(()->_native.setMnemonic(vKey));
+        Dispatch.swing(()->_native.setMnemonic(vKey));
     }
 
     @Override
     public
     void setTooltip(final MenuItem menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setToolTipText(menuItem.getTooltip()));
+        Dispatch.swing(()->_native.setToolTipText(menuItem.getTooltip()));
     }
 
     @Override
     public
     void remove() {
         //noinspection Duplicates
-        SwingUtil.INSTANCE.invokeLater(()->{
+        Dispatch.swing(()->{
             if (callback != null) {
                 _native.removeActionListener(callback);
                 callback = null;
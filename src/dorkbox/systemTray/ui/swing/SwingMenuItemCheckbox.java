@@ -25,6 +25,7 @@ import dorkbox.systemTray.Checkbox;
 import dorkbox.systemTray.Entry;
 import dorkbox.systemTray.SystemTray;
 import dorkbox.systemTray.peer.CheckboxPeer;
+import dorkbox.systemTray.util.Dispatch;
 import dorkbox.systemTray.util.EventDispatch;
 import dorkbox.systemTray.util.HeavyCheckMark;
 import dorkbox.util.FontUtil;
@@ -35,7 +36,7 @@ class SwingMenuItemCheckbox extends SwingMenuItem implements CheckboxPeer {
     // these have to be volatile, because they can be changed from any thread
     private volatile boolean isChecked = false;
 
-    private static ImageIcon checkedIcon;
+    static ImageIcon checkedIcon;
 
     /**
      * This should ONLY be called by _SwingTray!
@@ -78,13 +79,13 @@ class SwingMenuItemCheckbox extends SwingMenuItem implements CheckboxPeer {
     @Override
     public
     void setEnabled(final Checkbox menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setEnabled(menuItem.getEnabled()));
+        Dispatch.swing(()->_native.setEnabled(menuItem.getEnabled()));
     }
 
     @Override
     public
     void setText(final Checkbox menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setText(menuItem.getText()));
+        Dispatch.swing(()->_native.setText(menuItem.getText()));
     }
 
     @SuppressWarnings("Duplicates")
@@ -105,10 +106,10 @@ class SwingMenuItemCheckbox extends SwingMenuItem implements CheckboxPeer {
                 public
                 void actionPerformed(ActionEvent e) {
                     // this will run on the EDT, since we are calling it from the EDT
-                    menuItem.setChecked(!isChecked);
+                    menuItem.setCheckedByClick(!isChecked);
 
                     // we want it to run on our own with our own action event info (so it is consistent across all platforms)
-                    EventDispatch.runLater(()->{
+                    EventDispatch.runCallback(menuItem.getCallbackExecutor(), ()->{
                         try {
                             cb.actionPerformed(new ActionEvent(menuItem, ActionEvent.ACTION_PERFORMED, ""));
                         } catch (Throwable throwable) {
@@ -128,7 +129,7 @@ class SwingMenuItemCheckbox extends SwingMenuItem implements CheckboxPeer {
         // Will return 0 as the vKey if it's not set (which will remove the shortcut)
         final int vKey = SwingUtil.INSTANCE.getVirtualKey(menuItem.getShortcut());
 
-        SwingUtil.INSTANCE.invokeLater(()->_native.setMnemonic(vKey));
+        Dispatch.swing(()->_native.setMnemonic(vKey));
     }
 
     @Override
@@ -140,7 +141,7 @@ class SwingMenuItemCheckbox extends SwingMenuItem implements CheckboxPeer {
         if (checked != this.isChecked) {
             this.isChecked = checked;
 
-            SwingUtil.INSTANCE.invokeLater(()->{
+            Dispatch.swing(()->{
                 if (isChecked) {
                     _native.setIcon(checkedIcon);
                 }
@@ -154,6 +155,6 @@ class SwingMenuItemCheckbox extends SwingMenuItem implements CheckboxPeer {
     @Override
     public
     void setTooltip(final Checkbox menuItem) {
-        SwingUtil.INSTANCE.invokeLater(()->_native.setToolTipText(menuItem.getTooltip()));
+        Dispatch.swing(()->_native.setToolTipText(menuItem.getTooltip()));
     }
 }
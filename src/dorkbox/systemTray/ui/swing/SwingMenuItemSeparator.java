@@ -19,7 +19,7 @@ import javax.swing.JSeparator;
 
 import dorkbox.systemTray.SystemTray;
 import dorkbox.systemTray.peer.EntryPeer;
-import dorkbox.util.SwingUtil;
+import dorkbox.systemTray.util.Dispatch;
 
 class SwingMenuItemSeparator implements EntryPeer {
 
@@ -40,7 +40,7 @@ class SwingMenuItemSeparator implements EntryPeer {
     @Override
     public
     void remove() {
-        SwingUtil.INSTANCE.invokeLater(()->{
+        Dispatch.swing(()->{
             parent._native.remove(_native);
             _native.removeAll();
         });
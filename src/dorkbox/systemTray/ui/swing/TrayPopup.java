@@ -15,6 +15,7 @@
  */
 package dorkbox.systemTray.ui.swing;
 
+import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Frame;
 import java.awt.Image;
@@ -22,17 +23,15 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.Window;
 import java.awt.event.WindowEvent;
-import java.io.File;
-import java.io.IOException;
 
-import javax.imageio.ImageIO;
-import javax.swing.ImageIcon;
+import javax.swing.JComponent;
 import javax.swing.JDialog;
 import javax.swing.JPopupMenu;
 import javax.swing.event.PopupMenuEvent;
 import javax.swing.event.PopupMenuListener;
 
 import dorkbox.systemTray.SystemTray;
+import dorkbox.systemTray.util.ResizedImage;
 import dorkbox.util.ScreenUtil;
 
 /**
@@ -48,7 +47,10 @@ class TrayPopup extends JPopupMenu {
     // for java1.6 on linux (possibly others)
     private final JDialog hiddenDialog;
 
-    private volatile File iconFile;
+    private volatile ResizedImage icon;
+
+    // non-null once this menu has more entries than SystemTray.VIRTUAL_MENU_THRESHOLD. ALWAYS accessed on the EDT
+    private VirtualMenuList virtualList = null;
 
     @SuppressWarnings("unchecked")
     public
@@ -91,24 +93,76 @@ class TrayPopup extends JPopupMenu {
      * Sets the image for the title-bar, so IF it shows in the task-bar, it will have the corresponding image as the SystemTray image
      */
     public
-    void setTitleBarImage(final File imageFile) {
-        if (this.iconFile == null || !this.iconFile.equals(imageFile)) {
-            this.iconFile = imageFile;
+    void setTitleBarImage(final ResizedImage resizedImage) {
+        if (this.icon == null || !this.icon.equals(resizedImage)) {
+            this.icon = resizedImage;
+
+            if (resizedImage != null) {
+                Image image = resizedImage.getImage();
+                if (image == null) {
+                    SystemTray.logger.error("Error setting the title-bar image for the popup menu task tray dialog");
+                    return;
+                }
 
-            try {
-                if (imageFile != null) {
-                    Image image = new ImageIcon(ImageIO.read(imageFile)).getImage();
-                    image.flush();
+                // we set the dialog window to have the same icon as what is on the system tray
+                hiddenDialog.setIconImage(image);
+            }
+        }
+    }
 
-                    // we set the dialog window to have the same icon as what is on the system tray
-                    hiddenDialog.setIconImage(image);
-                }
-            } catch (IOException e) {
-                SystemTray.logger.error("Error setting the title-bar image for the popup menu task tray dialog");
+    /**
+     * @return the scrolling list that shows the entries of this menu, or null if the entries are regular components of this menu
+     */
+    VirtualMenuList getVirtualList() {
+        return virtualList;
+    }
+
+    @Override
+    protected
+    void addImpl(final Component comp, final Object constraints, final int index) {
+        if (virtualList != null && comp != virtualList.scrollPane) {
+            virtualList.add((JComponent) comp, index);
+            return;
+        }
+
+        super.addImpl(comp, constraints, index);
+
+        final int threshold = SystemTray.VIRTUAL_MENU_THRESHOLD;
+        if (virtualList == null && threshold > 0 && getComponentCount() > threshold) {
+            // from now on, the entries are shown in a scrolling list that only paints the rows that are visible
+            final Component[] components = getComponents();
+            super.removeAll();
+
+            virtualList = new VirtualMenuList(this);
+            for (final Component component : components) {
+                virtualList.add((JComponent) component, -1);
             }
+
+            super.addImpl(virtualList.scrollPane, null, -1);
         }
     }
 
+    @Override
+    public
+    void remove(final Component comp) {
+        if (virtualList != null && virtualList.remove(comp)) {
+            return;
+        }
+
+        super.remove(comp);
+    }
+
+    @Override
+    public
+    void removeAll() {
+        if (virtualList != null) {
+            virtualList.removeAll();
+            return;
+        }
+
+        super.removeAll();
+    }
+
     void close() {
         hiddenDialog.setVisible(false);
         hiddenDialog.dispatchEvent(new WindowEvent(hiddenDialog, WindowEvent.WINDOW_CLOSING));
@@ -116,8 +170,12 @@ class TrayPopup extends JPopupMenu {
 
     public
     void doShow(final Point point, int offset) {
-        Dimension size = getPreferredSize();
         Rectangle bounds = ScreenUtil.INSTANCE.getScreenBoundsAt(point);
+        if (virtualList != null) {
+            virtualList.setMaximumHeight(bounds.height * 3 / 4);
+        }
+
+        Dimension size = getPreferredSize();
 
         int x = point.x;
         int y = point.y;
@@ -157,6 +215,11 @@ class TrayPopup extends JPopupMenu {
         setLocation(x, y);
         setVisible(true);
 
-        requestFocusInWindow();
+        if (virtualList != null) {
+            virtualList.requestFocus();
+        }
+        else {
+            requestFocusInWindow();
+        }
     }
 }
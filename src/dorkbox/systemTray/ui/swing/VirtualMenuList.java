@@ -0,0 +1,283 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.ui.swing;
+
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.beans.PropertyChangeListener;
+
+import javax.swing.AbstractAction;
+import javax.swing.DefaultListModel;
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.JMenu;
+import javax.swing.JMenuItem;
+import javax.swing.JPopupMenu;
+import javax.swing.JScrollPane;
+import javax.swing.JSeparator;
+import javax.swing.KeyStroke;
+import javax.swing.ListCellRenderer;
+import javax.swing.ListSelectionModel;
+import javax.swing.MenuSelectionManager;
+import javax.swing.ScrollPaneConstants;
+import javax.swing.SwingConstants;
+
+import dorkbox.systemTray.SystemTray;
+
+/**
+ * A fixed-height scrolling list, used by the {@link TrayPopup} instead of one component per entry when the menu is very large.
+ * <p>
+ * Entries that are added once the list is used are {@link VirtualMenuRow}s, which only keep what is needed to paint the row, so no Swing
+ * component is created for them. Sub-menus (and the entries that were in the popup before the list was used) are the JMenu/JMenuItem/
+ * JSeparator that was added to the popup, and are only kept as the model of the list. Only the rows that are visible are painted, and
+ * every row of the same type is painted by the same (recycled) renderer component.
+ * <p>
+ * ALWAYS accessed on the EDT
+ */
+class VirtualMenuList {
+    private final JPopupMenu popupMenu;
+
+    // either a VirtualMenuRow or a JComponent
+    private final DefaultListModel<Object> entries = new DefaultListModel<>();
+    private final JList<Object> list = new JList<>(entries);
+    final JScrollPane scrollPane = new JScrollPane(list);
+
+    // any change to an entry (text, icon, enabled, etc) has to repaint the list, because the entry is not painted by itself
+    private final PropertyChangeListener repaintListener = (event)->list.repaint();
+
+    // the renderers are recycled for every row
+    private final JMenuItem itemRenderer = new JMenuItem();
+    private final JMenu menuRenderer = new JMenu();
+    private final JSeparator separatorRenderer = new JSeparator(JSeparator.HORIZONTAL);
+
+    private final Font itemFont;
+    private final Font statusFont;
+
+    VirtualMenuList(final JPopupMenu popupMenu) {
+        this.popupMenu = popupMenu;
+
+        if (SystemTray.SWING_UI != null) {
+            itemRenderer.setUI(SystemTray.SWING_UI.getItemUI(itemRenderer, null));
+            menuRenderer.setUI(SystemTray.SWING_UI.getItemUI(menuRenderer, null));
+            separatorRenderer.setUI(SystemTray.SWING_UI.getSeparatorUI(separatorRenderer));
+        }
+        itemRenderer.setHorizontalAlignment(SwingConstants.LEFT);
+        menuRenderer.setHorizontalAlignment(SwingConstants.LEFT);
+
+        itemFont = itemRenderer.getFont();
+        statusFont = itemFont.deriveFont(Font.BOLD);
+
+        list.setCellRenderer(new ListCellRenderer<Object>() {
+            @Override
+            public
+            Component getListCellRendererComponent(final JList<?> list,
+                                                   final Object value,
+                                                   final int index,
+                                                   final boolean isSelected,
+                                                   final boolean cellHasFocus) {
+                if (value instanceof VirtualMenuRow) {
+                    final VirtualMenuRow row = (VirtualMenuRow) value;
+                    if (row.isSeparator) {
+                        return separatorRenderer;
+                    }
+
+                    itemRenderer.setText(row.text);
+                    itemRenderer.setIcon(row.icon);
+                    itemRenderer.setFont(row.isStatus ? statusFont : itemFont);
+                    itemRenderer.setEnabled(row.enabled);
+                    itemRenderer.setToolTipText(row.tooltip);
+                    itemRenderer.getModel().setArmed(isSelected && row.enabled);
+                    itemRenderer.getModel().setSelected(isSelected && row.enabled);
+                    return itemRenderer;
+                }
+
+                if (value instanceof JMenuItem) {
+                    final JMenuItem entry = (JMenuItem) value;
+                    final JMenuItem renderer = entry instanceof JMenu ? menuRenderer : itemRenderer;
+
+                    renderer.setText(entry.getText());
+                    renderer.setIcon(entry.getIcon());
+                    renderer.setFont(entry.getFont());
+                    renderer.setEnabled(entry.isEnabled());
+                    renderer.setToolTipText(entry.getToolTipText());
+                    renderer.getModel().setArmed(isSelected && entry.isEnabled());
+                    renderer.getModel().setSelected(isSelected && entry.isEnabled());
+                    return renderer;
+                }
+
+                return separatorRenderer;
+            }
+        });
+
+        // every row is the same height, so the list never has to measure all of the entries
+        list.setFixedCellHeight(itemRenderer.getPreferredSize().height);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setOpaque(false);
+
+        scrollPane.setBorder(null);
+        scrollPane.setOpaque(false);
+        scrollPane.getViewport().setOpaque(false);
+        scrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+
+        MouseAdapter mouseAdapter = new MouseAdapter() {
+            @Override
+            public
+            void mouseMoved(final MouseEvent e) {
+                final int index = list.locationToIndex(e.getPoint());
+                if (index != -1 && list.getCellBounds(index, index).contains(e.getPoint())) {
+                    list.setSelectedIndex(index);
+                }
+            }
+
+            @Override
+            public
+            void mouseExited(final MouseEvent e) {
+                list.clearSelection();
+            }
+
+            @Override
+            public
+            void mouseReleased(final MouseEvent e) {
+                activate(list.locationToIndex(e.getPoint()));
+            }
+        };
+        list.addMouseListener(mouseAdapter);
+        list.addMouseMotionListener(mouseAdapter);
+
+        list.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "activate");
+        list.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_SPACE, 0), "activate");
+        list.getActionMap().put("activate", new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public
+            void actionPerformed(final ActionEvent e) {
+                activate(list.getSelectedIndex());
+            }
+        });
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * @param entry a {@link VirtualMenuRow}, or a JComponent
+     */
+    void add(final Object entry, final int index) {
+        if (entry instanceof JComponent) {
+            ((JComponent) entry).addPropertyChangeListener(repaintListener);
+        }
+
+        if (index < 0 || index > entries.size()) {
+            entries.addElement(entry);
+        }
+        else {
+            entries.add(index, entry);
+        }
+    }
+
+    /**
+     * @param entry a {@link VirtualMenuRow}, or a JComponent
+     */
+    boolean remove(final Object entry) {
+        if (!entries.removeElement(entry)) {
+            return false;
+        }
+
+        if (entry instanceof JComponent) {
+            ((JComponent) entry).removePropertyChangeListener(repaintListener);
+        }
+        return true;
+    }
+
+    void removeAll() {
+        for (int i = 0, size = entries.size(); i < size; i++) {
+            final Object entry = entries.get(i);
+            if (entry instanceof JComponent) {
+                ((JComponent) entry).removePropertyChangeListener(repaintListener);
+            }
+        }
+
+        entries.clear();
+    }
+
+    /**
+     * A row changed, so the list has to be painted again
+     */
+    void repaint() {
+        list.repaint();
+    }
+
+    /**
+     * Only shows as many rows as will fit (in most of) the screen height
+     */
+    void setMaximumHeight(final int height) {
+        final int rows = Math.max(1, height / list.getFixedCellHeight());
+        list.setVisibleRowCount(Math.min(rows, Math.max(1, entries.size())));
+    }
+
+    void requestFocus() {
+        list.requestFocusInWindow();
+    }
+
+    private
+    void activate(final int index) {
+        if (index < 0 || index >= entries.size()) {
+            return;
+        }
+
+        final Object value = entries.get(index);
+        if (value instanceof VirtualMenuRow) {
+            final VirtualMenuRow row = (VirtualMenuRow) value;
+            if (!row.isClickable()) {
+                return;
+            }
+
+            popupMenu.setVisible(false);
+            MenuSelectionManager.defaultManager().clearSelectedPath();
+            list.clearSelection();
+
+            // this runs the callback of the entry, exactly as if it was clicked in a regular menu
+            row.click();
+            return;
+        }
+
+        if (!(value instanceof JMenuItem) || !((JMenuItem) value).isEnabled()) {
+            return;
+        }
+        final JMenuItem entry = (JMenuItem) value;
+
+        if (entry instanceof JMenu) {
+            // sub-menus are regular popup menus, shown next to the row
+            final Rectangle bounds = list.getCellBounds(index, index);
+            ((JMenu) entry).getPopupMenu().show(list, bounds.x + bounds.width, bounds.y);
+            return;
+        }
+
+        popupMenu.setVisible(false);
+        MenuSelectionManager.defaultManager().clearSelectedPath();
+        list.clearSelection();
+
+        // this fires the action listeners of the entry, exactly as if it was clicked in a regular menu
+        entry.doClick(0);
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.ui.swing;
+
+import java.awt.Image;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+
+import dorkbox.systemTray.Checkbox;
+import dorkbox.systemTray.Entry;
+import dorkbox.systemTray.MenuItem;
+import dorkbox.systemTray.Separator;
+import dorkbox.systemTray.Status;
+import dorkbox.systemTray.SystemTray;
+import dorkbox.systemTray.peer.CheckboxPeer;
+import dorkbox.systemTray.peer.MenuItemPeer;
+import dorkbox.systemTray.peer.SeparatorPeer;
+import dorkbox.systemTray.peer.StatusPeer;
+import dorkbox.systemTray.util.Dispatch;
+import dorkbox.systemTray.util.EventDispatch;
+import dorkbox.systemTray.util.ResizedImage;
+
+/**
+ * The peer of an entry that is a row of a {@link VirtualMenuList}. No Swing component is created for it, it only keeps what is needed
+ * to paint the row (which is done by the recycled renderers of the list).
+ * <p>
+ * Sub-menus are never rows, they are always a JMenu.
+ */
+class VirtualMenuRow implements MenuItemPeer, CheckboxPeer, StatusPeer, SeparatorPeer {
+    private final VirtualMenuList list;
+
+    final boolean isSeparator;
+    final boolean isStatus;
+
+    // ALWAYS accessed on the EDT
+    String text = null;
+    Icon icon = null;
+    boolean enabled = true;
+    String tooltip = null;
+    private boolean isChecked = false;
+    private Runnable click = null;
+
+    // this is ALWAYS called on the EDT.
+    VirtualMenuRow(final VirtualMenuList list, final Entry entry, final int index) {
+        this.list = list;
+        this.isSeparator = entry instanceof Separator;
+        this.isStatus = entry instanceof Status;
+
+        if (isStatus) {
+            // this makes sure it can't be selected
+            enabled = false;
+        }
+        else if (!isSeparator) {
+            icon = SwingMenuItem.transparentIcon;
+        }
+
+        list.add(this, index);
+    }
+
+    /**
+     * @return true if clicking this row does something
+     */
+    boolean isClickable() {
+        return enabled && click != null;
+    }
+
+    /**
+     * Does exactly what clicking the entry in a regular menu does. ALWAYS called on the EDT.
+     */
+    void click() {
+        if (isClickable()) {
+            click.run();
+        }
+    }
+
+    private
+    void update(final Runnable update) {
+        Dispatch.swing(()->{
+            update.run();
+            list.repaint();
+        });
+    }
+
+    @Override
+    public
+    void setImage(final MenuItem menuItem) {
+        update(()->{
+            ResizedImage resizedImage = menuItem.getResizedImage();
+            Image image = resizedImage != null ? resizedImage.getImage() : null;
+            if (image != null) {
+                icon = new ImageIcon(image);
+            }
+            else {
+                icon = SwingMenuItem.transparentIcon;
+            }
+        });
+    }
+
+    @Override
+    public
+    void setEnabled(final MenuItem menuItem) {
+        update(()->enabled = menuItem.getEnabled());
+    }
+
+    @Override
+    public
+    void setText(final MenuItem menuItem) {
+        update(()->text = menuItem.getText());
+    }
+
+    @Override
+    public
+    void setCallback(final MenuItem menuItem) {
+        final ActionListener cb = menuItem.getCallback();  // can be set to null
+
+        update(()->{
+            if (cb == null) {
+                click = null;
+                return;
+            }
+
+            // we want it to run on our own with our own action event info (so it is consistent across all platforms)
+            click = ()->EventDispatch.runCallback(menuItem.getCallbackExecutor(), ()->{
+                try {
+                    cb.actionPerformed(new ActionEvent(menuItem, ActionEvent.ACTION_PERFORMED, ""));
+                } catch (Throwable throwable) {
+                    SystemTray.logger.error("Error calling menu entry {} click event.", menuItem.getText(), throwable);
+                }
+            });
+        });
+    }
+
+    @Override
+    public
+    void setShortcut(final MenuItem menuItem) {
+        // rows are selected with the arrow keys, so there are no mnemonics
+    }
+
+    @Override
+    public
+    void setTooltip(final MenuItem menuItem) {
+        update(()->tooltip = menuItem.getTooltip());
+    }
+
+    @Override
+    public
+    void setEnabled(final Checkbox menuItem) {
+        update(()->enabled = menuItem.getEnabled());
+    }
+
+    @Override
+    public
+    void setText(final Checkbox menuItem) {
+        update(()->text = menuItem.getText());
+    }
+
+    @Override
+    public
+    void setCallback(final Checkbox menuItem) {
+        final ActionListener cb = menuItem.getCallback();  // can be set to null
+
+        update(()->{
+            if (cb == null) {
+                click = null;
+                return;
+            }
+
+            click = ()->{
+                // this will run on the EDT, since we are calling it from the EDT
+                menuItem.setCheckedByClick(!isChecked);
+
+                // we want it to run on our own with our own action event info (so it is consistent across all platforms)
+                EventDispatch.runCallback(menuItem.getCallbackExecutor(), ()->{
+                    try {
+                        cb.actionPerformed(new ActionEvent(menuItem, ActionEvent.ACTION_PERFORMED, ""));
+                    } catch (Throwable throwable) {
+                        SystemTray.logger.error("Error calling menu checkbox entry {} click event.", menuItem.getText(), throwable);
+                    }
+                });
+            };
+        });
+    }
+
+    @Override
+    public
+    void setShortcut(final Checkbox menuItem) {
+        // rows are selected with the arrow keys, so there are no mnemonics
+    }
+
+    @Override
+    public
+    void setTooltip(final Checkbox menuItem) {
+        update(()->tooltip = menuItem.getTooltip());
+    }
+
+    @Override
+    public
+    void setChecked(final Checkbox menuItem) {
+        final boolean checked = menuItem.getChecked();
+
+        update(()->{
+            isChecked = checked;
+            icon = checked ? SwingMenuItemCheckbox.checkedIcon : SwingMenuItem.transparentIcon;
+        });
+    }
+
+    @Override
+    public
+    void setText(final Status menuItem) {
+        update(()->text = menuItem.getText());
+    }
+
+    @Override
+    public
+    void remove() {
+        Dispatch.swing(()->list.remove(this));
+    }
+}
@@ -22,7 +22,6 @@ import java.awt.SystemTray;
 import java.awt.TrayIcon;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.File;
 
 import javax.swing.ImageIcon;
 import javax.swing.JPopupMenu;
@@ -32,9 +31,10 @@ import dorkbox.jna.linux.GtkEventDispatch;
 import dorkbox.os.OS;
 import dorkbox.systemTray.MenuItem;
 import dorkbox.systemTray.Tray;
+import dorkbox.systemTray.util.Dispatch;
 import dorkbox.systemTray.util.ImageResizeUtil;
+import dorkbox.systemTray.util.ResizedImage;
 import dorkbox.systemTray.util.SizeAndScaling;
-import dorkbox.util.SwingUtil;
 
 /**
  * Class for handling all system tray interaction, via Swing.
@@ -52,14 +52,14 @@ class _SwingTray extends Tray {
 
     // is the system tray visible or not.
     private volatile boolean visible = true;
-    private volatile File imageFile;
+    private volatile ResizedImage resizedImage;
     private volatile String tooltipText = "";
 
     // The image resources are cached, so that if someone is trying to create an animation, the image resource is re-used instead of
     // constantly created/destroyed -- which over time leads to issues.
     // This cache isn't anything fancy, it just lets us reuse what we have. It's cleared on hide(), and it will auto-grow as necessary.
     // If someone uses a different file every time, then this will cause problems. An error log is added if a different image is created 100x
-    private final ArrayMap<String, Image> imageCache = new ArrayMap<>(false, 10);
+    private final ArrayMap<ResizedImage, Image> imageCache = new ArrayMap<>(false, 10);
 
     // Called in the EDT
     @SuppressWarnings("unused")
@@ -83,7 +83,7 @@ class _SwingTray extends Tray {
             @Override
             public
             void setEnabled(final MenuItem menuItem) {
-                SwingUtil.INSTANCE.invokeLater(()->{
+                Dispatch.swing(()->{
                     if (tray == null) {
                         tray = SystemTray.getSystemTray();
                     }
@@ -112,21 +112,24 @@ class _SwingTray extends Tray {
             @Override
             public
             void setImage(final MenuItem menuItem) {
-                imageFile = menuItem.getImage();
+                resizedImage = menuItem.getResizedImage();
 
-                SwingUtil.INSTANCE.invokeLater(()->{
+                Dispatch.swing(()->{
                     if (tray == null) {
                         tray = SystemTray.getSystemTray();
                     }
 
                     final Image trayImage;
-                    if (imageFile != null) {
-                        String path = imageFile.getAbsolutePath();
+                    if (resizedImage != null && resizedImage.isInMemory()) {
+                        // already decoded
+                        trayImage = resizedImage.getImage();
+                    }
+                    else if (resizedImage != null) {
                         synchronized (imageCache) {
-                            Image previousImage = imageCache.get(path);
+                            Image previousImage = imageCache.get(resizedImage);
                             if (previousImage == null) {
-                                previousImage = new ImageIcon(path).getImage();
-                                imageCache.put(path, previousImage);
+                                previousImage = new ImageIcon(resizedImage.getFile().getAbsolutePath()).getImage();
+                                imageCache.put(resizedImage, previousImage);
                                 if (imageCache.getSize() > 120) {
                                     dorkbox.systemTray.SystemTray.logger.error("More than 120 different images used for the SystemTray icon. This will lead to performance issues.");
                                 }
@@ -182,8 +185,8 @@ class _SwingTray extends Tray {
                     // want to make sure keep the tooltip text the same as before.
                     trayIcon.setToolTip(tooltipText);
 
-                    if (imageFile != null) {
-                        ((TrayPopup) _native).setTitleBarImage(imageFile);
+                    if (resizedImage != null) {
+                        ((TrayPopup) _native).setTitleBarImage(resizedImage);
                     }
                 });
             }
@@ -212,7 +215,7 @@ class _SwingTray extends Tray {
 
                 tooltipText = text;
 
-                SwingUtil.INSTANCE.invokeLater(()->{
+                Dispatch.swing(()->{
                     // don't want to matter which (setImage/setTooltip/setEnabled) is done first, and if the image/enabled is changed, we
                     // want to make sure keep the tooltip text the same as before.
                     if (trayIcon != null) {
@@ -232,7 +235,7 @@ class _SwingTray extends Tray {
                     imageCache.clear();
                 }
 
-                SwingUtil.INSTANCE.invokeAndWaitQuietly(()->{
+                Dispatch.swingAndWait(()->{
                     if (trayIcon != null) {
                         if (tray != null) {
                             tray.remove(trayIcon);
@@ -260,6 +263,6 @@ class _SwingTray extends Tray {
     @Override
     public
     boolean hasImage() {
-        return imageFile != null;
+        return resizedImage != null;
     }
 }
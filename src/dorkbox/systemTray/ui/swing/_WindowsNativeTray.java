@@ -29,9 +29,7 @@ import static dorkbox.jna.windows.WindowsEventDispatch.WM_SHELLNOTIFY;
 import static dorkbox.jna.windows.WindowsEventDispatch.WM_TASKBARCREATED;
 
 import java.awt.Point;
-import java.io.File;
-
-import javax.swing.ImageIcon;
+import java.awt.image.BufferedImage;
 
 import com.sun.jna.platform.win32.Kernel32Util;
 import com.sun.jna.platform.win32.WinDef.POINT;
@@ -47,11 +45,11 @@ import dorkbox.jna.windows.structs.NOTIFYICONDATA;
 import dorkbox.systemTray.MenuItem;
 import dorkbox.systemTray.SystemTray;
 import dorkbox.systemTray.Tray;
+import dorkbox.systemTray.util.Dispatch;
 import dorkbox.systemTray.util.ImageResizeUtil;
+import dorkbox.systemTray.util.ResizedImage;
 import dorkbox.systemTray.util.SizeAndScaling;
 import dorkbox.systemTray.util.SizeAndScalingWindows;
-import dorkbox.util.ImageUtil;
-import dorkbox.util.SwingUtil;
 
 
 /**
@@ -66,7 +64,7 @@ class _WindowsNativeTray extends Tray {
     private volatile TrayPopup popupMenu;
     // is the system tray visible or not.
     private volatile boolean visible = false;
-    private volatile File imageFile;
+    private volatile ResizedImage resizedImage;
     private volatile String tooltipText = "";
 
     private final WindowsEventDispatch edt;
@@ -75,7 +73,7 @@ class _WindowsNativeTray extends Tray {
     // constantly created/destroyed -- which over time leads to issues.
     // This cache isn't anything fancy, it just lets us reuse what we have. It's cleared on hide(), and it will auto-grow as necessary.
     // If someone uses a different file every time, then this will cause problems. An error log is added if a different image is created 100x
-    private final ArrayMap<File, HICONWrap> imageCache = new ArrayMap<>(false, 10);
+    private final ArrayMap<ResizedImage, HICONWrap> imageCache = new ArrayMap<>(false, 10);
 
     @SuppressWarnings("unused")
     public
@@ -94,13 +92,13 @@ class _WindowsNativeTray extends Tray {
             @Override
             public
             void setImage(final MenuItem menuItem) {
-                imageFile = menuItem.getImage();
+                resizedImage = menuItem.getResizedImage();
 
                 NOTIFYICONDATA nid = new NOTIFYICONDATA();
                 nid.hWnd = edt.get();
 
-                if (imageFile != null) {
-                    HICONWrap imageIcon = convertImage(imageFile);
+                if (resizedImage != null) {
+                    HICONWrap imageIcon = convertImage(resizedImage);
                     nid.setIcon(imageIcon);
                 }
 
@@ -112,7 +110,7 @@ class _WindowsNativeTray extends Tray {
                 // want to make sure keep the tooltip text the same as before.
                 setTooltip_(tooltipText);
 
-                SwingUtil.INSTANCE.invokeLater(()->{
+                Dispatch.swing(()->{
                     if (popupMenu == null) {
                         TrayPopup popupMenu = (TrayPopup) _native;
                         popupMenu.pack();
@@ -120,7 +118,7 @@ class _WindowsNativeTray extends Tray {
                         _WindowsNativeTray.this.popupMenu = popupMenu;
                     }
 
-                    popupMenu.setTitleBarImage(imageFile);
+                    popupMenu.setTitleBarImage(resizedImage);
                 });
             }
 
@@ -277,8 +275,8 @@ class _WindowsNativeTray extends Tray {
         NOTIFYICONDATA nid = new NOTIFYICONDATA();
         nid.hWnd = edt.get();
         nid.setTooltip(tooltipText);
-        if (imageFile != null) {
-            HICONWrap imageIcon = convertImage(imageFile);
+        if (resizedImage != null) {
+            HICONWrap imageIcon = convertImage(resizedImage);
             if (imageIcon != null) {
                 nid.setIcon(imageIcon);
             }
@@ -292,24 +290,23 @@ class _WindowsNativeTray extends Tray {
     }
 
     private
-    HICONWrap convertImage(final File imageFile) {
+    HICONWrap convertImage(final ResizedImage resizedImage) {
         synchronized (imageCache) {
-            HICONWrap hiconWrap = imageCache.get(imageFile);
+            HICONWrap hiconWrap = imageCache.get(resizedImage);
             if (hiconWrap == null) {
-                ImageIcon imageIcon = new ImageIcon(imageFile.getAbsolutePath());
-                // fully loads the image and returns when it's done loading the image
-                imageIcon = new ImageIcon(imageIcon.getImage());
+                // this is already decoded if the image is in memory
+                final BufferedImage image = resizedImage.getImage();
 
                 // for some reason, it's not possible to properly load the image.
-                if (imageIcon.getIconHeight() <= 0 || imageIcon.getIconWidth() <= 0) {
-                    SystemTray.logger.error("Error loading image for the system tray. {}", imageFile);
+                if (image == null || image.getHeight() <= 0 || image.getWidth() <= 0) {
+                    SystemTray.logger.error("Error loading image for the system tray. {}", resizedImage);
                     return null;
                 }
 
-                HBITMAPWrap hbitmapTrayIcon = new HBITMAPWrap(ImageUtil.getBufferedImage(imageIcon));
+                HBITMAPWrap hbitmapTrayIcon = new HBITMAPWrap(image);
                 hiconWrap = new HICONWrap(hbitmapTrayIcon);
 
-                imageCache.put(imageFile, hiconWrap);
+                imageCache.put(resizedImage, hiconWrap);
 
                 if (imageCache.getSize() > 120) {
                     SystemTray.logger.error("More than 120 different images used for the SystemTray icon. This will lead to performance issues.");
@@ -323,6 +320,6 @@ class _WindowsNativeTray extends Tray {
     @Override
     public
     boolean hasImage() {
-        return imageFile != null;
+        return resizedImage != null;
     }
 }
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.imageio.ImageIO;
+
+import dorkbox.systemTray.BadgeStyle;
+import dorkbox.systemTray.SystemTray;
+import dorkbox.util.CacheUtil;
+
+/**
+ * Draws badges (for example, an unread count) over an already resized tray image, in memory.
+ * <p>
+ * The tray image is only read once (not for every badge), and the most recently used badges are remembered. The native tray icons
+ * need a file, so a badge image is written to one of a fixed number of files (also when the image is in memory, and is only written
+ * when a file is needed), which are re-used when older badges are forgotten. The cache does not grow with every different badge.
+ * <p>
+ * The file of the badge that is shown is never deleted or re-used while it is shown, because the native tray icon can read it again
+ * at any time (for example, when the theme changes).
+ */
+public
+class BadgeCompositor {
+    // how many badge images are remembered
+    private static final int MAX_BADGES = 32;
+
+    private final CacheUtil cache;
+
+    // access must be synchronized on 'this'
+    private ResizedImage base = null;
+
+    // the badge that is shown right now, and (if it was forgotten while being shown) the badge that keeps its file until it is replaced
+    private ResizedImage shown = null;
+    private Badge retired = null;
+
+    // the names of the files that are not used by a remembered badge
+    private final ArrayDeque<String> freeNames = new ArrayDeque<>();
+
+    private final LinkedHashMap<Key, Badge> badges = new LinkedHashMap<Key, Badge>(16, 0.75F, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected
+        boolean removeEldestEntry(final Map.Entry<Key, Badge> eldest) {
+            if (size() > MAX_BADGES) {
+                forget(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public
+    BadgeCompositor(final CacheUtil cache) {
+        this.cache = cache;
+
+        // one more than we remember (so the file of a badge is never overwritten while the badge is being shown), and one more for the
+        // badge that is shown after the badges of a different tray image were forgotten
+        for (int i = 0; i < MAX_BADGES + 2; i++) {
+            freeNames.add("badge_" + i + ".png");
+        }
+    }
+
+    /**
+     * @param base the tray image (already resized for the tray) to draw the badge over
+     * @param badge the text of the badge
+     * @param style how the badge is drawn
+     *
+     * @return the tray image with the badge drawn over it
+     */
+    public synchronized
+    ResizedImage compose(final ResizedImage base, final String badge, final BadgeStyle style) throws IOException {
+        final Key key = new Key(base, badge, style);
+
+        final Badge existing = badges.get(key);
+        if (existing != null && (existing.image.isInMemory() || existing.file.canRead())) {
+            return existing.image;
+        }
+
+        if (!base.equals(this.base)) {
+            this.base = base;
+
+            // the badges of the previous tray image will not be used again
+            final Iterator<Badge> iterator = badges.values().iterator();
+            while (iterator.hasNext()) {
+                forget(iterator.next());
+                iterator.remove();
+            }
+        }
+
+        // when a badge file was deleted by someone else, it is just drawn again
+        if (existing != null) {
+            forget(badges.remove(key));
+        }
+
+        // this is only read from disk once for every tray image (and not at all if the tray image is in memory)
+        final BufferedImage baseImage = base.getImage();
+        if (baseImage == null) {
+            throw new IOException("Unable to read the tray image " + base);
+        }
+
+        final BufferedImage image = draw(baseImage, badge, style);
+
+        final String name = freeNames.removeFirst();
+        final File file = cache.create(name);
+
+        final ResizedImage badgeImage;
+        try {
+            if (SystemTray.IN_MEMORY_IMAGES) {
+                // an older badge might still be in the file, and it must not be re-used when this badge is written to it
+                Files.deleteIfExists(file.toPath());
+                badgeImage = ResizedImage.of(image, cache, name);
+            }
+            else {
+                ImageIO.write(image, "png", file);
+                badgeImage = ResizedImage.of(file);
+            }
+        } catch (IOException e) {
+            delete(file);
+            throw e;
+        }
+
+        badges.put(key, new Badge(badgeImage, file));
+        return badgeImage;
+    }
+
+    /**
+     * Called (with the tray image lock held) when a badge is shown by the tray icon, or when the badge is removed.
+     *
+     * @param badgeImage the badge that is shown, or null if there is no badge
+     */
+    public synchronized
+    void shown(final ResizedImage badgeImage) {
+        this.shown = badgeImage;
+
+        if (retired != null && retired.image != badgeImage) {
+            // the forgotten badge is no longer shown, so its file can be re-used
+            delete(retired.file);
+            retired = null;
+        }
+    }
+
+    private
+    void forget(final Badge badge) {
+        if (badge.image == shown) {
+            // the native tray icon can still read the file, so it is deleted once a different badge is shown
+            retired = badge;
+            return;
+        }
+
+        delete(badge.file);
+    }
+
+    private
+    void delete(final File file) {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+        freeNames.add(file.getName());
+    }
+
+    private static
+    BufferedImage draw(final BufferedImage base, final String badge, final BadgeStyle style) {
+        final int width = base.getWidth();
+        final int height = base.getHeight();
+
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g2d = image.createGraphics();
+
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+
+        g2d.drawImage(base, 0, 0, null);
+
+        // the badge is a circle, or a pill when the text is too wide for a circle
+        final int badgeHeight = Math.max(1, Math.round(Math.min(width, height) * style.getSize()));
+        g2d.setFont(new Font(Font.SANS_SERIF, Font.BOLD, Math.max(1, Math.round(badgeHeight * 0.75F))));
+
+        final FontMetrics metrics = g2d.getFontMetrics();
+        final int textWidth = metrics.stringWidth(badge);
+        final int badgeWidth = Math.min(width, Math.max(badgeHeight, textWidth + badgeHeight / 2));
+
+        final int x;
+        final int y;
+        switch (style.getPosition()) {
+            case TOP_LEFT:
+                x = 0;
+                y = 0;
+                break;
+            case BOTTOM_LEFT:
+                x = 0;
+                y = height - badgeHeight;
+                break;
+            case BOTTOM_RIGHT:
+                x = width - badgeWidth;
+                y = height - badgeHeight;
+                break;
+            case TOP_RIGHT:
+            default:
+                x = width - badgeWidth;
+                y = 0;
+                break;
+        }
+
+        g2d.setColor(style.getBackground());
+        g2d.fillRoundRect(x, y, badgeWidth, badgeHeight, badgeHeight, badgeHeight);
+
+        g2d.setColor(style.getForeground());
+        g2d.drawString(badge, x + (badgeWidth - textWidth) / 2, y + (badgeHeight - metrics.getHeight()) / 2 + metrics.getAscent());
+
+        g2d.dispose();
+        return image;
+    }
+
+    private static final
+    class Badge {
+        private final ResizedImage image;
+        private final File file;
+
+        Badge(final ResizedImage image, final File file) {
+            this.image = image;
+            this.file = file;
+        }
+    }
+
+    private static final
+    class Key {
+        private final ResizedImage base;
+        private final String badge;
+        private final BadgeStyle style;
+
+        Key(final ResizedImage base, final String badge, final BadgeStyle style) {
+            this.base = base;
+            this.badge = badge;
+            this.style = style;
+        }
+
+        @Override
+        public
+        boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key key = (Key) o;
+            return base.equals(key.base) && badge.equals(key.badge) && style.equals(key.style);
+        }
+
+        @Override
+        public
+        int hashCode() {
+            return Objects.hash(base, badge, style);
+        }
+    }
+}
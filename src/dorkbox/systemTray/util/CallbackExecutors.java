@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import dorkbox.jna.rendering.RenderProvider;
+import dorkbox.systemTray.SystemTray;
+import dorkbox.util.NamedThreadFactory;
+import dorkbox.util.SwingUtil;
+
+/**
+ * Executors that can be used to run menu entry callbacks, either for all entries via {@link SystemTray#setCallbackExecutor(Executor)}
+ * or for a single entry via {@code setCallbackExecutor(Executor)} on that entry.
+ */
+public final
+class CallbackExecutors {
+    private static ExecutorService virtualThreads = null;  // access must be synchronized on CallbackExecutors.class
+
+    /**
+     * Runs every callback on its own virtual thread (Java 21+), so that callbacks which block (for example, network calls) do not hold
+     * up each other. On older versions of Java, this runs callbacks on a pool of daemon threads instead.
+     */
+    public static synchronized
+    Executor virtualThreads() {
+        if (virtualThreads == null) {
+            try {
+                // this is looked up at runtime, so that we can still be compiled and run with older versions of Java
+                Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                virtualThreads = (ExecutorService) method.invoke(null);
+            } catch (Exception e) {
+                SystemTray.logger.debug("Virtual threads are not available, using a thread pool for callbacks instead.");
+
+                virtualThreads = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                                                        new NamedThreadFactory("SystemTrayCallbacks", Thread.currentThread().getThreadGroup(),
+                                                                               Thread.NORM_PRIORITY, true));
+            }
+        }
+
+        return virtualThreads;
+    }
+
+    /**
+     * Runs callbacks directly on the thread of the host toolkit: the JavaFX or SWT thread if either one is used by the application,
+     * otherwise the AWT event dispatch thread. This skips a thread hop when the callback is going to update the UI of the
+     * application anyways. Callbacks must be quick, since they block the UI of the application while they run.
+     */
+    public static
+    Executor hostToolkit() {
+        if (RenderProvider.isJavaFX() || RenderProvider.isSwt()) {
+            return RenderProvider::dispatch;
+        }
+
+        return SwingUtil.INSTANCE::invokeLater;
+    }
+
+    private
+    CallbackExecutors() {
+    }
+}
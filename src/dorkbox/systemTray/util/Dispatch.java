@@ -0,0 +1,71 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import dorkbox.jna.linux.GtkEventDispatch;
+import dorkbox.util.SwingUtil;
+
+/**
+ * Dispatches to the GTK and Swing/AWT event dispatch threads, and records how long the tasks waited and ran for (see
+ * {@link DispatchStats}).
+ */
+public final
+class Dispatch {
+    /**
+     * Runs the task on the GTK event dispatch thread, see {@link GtkEventDispatch#dispatch(Runnable)}
+     */
+    public static
+    void gtk(final Runnable runnable) {
+        final long queuedAt = System.nanoTime();
+        final Throwable queuedFrom = DispatchLane.GTK.queued();
+        GtkEventDispatch.dispatch(()->DispatchLane.GTK.run(runnable, queuedAt, queuedFrom));
+    }
+
+    /**
+     * Runs the task on the GTK event dispatch thread and waits for it to finish, see {@link GtkEventDispatch#dispatchAndWait(Runnable)}
+     */
+    public static
+    void gtkAndWait(final Runnable runnable) {
+        final long queuedAt = System.nanoTime();
+        final Throwable queuedFrom = DispatchLane.GTK.queued();
+        GtkEventDispatch.dispatchAndWait(()->DispatchLane.GTK.run(runnable, queuedAt, queuedFrom));
+    }
+
+    /**
+     * Runs the task on the Swing/AWT event dispatch thread, see {@link SwingUtil#invokeLater(Runnable)}
+     */
+    public static
+    void swing(final Runnable runnable) {
+        final long queuedAt = System.nanoTime();
+        final Throwable queuedFrom = DispatchLane.SWING.queued();
+        SwingUtil.INSTANCE.invokeLater(()->DispatchLane.SWING.run(runnable, queuedAt, queuedFrom));
+    }
+
+    /**
+     * Runs the task on the Swing/AWT event dispatch thread and waits for it to finish, see
+     * {@link SwingUtil#invokeAndWaitQuietly(Runnable)}
+     */
+    public static
+    void swingAndWait(final Runnable runnable) {
+        final long queuedAt = System.nanoTime();
+        final Throwable queuedFrom = DispatchLane.SWING.queued();
+        SwingUtil.INSTANCE.invokeAndWaitQuietly(()->DispatchLane.SWING.run(runnable, queuedAt, queuedFrom));
+    }
+
+    private
+    Dispatch() {
+    }
+}
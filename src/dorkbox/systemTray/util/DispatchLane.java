@@ -0,0 +1,152 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import dorkbox.systemTray.SystemTray;
+
+/**
+ * Records how long tasks wait before they run, and how long they run for, on one of the threads that the SystemTray dispatches to.
+ */
+final
+class DispatchLane {
+    static final DispatchLane EVENTS = new DispatchLane("EventDispatch");
+    static final DispatchLane CALLBACKS = new DispatchLane("Callbacks");
+    static final DispatchLane GTK = new DispatchLane("Gtk");
+    static final DispatchLane SWING = new DispatchLane("Swing");
+
+    // the upper limits (in nanoseconds) of the histogram buckets. The last bucket has no upper limit.
+    static final long[] BUCKET_LIMITS = new long[] {TimeUnit.MICROSECONDS.toNanos(10), TimeUnit.MICROSECONDS.toNanos(100),
+                                                    TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(10),
+                                                    TimeUnit.MILLISECONDS.toNanos(100), TimeUnit.SECONDS.toNanos(1)};
+
+    // how many slow tasks are kept
+    private static final int MAX_SLOW_TASKS = 32;
+
+    final String name;
+
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final LongAdder tasks = new LongAdder();
+    private final LongAdder totalWait = new LongAdder();
+    private final LongAdder totalRun = new LongAdder();
+    private final AtomicLongArray waitHistogram = new AtomicLongArray(BUCKET_LIMITS.length + 1);
+    private final AtomicLongArray runHistogram = new AtomicLongArray(BUCKET_LIMITS.length + 1);
+
+    private final ArrayDeque<DispatchStats.SlowTask> slowTasks = new ArrayDeque<>(MAX_SLOW_TASKS);  // access must be synchronized
+
+    private
+    DispatchLane(final String name) {
+        this.name = name;
+    }
+
+    private static
+    int bucket(final long nanos) {
+        for (int i = 0; i < BUCKET_LIMITS.length; i++) {
+            if (nanos <= BUCKET_LIMITS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_LIMITS.length;
+    }
+
+    /**
+     * Called when a task is queued.
+     *
+     * @return where the task was queued from, if slow tasks are detected (see {@link SystemTray#SLOW_DISPATCH_THRESHOLD}), otherwise null
+     */
+    Throwable queued() {
+        final int current = depth.incrementAndGet();
+
+        int max = maxDepth.get();
+        while (current > max && !maxDepth.compareAndSet(max, current)) {
+            max = maxDepth.get();
+        }
+
+        if (SystemTray.SLOW_DISPATCH_THRESHOLD > 0) {
+            return new Throwable("Queued from");
+        }
+        return null;
+    }
+
+    /**
+     * Called when a queued task was not accepted, and will never run.
+     */
+    void rejected() {
+        depth.decrementAndGet();
+    }
+
+    /**
+     * Runs a task that was queued at 'queuedAt' (from {@link System#nanoTime()}), and records how long it waited and ran for.
+     */
+    void run(final Runnable runnable, final long queuedAt, final Throwable queuedFrom) {
+        final long start = System.nanoTime();
+        depth.decrementAndGet();
+
+        try {
+            runnable.run();
+        } finally {
+            final long end = System.nanoTime();
+            final long wait = start - queuedAt;
+            final long run = end - start;
+
+            tasks.increment();
+            totalWait.add(wait);
+            totalRun.add(run);
+            waitHistogram.incrementAndGet(bucket(wait));
+            runHistogram.incrementAndGet(bucket(run));
+
+            final int threshold = SystemTray.SLOW_DISPATCH_THRESHOLD;
+            if (threshold > 0 && run >= TimeUnit.MILLISECONDS.toNanos(threshold)) {
+                final StackTraceElement[] site = queuedFrom != null ? queuedFrom.getStackTrace() : new StackTraceElement[0];
+                final DispatchStats.SlowTask slowTask = new DispatchStats.SlowTask(name, System.currentTimeMillis(), wait, run, site);
+
+                synchronized (slowTasks) {
+                    if (slowTasks.size() == MAX_SLOW_TASKS) {
+                        slowTasks.removeFirst();
+                    }
+                    slowTasks.addLast(slowTask);
+                }
+
+                SystemTray.logger.warn("Slow {} task, it ran for {} ms.", name, TimeUnit.NANOSECONDS.toMillis(run), queuedFrom);
+            }
+        }
+    }
+
+    DispatchStats.Lane snapshot() {
+        final long[] waits = new long[waitHistogram.length()];
+        final long[] runs = new long[runHistogram.length()];
+        for (int i = 0; i < waits.length; i++) {
+            waits[i] = waitHistogram.get(i);
+            runs[i] = runHistogram.get(i);
+        }
+
+        final List<DispatchStats.SlowTask> slow;
+        synchronized (slowTasks) {
+            slow = new ArrayList<>(slowTasks);
+        }
+
+        return new DispatchStats.Lane(name, tasks.sum(), Math.max(0, depth.get()), maxDepth.get(), totalWait.sum(), totalRun.sum(),
+                                      waits, runs, slow);
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import dorkbox.systemTray.SystemTray;
+import dorkbox.util.NamedThreadFactory;
+
+/**
+ * A single consumer thread that runs tasks (from any number of threads) in the order they were added.
+ * <p>
+ * Tasks are stored in a ring buffer of preallocated slots, so adding a task does not take a lock or allocate. If the ring buffer is
+ * full, tasks are added to an overflow queue instead (keeping their order) so that adding a task never blocks, even when it is added
+ * by the consumer thread itself.
+ */
+public final
+class DispatchQueue {
+    /**
+     * How the dispatch thread waits for new tasks
+     */
+    public enum WaitStrategy {
+        /** Sleeps until a task is added. Uses no CPU when idle, but waking up takes longer. */
+        Park,
+        /** Yields the CPU to other threads while waiting. Wakes up quickly, but uses some CPU when idle. */
+        Yield,
+        /** Busy-spins while waiting. Wakes up the fastest, but uses an entire CPU core when idle. */
+        Spin;
+
+        public static
+        WaitStrategy fromString(final String name) {
+            try {
+                return valueOf(name);
+            } catch (Exception e) {
+                return Park;
+            }
+        }
+    }
+
+    // how many times the "park" strategy spins before going to sleep
+    private static final int PARK_SPINS = 128;
+
+    private static final
+    class Overflow {
+        // all tasks in the ring buffer with a lower sequence number were added before this one
+        private final long mark;
+        private final Runnable runnable;
+        private final long queuedAt;
+        private final Throwable queuedFrom;
+
+        private
+        Overflow(final long mark, final Runnable runnable, final long queuedAt, final Throwable queuedFrom) {
+            this.mark = mark;
+            this.runnable = runnable;
+            this.queuedAt = queuedAt;
+            this.queuedFrom = queuedFrom;
+        }
+    }
+
+    private final int mask;
+    private final Runnable[] slots;
+    private final long[] queuedAt;
+    private final Throwable[] queuedFrom;
+    // the sequence of a slot is the position it can be written at when it is free, and 'position + 1' once the task can be read
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0;  // only accessed by the dispatch thread
+
+    // the task info of the last poll(). Only accessed by the dispatch thread
+    private long polledAt = 0;
+    private Throwable polledFrom = null;
+
+    private final ConcurrentLinkedQueue<Overflow> overflow = new ConcurrentLinkedQueue<>();
+
+    private final DispatchLane lane;
+    private final WaitStrategy waitStrategy;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile boolean sleeping = false;
+    // tasks that are being added right now. We can only stop once none are in progress, otherwise a task might be lost
+    private final AtomicInteger producers = new AtomicInteger();
+
+    /**
+     * Creates (and starts) a new dispatch thread
+     *
+     * @param capacity the number of slots in the ring buffer, rounded up to a power of 2
+     */
+    DispatchQueue(final String name, final int threadPriority, final int capacity, final WaitStrategy waitStrategy, final DispatchLane lane) {
+        int size = Integer.highestOneBit(Math.max(2, Math.min(capacity, 1 << 20)) - 1) << 1;
+
+        this.mask = size - 1;
+        this.slots = new Runnable[size];
+        this.queuedAt = new long[size];
+        this.queuedFrom = new Throwable[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+
+        this.waitStrategy = waitStrategy;
+        this.lane = lane;
+
+        thread = new NamedThreadFactory(name, Thread.currentThread().getThreadGroup(), threadPriority, true).newThread(this::run);
+        thread.start();
+    }
+
+    /**
+     * @return true if the current thread is the dispatch thread
+     */
+    boolean isDispatchThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Adds a task to the end of the queue.
+     *
+     * @return false if this dispatch has been stopped, and the task was not added
+     */
+    boolean execute(final Runnable runnable) {
+        producers.getAndIncrement();
+        try {
+            if (!running) {
+                return false;
+            }
+
+            final long now = System.nanoTime();
+            final Throwable from = lane.queued();
+
+            while (true) {
+                final long t = tail.get();
+                final int index = (int) (t & mask);
+                final long sequence = sequences.get(index);
+
+                if (sequence == t) {
+                    if (tail.compareAndSet(t, t + 1)) {
+                        slots[index] = runnable;
+                        queuedAt[index] = now;
+                        queuedFrom[index] = from;
+                        sequences.set(index, t + 1);
+                        break;
+                    }
+                }
+                else if (sequence < t) {
+                    // the ring buffer is full. Everything that has been added so far has a lower sequence number than the tail.
+                    overflow.offer(new Overflow(t, runnable, now, from));
+                    break;
+                }
+                // otherwise another thread added a task at the same time, so try again.
+            }
+        } finally {
+            producers.getAndDecrement();
+        }
+
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    /**
+     * Stops the dispatch thread once the current task has finished. This must be called on the dispatch thread.
+     *
+     * @return the tasks that have not run yet, in order. Their wait and run times are still recorded when they are run.
+     */
+    List<Runnable> shutdownNow() {
+        if (!isDispatchThread()) {
+            throw new IllegalStateException("The event dispatch can only be stopped from the event dispatch thread.");
+        }
+
+        running = false;
+
+        // wait for tasks that are being added to finish being added
+        while (producers.get() != 0) {
+            Thread.yield();
+        }
+
+        final List<Runnable> runnables = new ArrayList<>();
+        Runnable runnable;
+        while ((runnable = poll()) != null) {
+            final Runnable task = runnable;
+            final long at = polledAt;
+            final Throwable from = polledFrom;
+            runnables.add(()->lane.run(task, at, from));
+        }
+        return runnables;
+    }
+
+    /**
+     * @return the next task, or null if there are none. Only called by the dispatch thread.
+     */
+    private
+    Runnable poll() {
+        final int index = (int) (head & mask);
+        final long sequence = sequences.get(index);
+
+        // tasks in the overflow queue go before tasks that were added (to the ring buffer) after them
+        final Overflow next = overflow.peek();
+        if (next != null && next.mark <= head) {
+            overflow.poll();
+            polledAt = next.queuedAt;
+            polledFrom = next.queuedFrom;
+            return next.runnable;
+        }
+
+        if (sequence == head + 1) {
+            final Runnable runnable = slots[index];
+            polledAt = queuedAt[index];
+            polledFrom = queuedFrom[index];
+            slots[index] = null;
+            queuedFrom[index] = null;
+            sequences.set(index, head + slots.length);
+            head++;
+            return runnable;
+        }
+
+        return null;
+    }
+
+    private
+    boolean isStopped() {
+        return !running && producers.get() == 0 && head == tail.get() && overflow.isEmpty();
+    }
+
+    private
+    void run() {
+        int idle = 0;
+
+        while (true) {
+            final Runnable runnable = poll();
+            if (runnable != null) {
+                idle = 0;
+
+                try {
+                    lane.run(runnable, polledAt, polledFrom);
+                } catch (Throwable t) {
+                    SystemTray.logger.error("Error running event dispatch task", t);
+                }
+                continue;
+            }
+
+            if (isStopped()) {
+                return;
+            }
+
+            switch (waitStrategy) {
+                case Spin:
+                    break;
+                case Yield:
+                    Thread.yield();
+                    break;
+                default:
+                    if (idle < PARK_SPINS) {
+                        idle++;
+                        break;
+                    }
+
+                    sleeping = true;
+                    // check again, so a task that was added before 'sleeping' was set does not wait for the next task to wake us up
+                    if (head == tail.get() && overflow.isEmpty()) {
+                        LockSupport.park(this);
+                    }
+                    sleeping = false;
+            }
+        }
+    }
+}
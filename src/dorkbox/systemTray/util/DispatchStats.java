@@ -0,0 +1,261 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A snapshot of how busy the threads are that the SystemTray dispatches work to: the SystemTray event dispatch (menu changes), the
+ * menu entry callbacks, the GTK event dispatch, and the Swing/AWT event dispatch.
+ * <p>
+ * Times are in nanoseconds, and histograms count tasks per bucket (see {@link #getBucketLimits()}).
+ */
+public final
+class DispatchStats {
+    /**
+     * Statistics for one of the dispatch threads
+     */
+    public static final
+    class Lane {
+        private final String name;
+        private final long tasks;
+        private final int queueDepth;
+        private final int maxQueueDepth;
+        private final long totalWaitTime;
+        private final long totalRunTime;
+        private final long[] waitHistogram;
+        private final long[] runHistogram;
+        private final List<SlowTask> slowTasks;
+
+        Lane(final String name, final long tasks, final int queueDepth, final int maxQueueDepth, final long totalWaitTime,
+             final long totalRunTime, final long[] waitHistogram, final long[] runHistogram, final List<SlowTask> slowTasks) {
+            this.name = name;
+            this.tasks = tasks;
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.totalWaitTime = totalWaitTime;
+            this.totalRunTime = totalRunTime;
+            this.waitHistogram = waitHistogram;
+            this.runHistogram = runHistogram;
+            this.slowTasks = Collections.unmodifiableList(slowTasks);
+        }
+
+        public
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return how many tasks have finished running
+         */
+        public
+        long getTasks() {
+            return tasks;
+        }
+
+        /**
+         * @return how many tasks are waiting to run (or are running) right now
+         */
+        public
+        int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * @return the most tasks that were waiting to run (or running) at the same time
+         */
+        public
+        int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        /**
+         * @return the average time (in nanoseconds) between a task being queued and it starting to run
+         */
+        public
+        long getAverageWaitTime() {
+            return tasks == 0 ? 0 : totalWaitTime / tasks;
+        }
+
+        /**
+         * @return the average time (in nanoseconds) that a task runs for
+         */
+        public
+        long getAverageRunTime() {
+            return tasks == 0 ? 0 : totalRunTime / tasks;
+        }
+
+        /**
+         * @return how many tasks waited (between being queued and starting to run) for the time range of each bucket
+         */
+        public
+        long[] getWaitHistogram() {
+            return waitHistogram.clone();
+        }
+
+        /**
+         * @return how many tasks ran for the time range of each bucket
+         */
+        public
+        long[] getRunHistogram() {
+            return runHistogram.clone();
+        }
+
+        /**
+         * @return the most recent tasks that ran for longer than {@link dorkbox.systemTray.SystemTray#SLOW_DISPATCH_THRESHOLD}
+         */
+        public
+        List<SlowTask> getSlowTasks() {
+            return slowTasks;
+        }
+
+        @Override
+        public
+        String toString() {
+            return name + "[tasks=" + tasks + ", queueDepth=" + queueDepth + ", maxQueueDepth=" + maxQueueDepth + ", averageWait=" +
+                   getAverageWaitTime() + "ns, averageRun=" + getAverageRunTime() + "ns, slowTasks=" + slowTasks.size() + "]";
+        }
+    }
+
+    /**
+     * A task that ran for longer than {@link dorkbox.systemTray.SystemTray#SLOW_DISPATCH_THRESHOLD}
+     */
+    public static final
+    class SlowTask {
+        private final String lane;
+        private final long timestamp;
+        private final long waitTime;
+        private final long runTime;
+        private final StackTraceElement[] queuedFrom;
+
+        SlowTask(final String lane, final long timestamp, final long waitTime, final long runTime, final StackTraceElement[] queuedFrom) {
+            this.lane = lane;
+            this.timestamp = timestamp;
+            this.waitTime = waitTime;
+            this.runTime = runTime;
+            this.queuedFrom = queuedFrom;
+        }
+
+        /**
+         * @return the name of the dispatch thread the task ran on
+         */
+        public
+        String getLane() {
+            return lane;
+        }
+
+        /**
+         * @return when the task finished, in milliseconds since the epoch
+         */
+        public
+        long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @return the time (in nanoseconds) between the task being queued and it starting to run
+         */
+        public
+        long getWaitTime() {
+            return waitTime;
+        }
+
+        /**
+         * @return the time (in nanoseconds) that the task ran for
+         */
+        public
+        long getRunTime() {
+            return runTime;
+        }
+
+        /**
+         * @return the stack of the code that queued the task
+         */
+        public
+        StackTraceElement[] getQueuedFrom() {
+            return queuedFrom.clone();
+        }
+    }
+
+    /**
+     * @return the current statistics of all the dispatch threads
+     */
+    public static
+    DispatchStats snapshot() {
+        return new DispatchStats(DispatchLane.EVENTS.snapshot(), DispatchLane.CALLBACKS.snapshot(),
+                                 DispatchLane.GTK.snapshot(), DispatchLane.SWING.snapshot());
+    }
+
+    private final Lane eventDispatch;
+    private final Lane callbacks;
+    private final Lane gtk;
+    private final Lane swing;
+
+    private
+    DispatchStats(final Lane eventDispatch, final Lane callbacks, final Lane gtk, final Lane swing) {
+        this.eventDispatch = eventDispatch;
+        this.callbacks = callbacks;
+        this.gtk = gtk;
+        this.swing = swing;
+    }
+
+    /**
+     * @return the upper limit (in nanoseconds) of each histogram bucket. The last bucket (not included here) has no upper limit.
+     */
+    public static
+    long[] getBucketLimits() {
+        return DispatchLane.BUCKET_LIMITS.clone();
+    }
+
+    /**
+     * @return the statistics of the SystemTray event dispatch, which adds and removes menu entries
+     */
+    public
+    Lane getEventDispatch() {
+        return eventDispatch;
+    }
+
+    /**
+     * @return the statistics of menu entry callbacks
+     */
+    public
+    Lane getCallbacks() {
+        return callbacks;
+    }
+
+    /**
+     * @return the statistics of the GTK event dispatch
+     */
+    public
+    Lane getGtk() {
+        return gtk;
+    }
+
+    /**
+     * @return the statistics of the Swing/AWT event dispatch (as used by the SystemTray)
+     */
+    public
+    Lane getSwing() {
+        return swing;
+    }
+
+    @Override
+    public
+    String toString() {
+        return "DispatchStats[" + eventDispatch + ", " + callbacks + ", " + gtk + ", " + swing + "]";
+    }
+}
@@ -17,6 +17,7 @@ package dorkbox.systemTray.util;
 
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -28,6 +29,9 @@ import dorkbox.util.NamedThreadFactory;
  * Adds events to a single thread event dispatch, so that regardless of OS, all event callbacks happen on the same thread -- which is NOT
  * the GTK/AWT/SWING event dispatch thread. There can be ODD peculiarities across on GTK with how AWT/SWING/JavaFX react with the GTK Event
  * Dispatch Thread.
+ * <p>
+ * Menu changes (add/remove) and menu entry callbacks run on different threads, so that a slow callback does not hold up menu changes,
+ * and many menu changes do not hold up callbacks. Menu changes always run in the order they were queued.
  */
 public
 class EventDispatch {
@@ -36,10 +40,15 @@ class EventDispatch {
      */
     private static int THREAD_PRIORITY = Thread.NORM_PRIORITY;
 
-    private static ExecutorService eventDispatchExecutor = null;
+    private static volatile DispatchQueue eventDispatch = null;
+    private static DispatchQueue previousEventDispatch = null;  // access must be synchronized on EventDispatch.class
+    private static ExecutorService callbackDispatchExecutor = null;  // access must be synchronized on EventDispatch.class
 
     private static volatile CountDownLatch shutdownLatch = null;
-    private static volatile boolean insideDispatch = false;
+    private static volatile ExecutorService shutdownCallbackDispatch = null;
+
+    // where menu entry callbacks run when the entry does not have its own executor. NULL means the callback dispatch (the default)
+    private static volatile Executor callbackExecutor = null;
 
     /**
      * Schedule an event to occur sometime in the future. We do not want to WAIT for a `runnable` to finish, because it is POSSIBLE that
@@ -48,25 +57,88 @@ class EventDispatch {
      */
     public static
     void runLater(final Runnable runnable) {
-        synchronized(EventDispatch.class) {
-            if (eventDispatchExecutor == null) {
-                if (insideDispatch) {
-                    SystemTray.logger.error("Unable to create a new event dispatch, while executing within the same context.");
-                    return;
+        while (true) {
+            DispatchQueue dispatch = eventDispatch;
+
+            if (dispatch == null) {
+                synchronized (EventDispatch.class) {
+                    dispatch = eventDispatch;
+
+                    if (dispatch == null) {
+                        if (previousEventDispatch != null && previousEventDispatch.isDispatchThread()) {
+                            SystemTray.logger.error("Unable to create a new event dispatch, while executing within the same context.");
+                            return;
+                        }
+
+                        shutdownLatch = new CountDownLatch(1);
+                        dispatch = new DispatchQueue("SystemTrayEventDispatch", THREAD_PRIORITY,
+                                                     SystemTray.EVENT_DISPATCH_QUEUE_SIZE, SystemTray.EVENT_DISPATCH_WAIT_STRATEGY,
+                                                     DispatchLane.EVENTS);
+                        eventDispatch = dispatch;
+                    }
                 }
+            }
 
-                shutdownLatch = new CountDownLatch(1);
-                eventDispatchExecutor = Executors.newSingleThreadExecutor(
-                        new NamedThreadFactory("SystemTrayEventDispatch",
-                                               Thread.currentThread().getThreadGroup(), THREAD_PRIORITY, true));
+            if (dispatch.execute(runnable)) {
+                return;
             }
+
+            // this dispatch was shut down after we got it, so we have to use a new one
         }
+    }
 
-        eventDispatchExecutor.execute(()->{
-            insideDispatch = true;
-            runnable.run();
-            insideDispatch = false;
-        });
+    /**
+     * Sets the executor that runs menu entry callbacks, unless the entry has its own executor assigned. Slow or blocking callbacks
+     * should use a different executor (see {@link CallbackExecutors}), so they do not hold up other clicks or menu changes that are
+     * queued on the event dispatch.
+     *
+     * @param executor the executor to use, or NULL to run callbacks on the callback dispatch (the default)
+     */
+    public static
+    void setCallbackExecutor(final Executor executor) {
+        callbackExecutor = executor;
+    }
+
+    /**
+     * @return the executor that runs menu entry callbacks, or NULL if they run on the callback dispatch
+     */
+    public static
+    Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * Runs the callback for a menu entry, using the executor of the entry, the callback executor, or the callback dispatch (in that order).
+     * The callback dispatch is a single thread (so callbacks run in the order they were clicked), separate from the event dispatch.
+     *
+     * @param entryExecutor the executor assigned to the menu entry, or NULL if it does not have one
+     */
+    public static
+    void runCallback(final Executor entryExecutor, final Runnable runnable) {
+        Executor executor = entryExecutor;
+        if (executor == null) {
+            executor = callbackExecutor;
+        }
+
+        if (executor == null) {
+            synchronized (EventDispatch.class) {
+                if (callbackDispatchExecutor == null) {
+                    callbackDispatchExecutor = Executors.newSingleThreadExecutor(
+                            new NamedThreadFactory("SystemTrayCallbackDispatch",
+                                                   Thread.currentThread().getThreadGroup(), THREAD_PRIORITY, true));
+                }
+                executor = callbackDispatchExecutor;
+            }
+        }
+
+        final long queuedAt = System.nanoTime();
+        final Throwable queuedFrom = DispatchLane.CALLBACKS.queued();
+        try {
+            executor.execute(()->DispatchLane.CALLBACKS.run(runnable, queuedAt, queuedFrom));
+        } catch (Exception e) {
+            DispatchLane.CALLBACKS.rejected();
+            SystemTray.logger.error("Unable to run a menu entry callback", e);
+        }
     }
 
     /**
@@ -76,14 +148,22 @@ class EventDispatch {
     void shutdown() {
         // we have to make sure we shut down on our own thread (and not the JavaFX/SWT/AWT/etc thread)
         runLater(()->{
-            ExecutorService executorService = null;
+            DispatchQueue dispatch = null;
             synchronized (EventDispatch.class) {
-                executorService = eventDispatchExecutor;
-                eventDispatchExecutor = null;
+                dispatch = eventDispatch;
+                eventDispatch = null;
+                previousEventDispatch = dispatch;
+
+                // callbacks that were already clicked are still run, but no new ones are accepted.
+                if (callbackDispatchExecutor != null) {
+                    callbackDispatchExecutor.shutdown();
+                    shutdownCallbackDispatch = callbackDispatchExecutor;
+                    callbackDispatchExecutor = null;
+                }
             }
 
-            if (executorService != null) {
-                final List<Runnable> runnables = executorService.shutdownNow();
+            if (dispatch != null) {
+                final List<Runnable> runnables = dispatch.shutdownNow();
                 for (int i = 0; i < runnables.size(); i++) {
                     try {
                         runnables.get(i)
@@ -99,7 +179,7 @@ class EventDispatch {
     }
 
     /**
-     * Waits for the event dispatch to finish shutting down
+     * Waits for the event dispatch (and the callback dispatch) to finish shutting down
      */
     public static void waitForShutdown() {
         CountDownLatch latch = null;
@@ -109,7 +189,13 @@ class EventDispatch {
 
         if (latch != null) {
             try {
-                latch.await(5, TimeUnit.SECONDS);
+                final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                if (latch.await(5, TimeUnit.SECONDS)) {
+                    final ExecutorService callbacks = shutdownCallbackDispatch;
+                    if (callbacks != null) {
+                        callbacks.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    }
+                }
             } catch (InterruptedException ignored) {
             }
         }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A fast (non-cryptographic) 64-bit hash, used to name the images in the cache. It only has to tell different images apart, it does
+ * not have to be secure.
+ */
+final
+class FastHash {
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private long hash = PRIME_2;
+
+    FastHash update(final long value) {
+        long k = value * PRIME_2;
+        k = Long.rotateLeft(k, 31) * PRIME_1;
+        hash = Long.rotateLeft(hash ^ k, 27) * PRIME_1 + PRIME_2;
+        return this;
+    }
+
+    FastHash update(final byte[] bytes, final int offset, final int count) {
+        final int end = offset + count;
+        int i = offset;
+
+        // 8 bytes at a time
+        for (; i + 8 <= end; i += 8) {
+            update(((long) bytes[i] & 0xFF) |
+                   ((long) bytes[i + 1] & 0xFF) << 8 |
+                   ((long) bytes[i + 2] & 0xFF) << 16 |
+                   ((long) bytes[i + 3] & 0xFF) << 24 |
+                   ((long) bytes[i + 4] & 0xFF) << 32 |
+                   ((long) bytes[i + 5] & 0xFF) << 40 |
+                   ((long) bytes[i + 6] & 0xFF) << 48 |
+                   ((long) bytes[i + 7] & 0xFF) << 56);
+        }
+
+        // then the rest
+        long tail = 0;
+        for (int shift = 0; i < end; i++, shift += 8) {
+            tail |= ((long) bytes[i] & 0xFF) << shift;
+        }
+        update(tail);
+
+        // so that trailing zeros change the hash
+        return update(count);
+    }
+
+    FastHash update(final int[] values, final int count) {
+        int i = 0;
+        for (; i + 2 <= count; i += 2) {
+            update(((long) values[i] & 0xFFFFFFFFL) | ((long) values[i + 1] << 32));
+        }
+        if (i < count) {
+            update((long) values[i] & 0xFFFFFFFFL);
+        }
+        return update(count);
+    }
+
+    FastHash update(final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return update(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @return the hash, as a hex string
+     */
+    String finish() {
+        long h = hash;
+        h ^= h >>> 33;
+        h *= PRIME_2;
+        h ^= h >>> 29;
+        h *= PRIME_1;
+        h ^= h >>> 32;
+
+        final String hex = Long.toHexString(h);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    static
+    String hash(final byte[] bytes) {
+        return new FastHash().update(bytes, 0, bytes.length).finish();
+    }
+}
@@ -33,7 +33,6 @@ import com.sun.jna.Pointer;
 import com.sun.jna.ptr.PointerByReference;
 
 import dorkbox.jna.linux.GObject;
-import dorkbox.jna.linux.GtkEventDispatch;
 import dorkbox.jna.linux.GtkState;
 import dorkbox.jna.linux.structs.GtkRequisition;
 import dorkbox.jna.linux.structs.GtkStyle;
@@ -94,7 +93,7 @@ class GtkTheme {
     int getMenuEntryImageSize() {
         final AtomicReference<Integer> imageHeight = new AtomicReference<>();
 
-        GtkEventDispatch.dispatchAndWait(()->{
+        Dispatch.gtkAndWait(()->{
             Pointer offscreen = Gtk2.gtk_offscreen_window_new();
 
             // get the default icon size for the "paste" icon.
@@ -151,7 +150,7 @@ class GtkTheme {
         final AtomicInteger screenDPI = new AtomicInteger();
         screenDPI.set(0);
 
-        GtkEventDispatch.dispatchAndWait(()->{
+        Dispatch.gtkAndWait(()->{
             // screen DPI
             Pointer screen = Gtk2.gdk_screen_get_default();
             if (screen != null) {
@@ -194,7 +193,7 @@ class GtkTheme {
         screenScale.set(0D);
 
         if (isGtk3) {
-            GtkEventDispatch.dispatchAndWait(()->{
+            Dispatch.gtkAndWait(()->{
                 // screen scale
                 Pointer window = Gtk2.gdk_get_default_root_window();
                 if (window != null) {
@@ -450,7 +449,7 @@ class GtkTheme {
 
         // try to use GTK to get the tray icon size
         final AtomicInteger traySize = new AtomicInteger();
-        GtkEventDispatch.dispatchAndWait(()->{
+        Dispatch.gtkAndWait(()->{
             Pointer screen = Gtk2.gdk_screen_get_default();
             Pointer settings = null;
 
@@ -507,7 +506,7 @@ class GtkTheme {
     public static
     Color getTextColor() {
         final AtomicReference<Color> color = new AtomicReference<>(null);
-        GtkEventDispatch.dispatchAndWait(()->{
+        Dispatch.gtkAndWait(()->{
             Color c;
 
             // the following method requires an offscreen widget to get the style information from.
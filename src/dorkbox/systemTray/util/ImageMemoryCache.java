@@ -0,0 +1,261 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dorkbox.systemTray.SystemTray;
+import dorkbox.util.CacheUtil;
+
+/**
+ * Keeps the most recently resized images in memory (up to {@link SystemTray#IMAGE_MEMORY_CACHE_SIZE} bytes), so that an image that is
+ * used again does not have to be read, hashed, or checked on disk again.
+ * <p>
+ * Images are found by their source (the same file, path or URL, and for files also the same modification time and length) and the size
+ * they were resized to, for the cache of the same tray. Streams cannot be found again, and Image objects can be drawn on again, so they
+ * are never kept here.
+ * <p>
+ * A ResizedImage decodes/encodes/writes itself when it is first needed, so it grows after it is added here. Images that are on disk
+ * drop their decoded image when they are added or found (they can be read from the file again), and the size of an image is measured
+ * again whenever it is found, or another image is added.
+ */
+final
+class ImageMemoryCache {
+    static final
+    class Key {
+        private final Class<?> type;
+        private final Object source;
+        private final long lastModified;
+        private final long length;
+        private final int size;
+        private final boolean autoSize;
+        private final boolean inMemory;
+        private final CacheUtil cache;
+        private final int hashCode;
+
+        private
+        Key(final Object source, final File file, final int size, final CacheUtil cache) {
+            this.type = source.getClass();
+            this.source = source;
+            this.size = size;
+            this.autoSize = SystemTray.AUTO_SIZE;
+            this.inMemory = SystemTray.IN_MEMORY_IMAGES;
+            this.cache = cache;
+
+            // a file that is written again (at the same path) is a different image
+            if (file != null) {
+                this.lastModified = file.lastModified();
+                this.length = file.length();
+            }
+            else {
+                this.lastModified = 0L;
+                this.length = 0L;
+            }
+
+            int hash = source.hashCode();
+            hash = 31 * hash + Long.hashCode(lastModified);
+            hash = 31 * hash + Long.hashCode(length);
+            hash = 31 * hash + size;
+            hash = 31 * hash + (autoSize ? 1 : 0);
+            hash = 31 * hash + (inMemory ? 1 : 0);
+            this.hashCode = 31 * hash + System.identityHashCode(cache);
+        }
+
+        @Override
+        public
+        boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key key = (Key) o;
+            return size == key.size && autoSize == key.autoSize && inMemory == key.inMemory && type == key.type && cache == key.cache &&
+                   lastModified == key.lastModified && length == key.length && source.equals(key.source);
+        }
+
+        @Override
+        public
+        int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static final
+    class Value {
+        private final ResizedImage image;
+        private long bytes;  // access must be synchronized on 'entries'
+
+        private
+        Value(final ResizedImage image, final long bytes) {
+            this.image = image;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    // access must be synchronized on 'entries'
+    private static final LinkedHashMap<Key, Value> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private static long totalBytes = 0;
+
+    /**
+     * @param cache the cache of the tray that the image is resized for. An image in memory is written to this cache if a file is needed.
+     *
+     * @return the key for the image, or null if this image cannot be kept in memory
+     */
+    static
+    Key key(final Object image, final int size, final CacheUtil cache) {
+        if (SystemTray.IMAGE_MEMORY_CACHE_SIZE <= 0) {
+            return null;
+        }
+
+        if (image instanceof File) {
+            return new Key(image, (File) image, size, cache);
+        }
+        if (image instanceof String) {
+            // this can also be a resource or a JAR path, which does not change (and is not a file)
+            return new Key(image, new File((String) image), size, cache);
+        }
+        if (image instanceof URL) {
+            // URL.equals() can do a DNS lookup, so the text of the URL is used instead
+            return new Key(new UrlSource(((URL) image).toExternalForm()), null, size, cache);
+        }
+
+        // streams can only be read once, and Image objects can be drawn on again, so we cannot tell if they are the same image
+        return null;
+    }
+
+    private static final
+    class UrlSource {
+        private final String url;
+
+        private
+        UrlSource(final String url) {
+            this.url = url;
+        }
+
+        @Override
+        public
+        boolean equals(final Object o) {
+            return o instanceof UrlSource && url.equals(((UrlSource) o).url);
+        }
+
+        @Override
+        public
+        int hashCode() {
+            return url.hashCode();
+        }
+    }
+
+    static
+    ResizedImage get(final Key key) {
+        final Value value;
+        synchronized (entries) {
+            value = entries.get(key);
+
+            if (value != null) {
+                value.image.releaseDecoded();
+
+                // this image may have been decoded or encoded since it was measured
+                final long bytes = value.image.getMemorySize();
+                totalBytes += bytes - value.bytes;
+                value.bytes = bytes;
+
+                // this image is now the most recently used, so it is only removed if it does not fit at all
+                evictToFit();
+            }
+        }
+
+        if (value == null) {
+            misses.getAndIncrement();
+            return null;
+        }
+
+        hits.getAndIncrement();
+        return value.image;
+    }
+
+    static
+    void put(final Key key, final ResizedImage image) {
+        image.releaseDecoded();
+
+        final long bytes = image.getMemorySize();
+        if (bytes > SystemTray.IMAGE_MEMORY_CACHE_SIZE) {
+            return;
+        }
+
+        synchronized (entries) {
+            // the images that are already here may have been decoded or encoded since they were measured
+            totalBytes = 0;
+            for (final Value value : entries.values()) {
+                value.image.releaseDecoded();
+                value.bytes = value.image.getMemorySize();
+                totalBytes += value.bytes;
+            }
+
+            final Value previous = entries.put(key, new Value(image, bytes));
+            if (previous != null) {
+                totalBytes -= previous.bytes;
+            }
+            totalBytes += bytes;
+
+            evictToFit();
+        }
+    }
+
+    /**
+     * Removes the least recently used images until we fit again. Must be synchronized on 'entries'
+     */
+    private static
+    void evictToFit() {
+        final long maxBytes = SystemTray.IMAGE_MEMORY_CACHE_SIZE;
+
+        final Iterator<Value> iterator = entries.values().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            totalBytes -= iterator.next().bytes;
+            iterator.remove();
+            evictions.getAndIncrement();
+        }
+    }
+
+    static
+    long getHitCount() {
+        return hits.get();
+    }
+
+    static
+    long getMissCount() {
+        return misses.get();
+    }
+
+    static
+    long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private
+    ImageMemoryCache() {
+    }
+}
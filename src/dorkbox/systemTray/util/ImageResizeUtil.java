@@ -15,7 +15,6 @@
  */
 package dorkbox.systemTray.util;
 
-import java.awt.Dimension;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
@@ -24,16 +23,32 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.jar.JarEntry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 
 import dorkbox.systemTray.SystemTray;
 import dorkbox.util.CacheUtil;
 import dorkbox.util.IO;
 import dorkbox.util.ImageUtil;
+import dorkbox.util.NamedThreadFactory;
 
 public
 class ImageResizeUtil {
@@ -45,6 +60,17 @@ class ImageResizeUtil {
     // - swing version loads as an image (which can be stream or path, we use path)
     private final CacheUtil cache;
 
+    // resized images are saved to the cache on this thread (one at a time), so we do not have to wait for them
+    private static ExecutorService cacheWriter = null;  // access must be synchronized on ImageResizeUtil.class
+
+    // the images that are being resized right now (by cache name, and by memory cache key), so that when the same image is requested by
+    // several threads at once, it is only resized once
+    private final ConcurrentHashMap<String, CompletableFuture<ResizedImage>> resizing = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<ImageMemoryCache.Key, CompletableFuture<ResizedImage>> resizingInMemory = new ConcurrentHashMap<>();
+
+    // the number of times the error image was used, so that we do not keep the error image in memory instead of the real image
+    private final AtomicLong errorCount = new AtomicLong();
+
     public ImageResizeUtil(CacheUtil cache) {
         this.cache = cache;
     }
@@ -67,37 +93,37 @@ class ImageResizeUtil {
         }
     }
 
-    public synchronized
+    public
     File getErrorImage(int size) {
+        errorCount.getAndIncrement();
+
         if (size <= 0) {
             // default size
             size = 32;
         }
 
         try {
-            @SuppressWarnings("ConstantConditions")
-            InputStream imageStream = ImageResizeUtil.class.getResource("error_32.png").openStream();
-
-            // have to resize the image to be whatever size we specify
-            imageStream = makeByteArrayInputStream(imageStream);
-            imageStream.mark(0);
+            final byte[] bytes;
+            //noinspection ConstantConditions
+            try (InputStream imageStream = ImageResizeUtil.class.getResource("error_32.png").openStream()) {
+                bytes = IO.copyStream(imageStream).toByteArray();
+            }
 
             // check if we already have this file information saved to disk, based on size + hash of data
-            final String cacheName = size + "_" + CacheUtil.Companion.createNameAsHash(imageStream);
-            ((ByteArrayInputStream) imageStream).reset();  // casting to avoid unnecessary try/catch for IOException
-
+            final String cacheName = size + "_" + FastHash.hash(bytes);
 
             // if we already have this fileName, reuse it
             final File check = cache.check(cacheName);
-            if (check != null) {
+            if (check != null && check.canRead()) {
                 return check;
             }
 
-            // we have to hop through hoops.
-            File resizedFile = resizeFileNoCheck(size, imageStream);
+            // have to resize the image to be whatever size we specify. This is done in memory, so several threads can do this at once
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ImageIO.write(resizeImage(size, ImageIO.read(new ByteArrayInputStream(bytes))), "png", outputStream);
 
             // now cache that file
-            return cache.save(cacheName, resizedFile);
+            return publish(cache, cacheName, outputStream.toByteArray());
         } catch (Exception e) {
             // this must be thrown
             throw new RuntimeException("Serious problems! Unable to extract error image, this should NEVER happen!", e);
@@ -105,12 +131,12 @@ class ImageResizeUtil {
     }
 
     private
-    File resizeAndCache(final int size, final File file) {
+    ResizedImage resizeAndCache(final int size, final File file) {
         return resizeAndCache(size, file.getAbsolutePath());
     }
 
     private
-    File resizeAndCache(final int size, final String fileName) {
+    ResizedImage resizeAndCache(final int size, final String fileName) {
         if (fileName == null) {
             return null;
         }
@@ -119,148 +145,273 @@ class ImageResizeUtil {
             SystemTray.logger.debug("Resizing image to " + size + " : " + fileName);
         }
 
-        InputStream inputStream = null;
         try {
             // if this is a JAR path, we have to load that. It is entirely possible that the PATH to a
             // resource (instead of the resource itself) is passed in.
-
-
             if (JAR_URL_REGEX.matcher(fileName)
                              .matches()) {
                 // this is a JAR path, not a normal string!
+                return resizeAndCache(size, new URL(fileName));
+            }
 
-                URL jarResource = new URL(fileName);
-                inputStream = jarResource.openStream();
-            } else {
-                inputStream = new FileInputStream(fileName);
+            final File file = new File(fileName).getCanonicalFile();
+
+            // the cache name is based on the file information, so the file is only read if it is not cached yet
+            final String cacheName = size + "_f" + new FastHash().update(file.getPath())
+                                                                 .update(file.lastModified())
+                                                                 .update(file.length())
+                                                                 .finish();
+
+            final File check = cache.check(cacheName);
+            if (check != null && check.canRead()) {
+                return ResizedImage.of(check);
             }
 
-            return resizeAndCache(size, inputStream);
+            try (InputStream inputStream = new FileInputStream(file)) {
+                return resizeAndCache(size, cacheName, IO.copyStream(inputStream).toByteArray());
+            }
         } catch (Exception e) {
             // have to serve up the error image instead.
             SystemTray.logger.error("Error reading image. Using error icon instead", e);
-            return getErrorImage(size);
-        } finally {
-            if (inputStream != null) {
-                try {
-                    inputStream.close();
-                } catch (IOException ignored) {
+            return ResizedImage.of(getErrorImage(size));
+        }
+    }
+
+    private
+    ResizedImage resizeAndCache(final int size, final URL url) throws IOException, URISyntaxException {
+        if ("file".equals(url.getProtocol())) {
+            return resizeAndCache(size, new File(url.toURI()).getPath());
+        }
+
+        if ("jar".equals(url.getProtocol())) {
+            final URLConnection connection = url.openConnection();
+
+            if (connection instanceof JarURLConnection) {
+                final JarURLConnection jarConnection = (JarURLConnection) connection;
+                final JarEntry entry = jarConnection.getJarEntry();
+
+                if (entry != null && entry.getCrc() != -1) {
+                    // the cache name is based on the jar entry information, so the entry is only read if it is not cached yet
+                    final String cacheName = size + "_j" + new FastHash().update(jarConnection.getJarFileURL().toExternalForm())
+                                                                         .update(entry.getName())
+                                                                         .update(entry.getCrc())
+                                                                         .update(entry.getSize())
+                                                                         .finish();
+
+                    final File check = cache.check(cacheName);
+                    if (check != null && check.canRead()) {
+                        return ResizedImage.of(check);
+                    }
+
+                    try (InputStream inputStream = jarConnection.getInputStream()) {
+                        return resizeAndCache(size, cacheName, IO.copyStream(inputStream).toByteArray());
+                    }
                 }
             }
         }
+
+        // there is nothing else we can use, so the contents are hashed
+        try (InputStream inputStream = url.openStream()) {
+            return resizeAndCache(size, inputStream);
+        }
     }
 
-    @SuppressWarnings("Duplicates")
-    private synchronized
-    File resizeAndCache(final int size, InputStream imageStream) {
+    /**
+     * Resizes the image (if necessary), named in the cache by the hash of its contents.
+     */
+    private
+    ResizedImage resizeAndCache(final int size, final InputStream imageStream) {
         if (imageStream == null) {
             return null;
         }
 
-        final String cacheName;
-
-        // no cached file, so we resize then save the new one.
-        boolean needsResize = true;
+        final byte[] bytes;
         try {
-            imageStream = makeByteArrayInputStream(imageStream);
-            imageStream.mark(0);
+            bytes = IO.copyStream(imageStream).toByteArray();
+            imageStream.close();
+        } catch (Exception e) {
+            // have to serve up the error image instead.
+            SystemTray.logger.error("Error reading image. Using error icon instead", e);
+            return ResizedImage.of(getErrorImage(size));
+        }
 
-            // check if we already have this file information saved to disk, based on size + hash of data
-            cacheName = size + "_" + CacheUtil.Companion.createNameAsHash(imageStream);
-            ((ByteArrayInputStream) imageStream).reset();  // casting to avoid unnecessary try/catch for IOException
+        return resizeAndCache(size, bytes);
+    }
 
+    /**
+     * Resizes the image (if necessary), named in the cache by the hash of its contents.
+     */
+    private
+    ResizedImage resizeAndCache(final int size, final byte[] bytes) {
+        // check if we already have this file information saved to disk, based on size + hash of data
+        final String cacheName = size + "_" + FastHash.hash(bytes);
 
-            // if we already have this fileName, reuse it
-            final File check = cache.check(cacheName);
-            if (check != null && check.canRead()) {
-                return check;
-            }
+        final File check = cache.check(cacheName);
+        if (check != null && check.canRead()) {
+            return ResizedImage.of(check);
+        }
+
+        return resizeAndCache(size, cacheName, bytes);
+    }
 
+    /**
+     * Resizes the image (if necessary) in memory. It is saved to the cache in the background, so that we do not have to wait for it to
+     * be written to disk.
+     *
+     * @param cacheName the name of the image in the cache, which is not in the cache yet
+     */
+    private
+    ResizedImage resizeAndCache(final int size, final String cacheName, final byte[] bytes) {
+        // if another thread is already resizing this image, we use its result instead of resizing it again
+        return shareInFlight(resizing, cacheName, ()->resizeAndCacheNoShare(size, cacheName, bytes));
+    }
 
-            imageStream.mark(0);
-            Dimension imageSize = ImageUtil.getImageSize(imageStream);
-            //noinspection NumericCastThatLosesPrecision
-            if (size == (int) imageSize.getHeight() && size == (int) imageSize.getWidth()) {
-                // we can reuse this URL (it's the correct size).
-                needsResize = false;
+    private
+    ResizedImage resizeAndCacheNoShare(final int size, final String cacheName, final byte[] bytes) {
+        final ResizedImage resizedImage;
+        try {
+            // only decoded if it has to be resized
+            final BufferedImage decodedImage = readIfNotSize(size, new ByteArrayInputStream(bytes));
+            if (decodedImage != null) {
+                resizedImage = ResizedImage.of(resizeImage(size, decodedImage), cache, cacheName);
+            }
+            else {
+                // no resize necessary, just cache as is.
+                resizedImage = ResizedImage.of(bytes, cache, cacheName);
             }
         } catch (Exception e) {
             // have to serve up the error image instead.
-            SystemTray.logger.error("Error getting image size. Using error icon instead", e);
-            return getErrorImage(size);
-        } finally {
-            ((ByteArrayInputStream) imageStream).reset();  // casting to avoid unnecessary try/catch for IOException
+            SystemTray.logger.error("Error resizing image. Using error icon instead", e);
+            return ResizedImage.of(getErrorImage(size));
         }
 
+        writeBehind(resizedImage);
+        return resizedImage;
+    }
 
+    /**
+     * Saves the image to the cache in the background. If the file is needed before then, it is saved when it is needed instead.
+     */
+    private static
+    void writeBehind(final ResizedImage resizedImage) {
+        synchronized (ImageResizeUtil.class) {
+            if (cacheWriter == null) {
+                cacheWriter = Executors.newSingleThreadExecutor(new NamedThreadFactory("SystemTrayImageWriter",
+                                                                                       Thread.currentThread().getThreadGroup(),
+                                                                                       Thread.MIN_PRIORITY, true));
+            }
+        }
 
-        if (needsResize) {
-            // we have to hop through hoops.
-            try {
-                File resizedFile = resizeFileNoCheck(size, imageStream);
-
-                // now cache that file
-                try {
-                    return cache.save(cacheName, resizedFile);
-                } catch (Exception e) {
-                    // have to serve up the error image instead.
-                    SystemTray.logger.error("Error caching image. Using error icon instead", e);
-                    return getErrorImage(size);
-                }
+        cacheWriter.execute(resizedImage::getFile);
+    }
 
-            } catch (Exception e) {
-                // have to serve up the error image instead.
-                SystemTray.logger.error("Error resizing image. Using error icon instead", e);
-                return getErrorImage(size);
-            }
+    /**
+     * Runs the work for the key, unless another thread is already running the work for the same key. In that case, we wait for (and
+     * use) the result of the other thread instead.
+     */
+    private static <K>
+    ResizedImage shareInFlight(final ConcurrentHashMap<K, CompletableFuture<ResizedImage>> inFlight,
+                               final K key,
+                               final Supplier<ResizedImage> work) {
+        final CompletableFuture<ResizedImage> future = new CompletableFuture<>();
+        final CompletableFuture<ResizedImage> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing.join();
+        }
+
+        try {
+            final ResizedImage resizedImage = work.get();
+            future.complete(resizedImage);
+            return resizedImage;
+        } catch (Throwable t) {
+            // this includes errors (such as OutOfMemoryError), otherwise the threads waiting for this would wait forever
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Saves the bytes to the cache. They are written to a temp file first (that only this thread uses), which is then renamed to the
+     * cache name, so the cache file is never seen half written, even when several threads (or processes) save the same image at once.
+     *
+     * @return the file in the cache
+     */
+    static
+    File publish(final CacheUtil cache, final String cacheName, final byte[] bytes) throws IOException {
+        final File file = cache.create(cacheName);
+        final File tempFile = File.createTempFile("temp_resize_", ".tmp", file.getAbsoluteFile().getParentFile());
+
+        try {
+            Files.write(tempFile.toPath(), bytes);
 
-        } else {
-            // no resize necessary, just cache as is.
             try {
-                return cache.save(cacheName, imageStream);
-            } catch (Exception e) {
-                // have to serve up the error image instead.
-                SystemTray.logger.error("Error caching image. Using error icon instead", e);
-                return getErrorImage(size);
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
             }
+        } finally {
+            // only still here if something went wrong
+            Files.deleteIfExists(tempFile.toPath());
         }
+
+        return file;
     }
 
-    // if this input stream is NOT a ByteArrayInputStream, make it one.
-    private static
-    InputStream makeByteArrayInputStream(InputStream imageStream) throws IOException {
-        if (!(imageStream instanceof ByteArrayInputStream)) {
-            // have to make a copy of the inputStream, but only if necessary
-            ByteArrayOutputStream byteArrayOutputStream = IO.copyStream(imageStream);
-            imageStream.close();
+    /**
+     * Reads the size of the image from its header, and only decodes the image if it is not already the specified size.
+     *
+     * @return the decoded image, or null if the image is already the specified size
+     */
+    static
+    BufferedImage readIfNotSize(final int size, final InputStream inputStream) throws IOException {
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                throw new IOException("Unknown image format");
+            }
+
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                if (reader.getWidth(0) == size && reader.getHeight(0) == size) {
+                    // we can reuse this image (it's the correct size).
+                    return null;
+                }
 
-            imageStream = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
+                // the same reader continues after the header, so the image is not read twice
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
         }
-        return imageStream;
     }
 
-
     /**
-     * Resizes the given InputStream to the specified height. No checks are performed if it's the correct height to begin with.
-     *
-     * Additionally, the image is scaled to where it's largest dimension will always be <= to the size.
-     *
-     * @return the file on disk that is the resized icon
+     * @return a name for the cache that is based on the pixels of the image, so that the same image always has the same name
      */
-    @SuppressWarnings("ResultOfMethodCallIgnored")
-    private
-    File resizeFileNoCheck(final int size, InputStream inputStream) throws IOException {
-        // have to resize the file (and return the new path)
+    private static
+    String hashPixels(final BufferedImage image) {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
 
-        File newFile = cache.create("temp_resize.png");
-        // if it's already there, we have to delete it
-        newFile.delete();
+        final FastHash hash = new FastHash().update(width).update(height);
+        final int[] row = new int[width];
 
-        Image image = ImageIO.read(inputStream);
-        ImageUtil.waitForImageLoad(image);
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            hash.update(row, width);
+        }
 
-        BufferedImage bufferedImage = ImageUtil.getBufferedImage(image);
+        return "img_" + hash.finish();
+    }
 
+    /**
+     * Resizes the image so that its largest dimension is the size (keeping the aspect ratio), and then makes it square.
+     */
+    private static
+    BufferedImage resizeImage(final int size, BufferedImage bufferedImage) {
         // resize the image, keep aspect ratio
         int width = bufferedImage.getWidth();
         int height = bufferedImage.getHeight();
@@ -272,17 +423,153 @@ class ImageResizeUtil {
         }
 
         // make the image "square" so there is padding on the sides that are smaller
-        bufferedImage = ImageUtil.getSquareBufferedImage(bufferedImage);
+        return ImageUtil.getSquareBufferedImage(bufferedImage);
+    }
+
+    /**
+     * Resizes (if AUTO_SIZE) the image for the tray icon or for menu entries. If {@link SystemTray#IN_MEMORY_IMAGES}, the image is
+     * decoded and resized in memory, and nothing is written to disk (unless a backend later needs a file). Otherwise, the image is
+     * resized and saved to the cache (see the shouldResizeOrCache methods).
+     *
+     * @param image a File, String (path or resource), URL, InputStream, Image or ImageInputStream
+     *
+     * @return the resized image, or null if the image is null or of an unknown type
+     */
+    public
+    ResizedImage resize(final boolean isTrayImage, final Object image) {
+        if (image == null) {
+            return null;
+        }
+
+        final int size = getSize(isTrayImage);
 
-        // now write out the new one
-        ImageIO.write(bufferedImage, "png", newFile); // made up extension
+        // an image that was used recently does not have to be read, hashed or checked on disk again
+        final ImageMemoryCache.Key key = ImageMemoryCache.key(image, size, cache);
+        if (key == null) {
+            return resizeNoMemoryCache(isTrayImage, size, image);
+        }
+
+        final ResizedImage cached = ImageMemoryCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // if another thread is already resizing this image, we use its result instead of resizing it again
+        return shareInFlight(resizingInMemory, key, ()->{
+            final long errors = errorCount.get();
+            final ResizedImage resizedImage = resizeNoMemoryCache(isTrayImage, size, image);
+
+            // if there was an error, we want to try again next time instead of using the error image
+            if (resizedImage != null && errors == errorCount.get()) {
+                ImageMemoryCache.put(key, resizedImage);
+            }
 
-        return newFile;
+            return resizedImage;
+        });
     }
 
+    private
+    ResizedImage resizeNoMemoryCache(final boolean isTrayImage, final int size, final Object image) {
+        if (!SystemTray.IN_MEMORY_IMAGES) {
+            if (image instanceof String) {
+                return shouldResizeOrCache(isTrayImage, (String) image);
+            }
+            else if (image instanceof File) {
+                return shouldResizeOrCache(isTrayImage, (File) image);
+            }
+            else if (image instanceof URL) {
+                return shouldResizeOrCache(isTrayImage, (URL) image);
+            }
+            else if (image instanceof InputStream) {
+                return shouldResizeOrCache(isTrayImage, (InputStream) image);
+            }
+            else if (image instanceof Image) {
+                return shouldResizeOrCache(isTrayImage, (Image) image);
+            }
+            else if (image instanceof ImageInputStream) {
+                return shouldResizeOrCache(isTrayImage, (ImageInputStream) image);
+            }
+
+            return null;
+        }
+
+        try {
+            BufferedImage bufferedImage;
 
+            if (image instanceof String) {
+                final String imagePath = (String) image;
+                if (JAR_URL_REGEX.matcher(imagePath).matches()) {
+                    // this is a JAR path, not a normal string!
+                    bufferedImage = ImageIO.read(new URL(imagePath));
+                }
+                else {
+                    bufferedImage = ImageIO.read(new File(imagePath));
+                }
+            }
+            else if (image instanceof File) {
+                bufferedImage = ImageIO.read((File) image);
+            }
+            else if (image instanceof URL) {
+                bufferedImage = ImageIO.read((URL) image);
+            }
+            else if (image instanceof InputStream) {
+                try (InputStream imageStream = (InputStream) image) {
+                    bufferedImage = ImageIO.read(imageStream);
+                }
+            }
+            else if (image instanceof Image) {
+                // already decoded, so there is no reason to encode it just to decode it again
+                ImageUtil.waitForImageLoad((Image) image);
+                bufferedImage = ImageUtil.getBufferedImage((Image) image);
+            }
+            else if (image instanceof ImageInputStream) {
+                bufferedImage = ImageIO.read((ImageInputStream) image);
+            }
+            else {
+                return null;
+            }
+
+            if (bufferedImage == null) {
+                throw new IOException("Unknown image format");
+            }
+
+            if (SystemTray.AUTO_SIZE && (bufferedImage.getWidth() != size || bufferedImage.getHeight() != size)) {
+                if (SystemTray.DEBUG) {
+                    SystemTray.logger.debug("Resizing image in memory to " + size);
+                }
+                bufferedImage = resizeImage(size, bufferedImage);
+            }
+
+            return ResizedImage.of(bufferedImage, cache);
+        } catch (Exception e) {
+            // have to serve up the error image instead.
+            SystemTray.logger.error("Error reading image. Using error icon instead", e);
+            return getErrorResizedImage(size);
+        }
+    }
+
+    /**
+     * @return the error image (in memory if {@link SystemTray#IN_MEMORY_IMAGES})
+     */
     public
-    File shouldResizeOrCache(final boolean isTrayImage, final File imageFile) {
+    ResizedImage getErrorResizedImage(final int size) {
+        errorCount.getAndIncrement();
+
+        if (!SystemTray.IN_MEMORY_IMAGES) {
+            return ResizedImage.of(getErrorImage(size));
+        }
+
+        try (InputStream imageStream = ImageResizeUtil.class.getResource("error_32.png").openStream()) {
+            return ResizedImage.of(resizeImage(size <= 0 ? 32 : size, ImageIO.read(imageStream)), cache);
+        } catch (Exception e) {
+            // this must be thrown
+            throw new RuntimeException("Serious problems! Unable to extract error image, this should NEVER happen!", e);
+        }
+    }
+
+
+    public
+    ResizedImage shouldResizeOrCache(final boolean isTrayImage, final File imageFile) {
         if (imageFile == null) {
             return null;
         }
@@ -295,13 +582,13 @@ class ImageResizeUtil {
 
             return resizeAndCache(size, imageFile);
         } else {
-            return imageFile;
+            return ResizedImage.of(imageFile);
         }
     }
 
 
     public
-    File shouldResizeOrCache(final boolean isTrayImage, final String imagePath) {
+    ResizedImage shouldResizeOrCache(final boolean isTrayImage, final String imagePath) {
         if (imagePath == null) {
             return null;
         }
@@ -315,12 +602,12 @@ class ImageResizeUtil {
 
             return resizeAndCache(size, imagePath);
         } else {
-            return new File(imagePath);
+            return ResizedImage.of(new File(imagePath));
         }
     }
 
     public
-    File shouldResizeOrCache(final boolean isTrayImage, final URL imageUrl) {
+    ResizedImage shouldResizeOrCache(final boolean isTrayImage, final URL imageUrl) {
         if (imageUrl == null) {
             return null;
         }
@@ -333,23 +620,19 @@ class ImageResizeUtil {
                     SystemTray.logger.debug("Resizing image to " + size + " : " + imageUrl);
                 }
 
-                InputStream inputStream = imageUrl.openStream();
-                File file = resizeAndCache(size, inputStream);
-                inputStream.close();
-
-                return file;
+                return resizeAndCache(size, imageUrl);
             } else {
-                return cache.save(imageUrl);
+                return ResizedImage.of(cache.save(imageUrl));
             }
         } catch (Exception e) {
             // have to serve up the error image instead.
             SystemTray.logger.error("Error reading image. Using error icon instead", e);
-            return getErrorImage(size);
+            return ResizedImage.of(getErrorImage(size));
         }
     }
 
     public
-    File shouldResizeOrCache(final boolean isTrayImage, final InputStream imageStream) {
+    ResizedImage shouldResizeOrCache(final boolean isTrayImage, final InputStream imageStream) {
         if (imageStream == null) {
             return null;
         }
@@ -362,17 +645,17 @@ class ImageResizeUtil {
             return resizeAndCache(size, imageStream);
         } else {
             try {
-                return cache.save(imageStream);
+                return ResizedImage.of(cache.save(imageStream));
             } catch (IOException e) {
                 SystemTray.logger.error("Error checking cache for information. Using error icon instead", e);
-                return getErrorImage(size);
+                return ResizedImage.of(getErrorImage(size));
             }
         }
     }
 
 
     public
-    File shouldResizeOrCache(final boolean isTrayImage, final Image image) {
+    ResizedImage shouldResizeOrCache(final boolean isTrayImage, final Image image) {
         if (image == null) {
             return null;
         }
@@ -380,35 +663,30 @@ class ImageResizeUtil {
         int size = getSize(isTrayImage);
 
         try {
+            // the image is already decoded, so it is resized as-is instead of being encoded (and then decoded again)
             ImageUtil.waitForImageLoad(image);
             BufferedImage bufferedImage = ImageUtil.getBufferedImage(image);
 
-            ByteArrayOutputStream os = new ByteArrayOutputStream();
-            ImageIO.write(bufferedImage, "png", os);
-            InputStream imageInputStream = new ByteArrayInputStream(os.toByteArray());
-
-
-            File file;
-            if (SystemTray.AUTO_SIZE) {
+            if (SystemTray.AUTO_SIZE && (bufferedImage.getWidth() != size || bufferedImage.getHeight() != size)) {
                 if (SystemTray.DEBUG) {
                     SystemTray.logger.debug("Resizing image to " + size);
                 }
-                file = resizeAndCache(size, imageInputStream);
-            } else {
-                file = cache.save(imageInputStream);
+                bufferedImage = resizeImage(size, bufferedImage);
             }
 
-            imageInputStream.close(); // ByteArrayOutputStream doesn't do anything, but here for completeness + documentation
-            return file;
+            // it is only encoded when it is saved to the cache (in the background)
+            final ResizedImage resizedImage = ResizedImage.of(bufferedImage, cache, size + "_" + hashPixels(bufferedImage));
+            writeBehind(resizedImage);
+            return resizedImage;
         } catch (Exception e) {
             // have to serve up the error image instead.
             SystemTray.logger.error("Error reading image. Using error icon instead", e);
-            return getErrorImage(size);
+            return ResizedImage.of(getErrorImage(size));
         }
     }
 
     public
-    File shouldResizeOrCache(final boolean isTrayImage, final ImageInputStream imageStream) {
+    ResizedImage shouldResizeOrCache(final boolean isTrayImage, final ImageInputStream imageStream) {
         if (imageStream == null) {
             return null;
         }
@@ -416,23 +694,46 @@ class ImageResizeUtil {
         int size = getSize(isTrayImage);
         try {
             ByteArrayOutputStream byteArrayOutputStream = IO.copyStream(imageStream);
-            ByteArrayInputStream fileStream = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
 
             if (SystemTray.AUTO_SIZE) {
                 if (SystemTray.DEBUG) {
                     SystemTray.logger.debug("Resizing image-stream to " + size);
                 }
-                return resizeAndCache(size, fileStream);
+                return resizeAndCache(size, byteArrayOutputStream.toByteArray());
             } else {
-                return cache.save(fileStream);
+                return ResizedImage.of(cache.save(new ByteArrayInputStream(byteArrayOutputStream.toByteArray())));
             }
         } catch (Exception e) {
             // have to serve up the error image instead.
             SystemTray.logger.error("Error reading image. Using error icon instead", e);
-            return getErrorImage(size);
+            return ResizedImage.of(getErrorImage(size));
         }
     }
 
+    /**
+     * @return how many times a resized image was found in memory (see {@link SystemTray#IMAGE_MEMORY_CACHE_SIZE})
+     */
+    public static
+    long getMemoryCacheHitCount() {
+        return ImageMemoryCache.getHitCount();
+    }
+
+    /**
+     * @return how many times a resized image was not found in memory, and had to be resized or read from the cache on disk
+     */
+    public static
+    long getMemoryCacheMissCount() {
+        return ImageMemoryCache.getMissCount();
+    }
+
+    /**
+     * @return how many resized images were removed from memory to make room for newer images
+     */
+    public static
+    long getMemoryCacheEvictionCount() {
+        return ImageMemoryCache.getEvictionCount();
+    }
+
     private static
     int getSize(final boolean isTrayImage) {
         int size;
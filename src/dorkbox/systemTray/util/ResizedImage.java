@@ -0,0 +1,260 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import javax.imageio.ImageIO;
+
+import dorkbox.systemTray.SystemTray;
+import dorkbox.util.CacheUtil;
+
+/**
+ * An image that is ready to be shown by the tray icon or a menu entry (it has already been resized, if necessary).
+ * <p>
+ * The image is either a file on disk, or (see {@link SystemTray#IN_MEMORY_IMAGES}) a decoded image in memory. Each backend uses the
+ * form it needs: Swing/AWT use the decoded image, GTK uses the PNG encoded bytes, and a file is only written to disk when a backend
+ * can only use a file path (AppIndicator).
+ */
+public final
+class ResizedImage {
+    // the file this image was created from, null if this image is in memory
+    private final File sourceFile;
+
+    // used to write an in-memory image to disk, if a file is needed
+    private final CacheUtil cache;
+    // the name the image is saved as in the cache, null to name it by the hash of the image
+    private final String cacheName;
+
+    // these are created when they are first needed
+    private volatile File file;
+    private volatile BufferedImage image;
+    private volatile byte[] bytes;
+
+    private
+    ResizedImage(final File sourceFile, final BufferedImage image, final byte[] bytes, final CacheUtil cache, final String cacheName) {
+        this.sourceFile = sourceFile;
+        this.file = sourceFile;
+        this.image = image;
+        this.bytes = bytes;
+        this.cache = cache;
+        this.cacheName = cacheName;
+    }
+
+    /**
+     * @return an image that is the (already resized) file
+     */
+    public static
+    ResizedImage of(final File file) {
+        if (file == null) {
+            return null;
+        }
+        return new ResizedImage(file, null, null, null, null);
+    }
+
+    /**
+     * @param cache where the image is written if a file is needed
+     *
+     * @return an image that is in memory
+     */
+    public static
+    ResizedImage of(final BufferedImage image, final CacheUtil cache) {
+        if (image == null) {
+            return null;
+        }
+        return new ResizedImage(null, image, null, cache, null);
+    }
+
+    /**
+     * @param cache where the image is written when {@link #getFile()} is called
+     * @param cacheName the name the image is saved as in the cache
+     *
+     * @return an image that is in memory, until it is written to the cache
+     */
+    static
+    ResizedImage of(final BufferedImage image, final CacheUtil cache, final String cacheName) {
+        return new ResizedImage(null, image, null, cache, cacheName);
+    }
+
+    /**
+     * @param bytes the encoded image (which is already the correct size)
+     * @param cache where the image is written when {@link #getFile()} is called
+     * @param cacheName the name the image is saved as in the cache
+     *
+     * @return an image that is in memory, until it is written to the cache
+     */
+    static
+    ResizedImage of(final byte[] bytes, final CacheUtil cache, final String cacheName) {
+        return new ResizedImage(null, null, bytes, cache, cacheName);
+    }
+
+    /**
+     * @return true if this image is only in memory (it has not been written to disk)
+     */
+    public
+    boolean isInMemory() {
+        return file == null;
+    }
+
+    /**
+     * @return the decoded image, or null if the image file cannot be read
+     */
+    public
+    BufferedImage getImage() {
+        BufferedImage image = this.image;
+        if (image == null) {
+            final byte[] bytes = this.bytes;
+            try {
+                if (bytes != null) {
+                    image = ImageIO.read(new ByteArrayInputStream(bytes));
+                }
+                else {
+                    image = ImageIO.read(file);
+                }
+            } catch (IOException e) {
+                SystemTray.logger.error("Error reading image {}", this, e);
+                return null;
+            }
+            this.image = image;
+        }
+        return image;
+    }
+
+    /**
+     * @return the image, encoded as PNG (or as the format of the file), or null if the image cannot be encoded
+     */
+    public
+    byte[] getBytes() {
+        byte[] bytes = this.bytes;
+        if (bytes == null) {
+            try {
+                final File file = this.file;
+                if (file != null) {
+                    bytes = Files.readAllBytes(file.toPath());
+                }
+                else {
+                    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                    ImageIO.write(image, "png", outputStream);
+                    bytes = outputStream.toByteArray();
+                }
+            } catch (IOException e) {
+                SystemTray.logger.error("Error encoding image", e);
+                return null;
+            }
+            this.bytes = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the image as a file. An in-memory image is written to disk the first time this is called, so this should only be used when
+     * a file is strictly necessary.
+     *
+     * @return the image file, or null if the image cannot be written to disk
+     */
+    public
+    File getFile() {
+        File file = this.file;
+        if (file == null) {
+            synchronized (this) {
+                file = this.file;
+                if (file == null) {
+                    final byte[] bytes = getBytes();
+                    if (bytes == null) {
+                        return null;
+                    }
+
+                    try {
+                        // the same image is always written to the same file
+                        String cacheName = this.cacheName;
+                        if (cacheName == null) {
+                            cacheName = "mem_" + FastHash.hash(bytes);
+                        }
+                        file = cache.check(cacheName);
+                        if (file == null || !file.canRead()) {
+                            file = ImageResizeUtil.publish(cache, cacheName, bytes);
+                        }
+                    } catch (Exception e) {
+                        SystemTray.logger.error("Error writing image to disk", e);
+                        return null;
+                    }
+                    this.file = file;
+                }
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Drops the decoded image and the encoded bytes, if they can be read from the file again. This does nothing for an image that is
+     * only in memory.
+     */
+    void releaseDecoded() {
+        if (file != null) {
+            image = null;
+            bytes = null;
+        }
+    }
+
+    /**
+     * @return roughly how many bytes of memory this image uses
+     */
+    long getMemorySize() {
+        long size = 128;
+
+        final BufferedImage image = this.image;
+        if (image != null) {
+            size += (long) image.getWidth() * image.getHeight() * 4;
+        }
+        final byte[] bytes = this.bytes;
+        if (bytes != null) {
+            size += bytes.length;
+        }
+        return size;
+    }
+
+    @Override
+    public
+    boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ResizedImage)) {
+            return false;
+        }
+
+        // in-memory images are only equal to themselves
+        final ResizedImage that = (ResizedImage) o;
+        return sourceFile != null && sourceFile.equals(that.sourceFile);
+    }
+
+    @Override
+    public
+    int hashCode() {
+        return sourceFile != null ? sourceFile.hashCode() : System.identityHashCode(this);
+    }
+
+    @Override
+    public
+    String toString() {
+        return sourceFile != null ? sourceFile.toString() : "ResizedImage{in memory}";
+    }
+}
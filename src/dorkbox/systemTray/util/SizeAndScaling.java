@@ -118,7 +118,7 @@ class SizeAndScaling {
         // generic method to do this, but not as accurate
         final AtomicInteger iconSize = new AtomicInteger();
 
-        SwingUtil.INSTANCE.invokeAndWaitQuietly(()->{
+        Dispatch.swingAndWait(()->{
             JMenuItem jMenuItem = new JMenuItem();
 
             // do the same modifications that would also happen (if specified) for the actual displayed menu items
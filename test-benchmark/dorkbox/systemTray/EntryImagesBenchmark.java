@@ -0,0 +1,176 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dorkbox.systemTray.util.ImageResizeUtil;
+import dorkbox.systemTray.util.SizeAndScaling;
+import dorkbox.util.CacheUtil;
+
+/**
+ * Compares how long the caller (usually the EDT or the JavaFX/SWT thread) is blocked when entries with images are added to a menu.
+ * <p>
+ * {@link #resizeOnCallerThread()} resizes every image on the calling thread, one after another (how entries used to be added).
+ * {@link #prepare(Entries)} is only the time the caller spends in {@link EntryImages#prepare(List, ImageResizeUtil)}, and
+ * {@link #prepareUntilApplied(Entries)} also waits until every image has been resized and applied to its entry, which is when the
+ * entries are ready to be added to the native menu (in a single pass).
+ * <p>
+ * {@link #threads} is how many images are resized at the same time, to show how the time until the entries are ready scales with the
+ * number of cores. The disk cache is cleared before every invocation, so every image has to be resized.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public
+class EntryImagesBenchmark {
+    @Param({"20"})
+    public int entries;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private final List<File> imageFiles = new ArrayList<>();
+    private CacheUtil cache;
+    private ImageResizeUtil imageResizeUtil;
+
+    /**
+     * The entries that are added by an invocation. These are only created for the benchmarks that prepare their images.
+     */
+    @State(Scope.Thread)
+    public static
+    class Entries {
+        private List<MenuItem> items;
+        private List<Future<?>> images;
+
+        @Setup(Level.Invocation)
+        public
+        void create(final EntryImagesBenchmark benchmark) {
+            items = new ArrayList<>(benchmark.entries);
+            for (int i = 0; i < benchmark.entries; i++) {
+                items.add(new MenuItem("Entry " + i, benchmark.imageFiles.get(i)));
+            }
+            images = null;
+        }
+
+        @TearDown(Level.Invocation)
+        public
+        void waitForImages() {
+            // the next invocation must not compete with the images that are still being resized
+            if (images != null) {
+                EntryImages.await(images);
+            }
+        }
+    }
+
+    @Setup
+    public
+    void setup() throws IOException {
+        SizeAndScaling.TRAY_SIZE = 24;
+        SizeAndScaling.TRAY_MENU_SIZE = 16;
+
+        // every image must be resized, not found in memory
+        SystemTray.IMAGE_MEMORY_CACHE_SIZE = 0;
+
+        EntryImages.setThreads(threads);
+
+        cache = new CacheUtil("SystemTrayBenchmark_EntryImages");
+        imageResizeUtil = new ImageResizeUtil(cache);
+
+        for (int i = 0; i < entries; i++) {
+            // each image is different, so they are not resized only once for all of them
+            final BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+            final Graphics2D g = image.createGraphics();
+            try {
+                g.setColor(new Color(Color.HSBtoRGB(i / (float) entries, 0.8F, 0.9F)));
+                g.fillOval(0, 0, 256, 256);
+            } finally {
+                g.dispose();
+            }
+
+            final File file = File.createTempFile("SystemTrayBenchmark_" + i + "_", ".png");
+            file.deleteOnExit();
+            ImageIO.write(image, "png", file);
+            imageFiles.add(file);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public
+    void clearCache() {
+        cache.clear();
+    }
+
+    @TearDown
+    public
+    void tearDown() {
+        cache.clear();
+        for (final File file : imageFiles) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    @Benchmark
+    public
+    Object resizeOnCallerThread() {
+        Object last = null;
+        for (final File file : imageFiles) {
+            last = imageResizeUtil.resize(false, file);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public
+    void prepare(final Entries entries) {
+        entries.images = EntryImages.prepare(entries.items, imageResizeUtil);
+    }
+
+    @Benchmark
+    public
+    void prepareUntilApplied(final Entries entries) {
+        entries.images = EntryImages.prepare(entries.items, imageResizeUtil);
+        EntryImages.await(entries.images);
+    }
+}
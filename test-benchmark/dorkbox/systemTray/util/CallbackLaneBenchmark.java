@@ -0,0 +1,112 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the click-to-callback time, while the event dispatch is flooded with menu changes.
+ * <p>
+ * {@link #eventDispatch()} queues the callback behind the menu changes (how callbacks used to run), and {@link #callbackDispatch()}
+ * runs it on the callback dispatch instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public
+class CallbackLaneBenchmark {
+    // how many menu changes are queued before the click
+    @Param({"0", "100"})
+    public int menuChanges;
+
+    // how long each menu change takes
+    private static final long MENU_CHANGE_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private CountDownLatch menuChangesDone;
+
+    @Setup(Level.Invocation)
+    public
+    void startMenuChanges() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(menuChanges);
+        menuChangesDone = done;
+
+        for (int i = 0; i < menuChanges; i++) {
+            EventDispatch.runLater(()->{
+                started.countDown();
+
+                final long end = System.nanoTime() + MENU_CHANGE_NANOS;
+                while (System.nanoTime() < end) {
+                    // busy, the same as a menu change that takes this long
+                }
+
+                done.countDown();
+            });
+        }
+
+        // the click must happen while the event dispatch is busy
+        if (menuChanges > 0) {
+            started.await();
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public
+    void finishMenuChanges() throws InterruptedException {
+        menuChangesDone.await();
+    }
+
+    @TearDown
+    public
+    void tearDown() {
+        EventDispatch.shutdown();
+        EventDispatch.waitForShutdown();
+    }
+
+    @Benchmark
+    public
+    void eventDispatch() throws InterruptedException {
+        final CountDownLatch clicked = new CountDownLatch(1);
+        EventDispatch.runLater(clicked::countDown);
+        clicked.await();
+    }
+
+    @Benchmark
+    public
+    void callbackDispatch() throws InterruptedException {
+        final CountDownLatch clicked = new CountDownLatch(1);
+        EventDispatch.runCallback(null, clicked::countDown);
+        clicked.await();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dorkbox.systemTray.SystemTray;
+
+/**
+ * Compares the throughput of the event dispatch ({@link DispatchQueue}) with how the event dispatch used to work: a class lock on every
+ * call, and a wrapper for every task on a single thread executor.
+ * <p>
+ * Every operation adds a batch of tasks from one producer thread, and waits until they have run. The number of producers can be
+ * changed with "-t", for example: -Pjmh="DispatchQueueBenchmark -t 1"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public
+class DispatchQueueBenchmark {
+    private static final int BATCH = 100;
+
+    private static final Runnable NO_OP = ()->{
+    };
+
+    @State(Scope.Benchmark)
+    public static
+    class Ring {
+        @Param({"Park", "Yield", "Spin"})
+        public DispatchQueue.WaitStrategy waitStrategy;
+
+        private DispatchQueue queue;
+
+        @Setup
+        public
+        void setup() {
+            queue = new DispatchQueue("SystemTrayBenchmarkDispatch", Thread.NORM_PRIORITY, SystemTray.EVENT_DISPATCH_QUEUE_SIZE,
+                                      waitStrategy, DispatchLane.EVENTS);
+        }
+
+        @TearDown
+        public
+        void tearDown() throws InterruptedException {
+            // this can only be stopped from the dispatch thread
+            final CountDownLatch stopped = new CountDownLatch(1);
+            queue.execute(()->{
+                queue.shutdownNow();
+                stopped.countDown();
+            });
+            stopped.await();
+        }
+    }
+
+    /**
+     * How {@link EventDispatch#runLater(Runnable)} used to add tasks
+     */
+    @State(Scope.Benchmark)
+    public static
+    class Legacy {
+        private ExecutorService executor = null;
+        private volatile boolean insideDispatch = false;
+
+        void runLater(final Runnable runnable) {
+            synchronized (Legacy.class) {
+                if (executor == null) {
+                    executor = Executors.newSingleThreadExecutor();
+                }
+            }
+
+            executor.execute(()->{
+                insideDispatch = true;
+                runnable.run();
+                insideDispatch = false;
+            });
+        }
+
+        @TearDown
+        public
+        void tearDown() {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Benchmark
+    public
+    void dispatchQueue(final Ring ring) throws InterruptedException {
+        final DispatchQueue queue = ring.queue;
+        for (int i = 0; i < BATCH; i++) {
+            queue.execute(NO_OP);
+        }
+
+        // tasks from the same producer run in order, so the batch is done when this runs
+        final CountDownLatch done = new CountDownLatch(1);
+        queue.execute(done::countDown);
+        done.await();
+    }
+
+    @Benchmark
+    public
+    void legacyExecutor(final Legacy legacy) throws InterruptedException {
+        for (int i = 0; i < BATCH; i++) {
+            legacy.runLater(NO_OP);
+        }
+
+        final CountDownLatch done = new CountDownLatch(1);
+        legacy.runLater(done::countDown);
+        done.await();
+    }
+}
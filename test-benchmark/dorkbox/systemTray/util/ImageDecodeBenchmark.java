@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dorkbox.util.ImageUtil;
+
+/**
+ * Compares reading the size of an image and then decoding it again (how images used to be resized), with reading the header and the
+ * pixels with the same ImageReader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public
+class ImageDecodeBenchmark {
+    private static final int TARGET_SIZE = 32;
+
+    // 32 is already the target size, so it is never decoded
+    @Param({"32", "256"})
+    public int imageSize;
+
+    private byte[] bytes;
+
+    @Setup
+    public
+    void setup() throws IOException {
+        final BufferedImage image = new BufferedImage(imageSize, imageSize, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.ORANGE);
+            g.fillOval(0, 0, imageSize, imageSize);
+            g.setColor(Color.BLUE);
+            g.drawLine(0, 0, imageSize, imageSize);
+        } finally {
+            g.dispose();
+        }
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", outputStream);
+        bytes = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public
+    BufferedImage twoPass() throws IOException {
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
+        final Dimension imageSize = ImageUtil.getImageSize(inputStream);
+        if (TARGET_SIZE == (int) imageSize.getHeight() && TARGET_SIZE == (int) imageSize.getWidth()) {
+            return null;
+        }
+
+        inputStream.reset();
+        return ImageIO.read(inputStream);
+    }
+
+    @Benchmark
+    public
+    BufferedImage singlePass() throws IOException {
+        return ImageResizeUtil.readIfNotSize(TARGET_SIZE, new ByteArrayInputStream(bytes));
+    }
+}
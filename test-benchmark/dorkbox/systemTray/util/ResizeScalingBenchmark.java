@@ -0,0 +1,153 @@
+/*
+ * Copyright 2023 dorkbox, llc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dorkbox.systemTray.util;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dorkbox.systemTray.SystemTray;
+import dorkbox.util.CacheUtil;
+
+/**
+ * Measures how resizing scales from 1 to N threads, when every thread resizes a different image with the same {@link ImageResizeUtil}
+ * (the same tray). The resized file is deleted after every operation, so every image has to be resized and saved again.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public
+class ResizeScalingBenchmark {
+    @State(Scope.Benchmark)
+    public static
+    class Tray {
+        private CacheUtil cache;
+        private ImageResizeUtil imageResizeUtil;
+
+        @Setup
+        public
+        void setup() {
+            SizeAndScaling.TRAY_SIZE = 24;
+            SizeAndScaling.TRAY_MENU_SIZE = 16;
+
+            // every image must be resized, not found in memory
+            SystemTray.IMAGE_MEMORY_CACHE_SIZE = 0;
+
+            cache = new CacheUtil("SystemTrayBenchmark_ResizeScaling");
+            imageResizeUtil = new ImageResizeUtil(cache);
+        }
+
+        @TearDown
+        public
+        void tearDown() {
+            cache.clear();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static
+    class SourceImage {
+        private static final AtomicInteger count = new AtomicInteger();
+
+        private File file;
+
+        @Setup
+        public
+        void setup() throws IOException {
+            // each thread has a different image, so they are not resized only once for all of them
+            final int index = count.getAndIncrement();
+
+            final BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+            final Graphics2D g = image.createGraphics();
+            try {
+                g.setColor(new Color(Color.HSBtoRGB(index * 0.618034F, 0.8F, 0.9F)));
+                g.fillOval(0, 0, 256, 256);
+            } finally {
+                g.dispose();
+            }
+
+            file = File.createTempFile("SystemTrayBenchmark_" + index + "_", ".png");
+            file.deleteOnExit();
+            ImageIO.write(image, "png", file);
+        }
+
+        @TearDown
+        public
+        void tearDown() {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    private static
+    File resize(final Tray tray, final SourceImage image) {
+        final File resized = tray.imageResizeUtil.resize(false, image.file).getFile();
+
+        // so the next operation does not find it in the cache
+        //noinspection ResultOfMethodCallIgnored
+        resized.delete();
+        return resized;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public
+    File threads_1(final Tray tray, final SourceImage image) {
+        return resize(tray, image);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public
+    File threads_2(final Tray tray, final SourceImage image) {
+        return resize(tray, image);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public
+    File threads_4(final Tray tray, final SourceImage image) {
+        return resize(tray, image);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public
+    File threads_max(final Tray tray, final SourceImage image) {
+        return resize(tray, image);
+    }
+}